@@ -3,12 +3,17 @@ package com.github.waitlight.asskicker.channel;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.waitlight.asskicker.model.*;
 import com.github.waitlight.asskicker.service.RecordService;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.util.HashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Getter
 @Slf4j
@@ -19,6 +24,11 @@ public abstract class AbstractChannel<T extends SendReq> {
     private final ChannelType type;
     private final ChannelProvider provider;
     private final ChannelEntity channel;
+    private final int weight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile ChannelRateLimiter rateLimiter;
+    private volatile ChannelCircuitBreaker circuitBreaker;
+    private volatile BlockingExecutor blockingExecutor;
 
     protected final WebClient webClient;
     protected final ObjectMapper objectMapper;
@@ -31,6 +41,7 @@ public abstract class AbstractChannel<T extends SendReq> {
         this.type = channel.getType();
         this.provider = channel.getProvider();
         this.channel = channel;
+        this.weight = channel.getWeight() != null && channel.getWeight() > 0 ? channel.getWeight() : 1;
 
         this.webClient = webClient;
         this.objectMapper = objectMapper;
@@ -38,16 +49,143 @@ public abstract class AbstractChannel<T extends SendReq> {
     }
 
     public final Mono<String> send(T req) {
-        return doSend(req)
-                .map(result -> recording(req, SendRecordStatus.SUCCESS, null))
-                .doOnError(error -> recording(req, SendRecordStatus.FAILED, error.getMessage()));
+        return execute(req)
+                .map(result -> record(req, SendRecordStatus.SUCCESS, null, 0))
+                .doOnError(error -> record(req, SendRecordStatus.FAILED, error.getMessage(), 0));
+    }
+
+    /**
+     * 执行一次发送（限流排队、熔断统计），不写发送记录；调用方确定最终结果后通过 {@link #record} 落记录，
+     * 用于故障切换时只为最终结果写一条记录。没有走到 doSend 结果的调用（被取消、限流拒绝）归还熔断器的探测名额。
+     */
+    public final Mono<String> execute(T req) {
+        return Mono.defer(() -> {
+            ChannelCircuitBreaker breaker = circuitBreaker;
+            AtomicBoolean reported = new AtomicBoolean();
+            Mono<String> sending = Mono.defer(() -> {
+                if (breaker == null) {
+                    return doSend(req);
+                }
+                long start = System.nanoTime();
+                return doSend(req)
+                        .doOnSuccess(r -> {
+                            reported.set(true);
+                            breaker.onResult(System.currentTimeMillis(), System.nanoTime() - start, false);
+                        })
+                        .doOnError(e -> {
+                            reported.set(true);
+                            breaker.onResult(System.currentTimeMillis(), System.nanoTime() - start, true);
+                        });
+            });
+            ChannelRateLimiter limiter = rateLimiter;
+            if (limiter != null) {
+                sending = Mono.defer(limiter::acquire).then(sending);
+            }
+            return sending
+                    .doOnSubscribe(s -> inFlight.incrementAndGet())
+                    .doFinally(signal -> {
+                        inFlight.decrementAndGet();
+                        if (breaker != null && !reported.get()) {
+                            breaker.release();
+                        }
+                    });
+        });
+    }
+
+    /**
+     * 熔断器是否放行本次发送，未配置熔断器时总是放行
+     */
+    public boolean tryAcquire() {
+        ChannelCircuitBreaker breaker = circuitBreaker;
+        return breaker == null || breaker.tryAcquire(System.currentTimeMillis());
     }
 
     protected abstract Mono<String> doSend(T req);
 
+    /**
+     * 由 {@link ChannelFactory} 在创建通道后按 ChannelEntity.rateLimit 设置
+     */
+    void setRateLimiter(ChannelRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * 由 {@link ChannelFactory} 从 {@link ChannelCircuitBreakerRegistry} 取得并设置
+     */
+    void setCircuitBreaker(ChannelCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * 由 {@link ChannelFactory} 为 {@link Channel#blocking()} 通道设置
+     */
+    void setBlockingExecutor(BlockingExecutor blockingExecutor) {
+        this.blockingExecutor = blockingExecutor;
+    }
+
+    /**
+     * 当前已订阅（含限流排队中）、尚未结束的发送数
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
     public abstract void dispose();
 
-    private String recording(SendReq req, SendRecordStatus status, String errorMessage) {
+    /**
+     * 由 {@link ChannelFactory} 在创建受 {@link ChannelManager} 管理的实例后调用，传入应用的 MeterRegistry，
+     * 子类在此注册或接管按通道 code 共享的指标等；临时实例（如调试发送）不会调用
+     */
+    protected void onActivated(MeterRegistry meterRegistry) {
+    }
+
+    /**
+     * 由 {@link ChannelManager} 在通道被删除或禁用、refresh 后不再有同 code 实例时调用，子类在此注销按 code 注册的指标
+     */
+    protected void onRetired() {
+    }
+
+    final void activate(MeterRegistry meterRegistry) {
+        onActivated(meterRegistry);
+    }
+
+    final void retire() {
+        onRetired();
+    }
+
+    /**
+     * 释放通道：先调用 {@link #dispose()} 释放子类资源，再关闭专属执行器（已排队的调用会执行完）
+     */
+    public final void close() {
+        try {
+            dispose();
+        } finally {
+            BlockingExecutor executor = blockingExecutor;
+            if (executor != null) {
+                executor.close();
+            }
+        }
+    }
+
+    /**
+     * 在通道专属的有界执行器上执行阻塞调用（如厂商同步 SDK），避免占用订阅线程；
+     * 未配置专属执行器时退回 {@link Schedulers#boundedElastic()}
+     */
+    protected final <R> Mono<R> blocking(Callable<R> call) {
+        BlockingExecutor executor = blockingExecutor;
+        if (executor != null) {
+            return executor.submit(call);
+        }
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * 写入发送记录
+     *
+     * @param failoverAttempts 本次结果之前已切换通道的次数
+     * @return 记录 ID
+     */
+    public String record(SendReq req, SendRecordStatus status, String errorMessage, int failoverAttempts) {
         RecordEntity r = new RecordEntity();
         if (req.getRecordId() != null && !req.getRecordId().isBlank()) {
             r.setId(req.getRecordId());
@@ -61,11 +199,21 @@ public abstract class AbstractChannel<T extends SendReq> {
         r.setChannelType(type);
         r.setChannelName(channel.getName());
         r.setRecipient(req.recipient());
-        r.setRenderedContent(req.renderedContent());
+        r.setRenderedContent(renderedContent(req));
         r.setDirectSend(req.isDirectSend());
         r.setStatus(status);
         r.setErrorMessage(errorMessage);
         r.setSentAt(System.currentTimeMillis());
+        r.setFailoverAttempts(failoverAttempts);
+        ChannelCircuitBreaker breaker = circuitBreaker;
+        r.setCircuitState(breaker != null ? breaker.getState() : null);
         return recordService.create(r);
     }
+
+    /**
+     * 写入发送记录的正文，默认取请求的 renderedContent；请求中的正文只被部分通道直接发送时由子类覆盖
+     */
+    protected String renderedContent(SendReq req) {
+        return req.renderedContent();
+    }
 }
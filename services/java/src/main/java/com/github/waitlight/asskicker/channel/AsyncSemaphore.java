@@ -0,0 +1,125 @@
+package com.github.waitlight.asskicker.channel;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 非阻塞的在途许可：许可用尽时订阅者排队等待而不占用线程，许可释放后按到达顺序交给下一个等待者，
+ * 用于把下游客户端的内部队列长度限制在许可数以内，超出部分反压给上游。
+ */
+public final class AsyncSemaphore {
+
+    private static final int WAITING = 0;
+    private static final int GRANTED = 1;
+    private static final int CANCELLED = 2;
+
+    private final int permits;
+    private final AtomicInteger available;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    public AsyncSemaphore(int permits) {
+        if (permits < 1) {
+            throw new IllegalArgumentException("permits must be positive: " + permits);
+        }
+        this.permits = permits;
+        this.available = new AtomicInteger(permits);
+    }
+
+    /**
+     * 取得许可后订阅 task，task 结束（完成、出错或取消）时归还许可
+     */
+    public <T> Mono<T> withPermit(Supplier<? extends Mono<T>> task) {
+        return Mono.<Permit>create(sink -> {
+                    if (tryAcquire()) {
+                        sink.success(new Permit());
+                        return;
+                    }
+                    Waiter waiter = new Waiter(sink);
+                    waiting.incrementAndGet();
+                    waiters.add(waiter);
+                    sink.onCancel(waiter::cancel);
+                    drain();
+                })
+                .flatMap(permit -> Mono.defer(task).doFinally(signal -> permit.release()))
+                .doOnDiscard(Permit.class, Permit::release);
+    }
+
+    /**
+     * 已借出的许可数
+     */
+    public int getInFlight() {
+        return permits - available.get();
+    }
+
+    /**
+     * 排队等待许可的订阅数
+     */
+    public int getWaiting() {
+        return waiting.get();
+    }
+
+    private boolean tryAcquire() {
+        int n;
+        do {
+            n = available.get();
+            if (n <= 0) {
+                return false;
+            }
+        } while (!available.compareAndSet(n, n - 1));
+        return true;
+    }
+
+    private void drain() {
+        while (!waiters.isEmpty() && tryAcquire()) {
+            Waiter waiter = waiters.poll();
+            if (waiter == null || !waiter.grant()) {
+                available.incrementAndGet();
+            }
+        }
+    }
+
+    private final class Permit {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                available.incrementAndGet();
+                drain();
+            }
+        }
+    }
+
+    private final class Waiter {
+
+        private final MonoSink<Permit> sink;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        Waiter(MonoSink<Permit> sink) {
+            this.sink = sink;
+        }
+
+        boolean grant() {
+            if (!state.compareAndSet(WAITING, GRANTED)) {
+                return false;
+            }
+            waiting.decrementAndGet();
+            sink.success(new Permit());
+            return true;
+        }
+
+        void cancel() {
+            if (state.compareAndSet(WAITING, CANCELLED)) {
+                waiting.decrementAndGet();
+                waiters.remove(this);
+            }
+        }
+    }
+}
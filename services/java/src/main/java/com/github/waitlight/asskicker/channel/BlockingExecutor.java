@@ -0,0 +1,135 @@
+package com.github.waitlight.asskicker.channel;
+
+import com.github.waitlight.asskicker.exception.SendException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 单个阻塞通道专属的有界执行器（舱壁）：厂商 SDK 的同步调用在这里执行，不占用 MQ 消费线程或 Netty 事件循环，
+ * 一个通道变慢只会占满自己的并发与队列，排队超过上限时直接失败。
+ * <p>
+ * 平台线程模式下并发由线程池大小限制；虚拟线程模式下每个调用一个虚拟线程，并发由信号量限制。
+ */
+@Slf4j
+public final class BlockingExecutor {
+
+    private final String channelCode;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int queueCapacity;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final Timer waitTimer;
+    private final Counter rejected;
+    private final AtomicReference<BlockingExecutor> slot;
+
+    BlockingExecutor(String channelCode, ExecutorService executor, Semaphore permits, int queueCapacity,
+                     Timer waitTimer, Counter rejected, AtomicReference<BlockingExecutor> slot) {
+        this.channelCode = channelCode;
+        this.executor = executor;
+        this.permits = permits;
+        this.queueCapacity = queueCapacity;
+        this.waitTimer = waitTimer;
+        this.rejected = rejected;
+        this.slot = slot;
+    }
+
+    /**
+     * 提交一次阻塞调用，调用在执行器线程上完成后发出结果；订阅被取消且调用尚未开始（含等待并发许可）时从队列中撤回
+     */
+    public <R> Mono<R> submit(Callable<R> call) {
+        return Mono.create(sink -> {
+            if (queued.incrementAndGet() > queueCapacity) {
+                queued.decrementAndGet();
+                rejected.increment();
+                sink.error(new SendException("Channel " + channelCode + " bulkhead full, queued=" + queueCapacity));
+                return;
+            }
+            long enqueuedAt = System.nanoTime();
+            AtomicBoolean started = new AtomicBoolean();
+            Future<?> future;
+            try {
+                future = executor.submit(() -> {
+                    boolean acquired = false;
+                    try {
+                        if (permits != null) {
+                            permits.acquire();
+                            acquired = true;
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        if (started.compareAndSet(false, true)) {
+                            queued.decrementAndGet();
+                            sink.error(e);
+                        }
+                        return;
+                    }
+                    try {
+                        // 拿到许可才算出队，等待许可的调用计入 queued，受 queueCapacity 约束且可被取消
+                        if (!started.compareAndSet(false, true)) {
+                            return;
+                        }
+                        queued.decrementAndGet();
+                        waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                        active.incrementAndGet();
+                        try {
+                            sink.success(call.call());
+                        } finally {
+                            active.decrementAndGet();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        sink.error(e);
+                    } catch (Throwable e) {
+                        sink.error(e);
+                    } finally {
+                        if (acquired) {
+                            permits.release();
+                        }
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                queued.decrementAndGet();
+                rejected.increment();
+                sink.error(new SendException("Channel " + channelCode + " executor closed"));
+                return;
+            }
+            sink.onCancel(() -> {
+                if (started.compareAndSet(false, true)) {
+                    queued.decrementAndGet();
+                    // 虚拟线程模式下调用可能已在等待许可，需中断才能撤回
+                    future.cancel(permits != null);
+                }
+            });
+        });
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public int getActive() {
+        return active.get();
+    }
+
+    /**
+     * 不再接收新调用，已排队的调用继续执行完
+     */
+    void close() {
+        executor.shutdown();
+        slot.compareAndSet(this, null);
+        log.debug("Blocking executor of channel {} closed, queued={}", channelCode, queued.get());
+    }
+}
@@ -17,4 +17,15 @@ public @interface Channel {
     ChannelProvider provider();
 
     Class<? extends SendReq> reqType();
+
+    /**
+     * 为 true 表示 doSend 内有阻塞调用（如厂商同步 SDK），工厂会为其创建专属的有界执行器
+     */
+    boolean blocking() default false;
+
+    /**
+     * 同一 (type, provider) 的可选实现标识，由通道 properties 中的 {@value ChannelFactory#CLIENT_PROPERTY} 选用；
+     * 为空表示默认实现
+     */
+    String client() default "";
 }
@@ -0,0 +1,147 @@
+package com.github.waitlight.asskicker.channel;
+
+import com.github.waitlight.asskicker.config.ChannelCircuitBreakerConfig.ChannelCircuitBreakerProperties;
+import com.github.waitlight.asskicker.model.CircuitState;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 通道熔断器：按滚动窗口内的失败率与分位延迟判断是否熔断。
+ * <p>
+ * CLOSED 时放行全部请求；OPEN 持续 openDuration 后转为 HALF_OPEN，放行 halfOpenProbes 个探测请求，
+ * 探测全部成功则恢复 CLOSED，任一失败或 halfOpenTimeout 内未完成则重新 OPEN；被取消、未实际发出的探测通过
+ * {@link #release()} 归还名额。延迟分位的计算开销较大，成功调用最多每 250ms 评估一次。
+ */
+@Slf4j
+public final class ChannelCircuitBreaker {
+
+    private static final long LATENCY_EVALUATION_INTERVAL_MS = 250;
+
+    private final String channelCode;
+    private final ChannelCircuitBreakerProperties properties;
+    private final ChannelHealthWindow window;
+    private final AtomicReference<CircuitState> state = new AtomicReference<>(CircuitState.CLOSED);
+    private final AtomicInteger probePermits = new AtomicInteger();
+    private final AtomicInteger probeSuccesses = new AtomicInteger();
+    private final AtomicLong nextLatencyEvaluation = new AtomicLong();
+    private volatile long openedAt;
+    private volatile long halfOpenedAt;
+
+    ChannelCircuitBreaker(String channelCode, ChannelCircuitBreakerProperties properties) {
+        this.channelCode = channelCode;
+        this.properties = properties;
+        this.window = new ChannelHealthWindow(properties.getWindow(), properties.getWindowBuckets());
+    }
+
+    public CircuitState getState() {
+        return state.get();
+    }
+
+    /**
+     * 判断是否放行一次调用；HALF_OPEN 时会占用一个探测名额
+     */
+    public boolean tryAcquire(long nowMillis) {
+        if (!properties.isEnabled()) {
+            return true;
+        }
+        CircuitState current = state.get();
+        if (current == CircuitState.CLOSED) {
+            return true;
+        }
+        if (current == CircuitState.OPEN) {
+            if (nowMillis - openedAt < properties.getOpenDuration().toMillis()) {
+                return false;
+            }
+            if (state.compareAndSet(CircuitState.OPEN, CircuitState.HALF_OPEN)) {
+                halfOpenedAt = nowMillis;
+                probeSuccesses.set(0);
+                probePermits.set(properties.getHalfOpenProbes());
+                log.info("Channel {} circuit half-open, probing", channelCode);
+            }
+        } else if (nowMillis - halfOpenedAt >= properties.getHalfOpenTimeout().toMillis()) {
+            open(CircuitState.HALF_OPEN, nowMillis, "half-open probes timed out");
+            return false;
+        }
+        return probePermits.getAndUpdate(p -> p > 0 ? p - 1 : p) > 0;
+    }
+
+    /**
+     * 归还 {@link #tryAcquire} 占用但没有产生结果的探测名额（发送被取消、限流拒绝等），
+     * 归还后的名额不超过仍缺少的成功探测数
+     */
+    public void release() {
+        if (!properties.isEnabled() || state.get() != CircuitState.HALF_OPEN) {
+            return;
+        }
+        int missing = properties.getHalfOpenProbes() - probeSuccesses.get();
+        probePermits.updateAndGet(p -> Math.min(p + 1, Math.max(missing, 0)));
+    }
+
+    public void onResult(long nowMillis, long latencyNanos, boolean failed) {
+        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(latencyNanos);
+        window.record(nowMillis, latencyMicros, failed);
+        if (!properties.isEnabled()) {
+            return;
+        }
+        CircuitState current = state.get();
+        if (current == CircuitState.HALF_OPEN) {
+            if (failed || latencyMicros > properties.getLatencyThreshold().toNanos() / 1000) {
+                open(CircuitState.HALF_OPEN, nowMillis, "probe failed");
+            } else if (probeSuccesses.incrementAndGet() >= properties.getHalfOpenProbes()
+                    && state.compareAndSet(CircuitState.HALF_OPEN, CircuitState.CLOSED)) {
+                window.reset();
+                log.info("Channel {} circuit closed", channelCode);
+            }
+            return;
+        }
+        if (current == CircuitState.CLOSED) {
+            evaluate(nowMillis, failed);
+        }
+    }
+
+    /**
+     * 最近窗口内指定分位的延迟，数据不足 minimumCalls 时返回 -1
+     */
+    public long latencyPercentileMicros(long nowMillis, double quantile) {
+        ChannelHealthWindow.Snapshot snapshot = window.snapshot(nowMillis, true);
+        return snapshot.calls() < properties.getMinimumCalls() ? -1 : snapshot.percentileMicros(quantile);
+    }
+
+    private void evaluate(long nowMillis, boolean failed) {
+        boolean checkLatency = false;
+        long next = nextLatencyEvaluation.get();
+        if (nowMillis >= next) {
+            checkLatency = nextLatencyEvaluation.compareAndSet(next, nowMillis + LATENCY_EVALUATION_INTERVAL_MS);
+        }
+        if (!failed && !checkLatency) {
+            return;
+        }
+        ChannelHealthWindow.Snapshot snapshot = window.snapshot(nowMillis, checkLatency);
+        if (snapshot.calls() < properties.getMinimumCalls()) {
+            return;
+        }
+        if (snapshot.failureRate() >= properties.getFailureRateThreshold()) {
+            open(CircuitState.CLOSED, nowMillis, "failure rate " + snapshot.failureRate());
+            return;
+        }
+        if (checkLatency) {
+            long percentile = snapshot.percentileMicros(properties.getLatencyPercentile());
+            if (percentile > properties.getLatencyThreshold().toNanos() / 1000) {
+                open(CircuitState.CLOSED, nowMillis, "p" + Math.round(properties.getLatencyPercentile() * 100)
+                        + " latency " + percentile + "us");
+            }
+        }
+    }
+
+    private void open(CircuitState from, long nowMillis, String reason) {
+        openedAt = nowMillis;
+        if (state.compareAndSet(from, CircuitState.OPEN)) {
+            probePermits.set(0);
+            log.warn("Channel {} circuit opened: {}", channelCode, reason);
+        }
+    }
+}
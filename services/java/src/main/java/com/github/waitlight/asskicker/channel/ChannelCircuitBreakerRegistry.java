@@ -0,0 +1,64 @@
+package com.github.waitlight.asskicker.channel;
+
+import com.github.waitlight.asskicker.config.ChannelCircuitBreakerConfig.ChannelCircuitBreakerProperties;
+import com.github.waitlight.asskicker.model.ChannelEntity;
+import com.github.waitlight.asskicker.model.CircuitState;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按通道 ID 持有熔断器，通道在 refresh 中重建时沿用原熔断器，熔断状态与统计窗口不会因刷新丢失。
+ * 每个通道注册一个状态 gauge：0 CLOSED、1 HALF_OPEN、2 OPEN。通道删除或禁用后由 {@link #remove} 一并注销。
+ */
+@Component
+public class ChannelCircuitBreakerRegistry {
+
+    private final ChannelCircuitBreakerProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Entry> breakers = new ConcurrentHashMap<>();
+
+    public ChannelCircuitBreakerRegistry(ChannelCircuitBreakerProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public ChannelCircuitBreaker forChannel(ChannelEntity entity) {
+        return breakers.computeIfAbsent(entity.getId(), id -> {
+            ChannelCircuitBreaker breaker = new ChannelCircuitBreaker(entity.getCode(), properties);
+            Gauge gauge = Gauge.builder("asskicker.channel.circuit.state", breaker, b -> stateValue(b.getState()))
+                    .tag("channel", entity.getCode())
+                    .tag("type", entity.getType().name())
+                    .register(meterRegistry);
+            return new Entry(breaker, gauge);
+        }).breaker();
+    }
+
+    public void remove(String channelId) {
+        Entry entry = breakers.remove(channelId);
+        if (entry != null) {
+            meterRegistry.remove(entry.gauge());
+        }
+    }
+
+    int size() {
+        return breakers.size();
+    }
+
+    public ChannelCircuitBreakerProperties getProperties() {
+        return properties;
+    }
+
+    private record Entry(ChannelCircuitBreaker breaker, Gauge gauge) {
+    }
+
+    private static double stateValue(CircuitState state) {
+        return switch (state) {
+            case CLOSED -> 0;
+            case HALF_OPEN -> 1;
+            case OPEN -> 2;
+        };
+    }
+}
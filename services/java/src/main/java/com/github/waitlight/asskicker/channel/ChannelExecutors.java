@@ -0,0 +1,84 @@
+package com.github.waitlight.asskicker.channel;
+
+import com.github.waitlight.asskicker.config.ChannelBlockingConfig.ChannelBlockingProperties;
+import com.github.waitlight.asskicker.model.ChannelEntity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 为标记了 {@link Channel#blocking()} 的通道创建专属 {@link BlockingExecutor}。
+ * <p>
+ * 通道 refresh 时会先创建新实例再关闭旧实例，因此队列深度 / 活跃数 gauge 按通道 code 只注册一次，
+ * 读取该 code 当前生效的执行器。
+ */
+@Component
+public class ChannelExecutors {
+
+    private final ChannelBlockingProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, AtomicReference<BlockingExecutor>> current = new ConcurrentHashMap<>();
+
+    public ChannelExecutors(ChannelBlockingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public BlockingExecutor create(ChannelEntity entity) {
+        String code = entity.getCode();
+        int maxConcurrency = properties.maxConcurrencyOf(code);
+        ExecutorService executor;
+        Semaphore permits = null;
+        if (properties.isVirtualThreads()) {
+            executor = Executors.newVirtualThreadPerTaskExecutor();
+            permits = new Semaphore(maxConcurrency);
+        } else {
+            executor = new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), threadFactory(code));
+            ((ThreadPoolExecutor) executor).allowCoreThreadTimeOut(true);
+        }
+
+        Tags tags = Tags.of("channel", code, "type", entity.getType().name());
+        AtomicReference<BlockingExecutor> ref = current.computeIfAbsent(code, c -> register(tags));
+        Timer waitTimer = Timer.builder("asskicker.channel.blocking.wait").tags(tags).register(meterRegistry);
+        Counter rejected = Counter.builder("asskicker.channel.blocking.rejected").tags(tags).register(meterRegistry);
+        BlockingExecutor blockingExecutor = new BlockingExecutor(code, executor, permits,
+                properties.queueCapacityOf(code), waitTimer, rejected, ref);
+        ref.set(blockingExecutor);
+        return blockingExecutor;
+    }
+
+    private AtomicReference<BlockingExecutor> register(Tags tags) {
+        AtomicReference<BlockingExecutor> ref = new AtomicReference<>();
+        Gauge.builder("asskicker.channel.blocking.queued", ref, r -> r.get() == null ? 0 : r.get().getQueued())
+                .tags(tags)
+                .register(meterRegistry);
+        Gauge.builder("asskicker.channel.blocking.active", ref, r -> r.get() == null ? 0 : r.get().getActive())
+                .tags(tags)
+                .register(meterRegistry);
+        return ref;
+    }
+
+    private static ThreadFactory threadFactory(String code) {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, "channel-" + code + "-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -17,7 +17,11 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.waitlight.asskicker.config.ChannelObjectMapperConfig;
 import com.github.waitlight.asskicker.service.RecordService;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Modifier;
@@ -32,31 +36,43 @@ public class ChannelFactory {
 
     private static final String CHANNEL_PACKAGE = "com.github.waitlight.asskicker.channel";
 
+    /**
+     * 通道 properties 中选择实现的键，取值对应 {@link Channel#client()}，缺省使用默认实现
+     */
+    public static final String CLIENT_PROPERTY = "client";
+
     private final WebClient webClient;
     private final ObjectMapper channelObjectMapper;
     private final RecordService recordService;
+    private final MeterRegistry meterRegistry;
+    private final ChannelCircuitBreakerRegistry circuitBreakerRegistry;
+    private final ChannelExecutors channelExecutors;
 
     /**
-     * (ChannelType, ChannelProvider) 联合键
+     * (ChannelType, ChannelProvider, client) 联合键，client 为空表示默认实现
      */
-    public record ChannelKey(ChannelType type, ChannelProvider provider) {
+    public record ChannelKey(ChannelType type, ChannelProvider provider, String client) {
     }
 
     /**
      * Channel 元信息：扫描得到的 ChannelType、ChannelProvider 及对应 Channel 具体类
      */
     public record ChannelMeta(ChannelType type, ChannelProvider provider,
-            Class<? extends AbstractChannel<?>> channelClass) {
+            Class<? extends AbstractChannel<?>> channelClass, boolean blocking) {
     }
 
     private final Map<ChannelKey, ChannelMeta> channelMetaCache = new ConcurrentHashMap<>();
 
     public ChannelFactory(WebClient webClient,
             @Qualifier(ChannelObjectMapperConfig.BEAN_NAME) ObjectMapper channelObjectMapper,
-            RecordService recordService) {
+            RecordService recordService, MeterRegistry meterRegistry,
+            ChannelCircuitBreakerRegistry circuitBreakerRegistry, ChannelExecutors channelExecutors) {
         this.webClient = webClient;
         this.channelObjectMapper = channelObjectMapper;
         this.recordService = recordService;
+        this.meterRegistry = meterRegistry;
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.channelExecutors = channelExecutors;
     }
 
     @PostConstruct
@@ -83,27 +99,67 @@ public class ChannelFactory {
                 continue;
             }
 
-            ChannelKey key = new ChannelKey(spec.type(), spec.provider());
+            ChannelKey key = new ChannelKey(spec.type(), spec.provider(), spec.client());
             ChannelMeta previous = channelMetaCache.putIfAbsent(key,
-                    new ChannelMeta(spec.type(), spec.provider(), channelClass));
+                    new ChannelMeta(spec.type(), spec.provider(), channelClass, spec.blocking()));
             if (previous != null) {
-                log.warn("Duplicate @ChannelImpl for {}/{}: {} already registered, {} ignored",
-                        spec.type(), spec.provider(),
+                log.warn("Duplicate @ChannelImpl for {}/{}/{}: {} already registered, {} ignored",
+                        spec.type(), spec.provider(), spec.client(),
                         previous.channelClass().getName(), channelClass.getName());
                 continue;
             }
 
-            log.info("Scanned Channel implementation: {}/{}", spec.type(), spec.provider());
+            log.info("Scanned Channel implementation: {}/{}{}", spec.type(), spec.provider(),
+                    spec.client().isEmpty() ? "" : "/" + spec.client());
         }
 
         log.info("Channel scan completed, found {} implementation(s)", channelMetaCache.size());
     }
 
     public Optional<ChannelMeta> getChannelMeta(ChannelType type, ChannelProvider provider) {
-        return Optional.ofNullable(channelMetaCache.get(new ChannelKey(type, provider)));
+        return getChannelMeta(type, provider, "");
     }
 
+    public Optional<ChannelMeta> getChannelMeta(ChannelType type, ChannelProvider provider, String client) {
+        return Optional.ofNullable(channelMetaCache.get(new ChannelKey(type, provider, client)));
+    }
+
+    /**
+     * 创建由 {@link ChannelManager} 管理的通道实例：挂上限流器、按通道 ID 共享的熔断器，
+     * 阻塞通道还会获得专属执行器并接管该通道 code 的执行器指标，最后调用 {@link AbstractChannel#onActivated}
+     */
     public AbstractChannel<?> create(ChannelEntity entity) {
+        AbstractChannel<?> channel = instantiate(entity);
+        if (channel == null) {
+            return null;
+        }
+        channel.setRateLimiter(ChannelRateLimiter.of(entity.getRateLimit(), rateLimitWaitTimer(entity)));
+        if (entity.getId() != null) {
+            channel.setCircuitBreaker(circuitBreakerRegistry.forChannel(entity));
+        }
+        if (isBlocking(channel)) {
+            channel.setBlockingExecutor(channelExecutors.create(entity));
+        }
+        channel.activate(meterRegistry);
+        return channel;
+    }
+
+    /**
+     * 通道已删除或禁用，释放按通道 ID 持有的熔断器
+     */
+    public void release(String channelId) {
+        circuitBreakerRegistry.remove(channelId);
+    }
+
+    /**
+     * 创建不受管理的临时通道实例（如调试发送）：不注册执行器、指标与熔断器，不影响同一通道的在线实例；
+     * 阻塞调用退回 boundedElastic，用完由调用方 {@link AbstractChannel#close()}
+     */
+    public AbstractChannel<?> createDetached(ChannelEntity entity) {
+        return instantiate(entity);
+    }
+
+    private AbstractChannel<?> instantiate(ChannelEntity entity) {
         if (entity == null) {
             throw new IllegalArgumentException("ChannelEntity must not be null");
         }
@@ -116,7 +172,15 @@ public class ChannelFactory {
             return null;
         }
 
-        ChannelMeta meta = channelMetaCache.get(new ChannelKey(type, provider));
+        String client = entity.getProperties() != null
+                ? StringUtils.trimToEmpty(entity.getProperties().get(CLIENT_PROPERTY))
+                : "";
+        ChannelMeta meta = channelMetaCache.get(new ChannelKey(type, provider, client));
+        if (meta == null && !client.isEmpty()) {
+            log.warn("No Channel implementation registered for {}/{} client={}, using default (channel code={})",
+                    type, provider, client, entity.getCode());
+            meta = channelMetaCache.get(new ChannelKey(type, provider, ""));
+        }
         if (meta == null) {
             log.warn("No Channel implementation registered for {}/{} (channel code={})",
                     type, provider, entity.getCode());
@@ -138,4 +202,16 @@ public class ChannelFactory {
             return null;
         }
     }
+
+    private static boolean isBlocking(AbstractChannel<?> channel) {
+        Channel spec = AnnotationUtils.findAnnotation(channel.getClass(), Channel.class);
+        return spec != null && spec.blocking();
+    }
+
+    private Timer rateLimitWaitTimer(ChannelEntity entity) {
+        return Timer.builder("asskicker.channel.rate-limit.wait")
+                .tag("channel", entity.getCode())
+                .tag("type", entity.getType().name())
+                .register(meterRegistry);
+    }
 }
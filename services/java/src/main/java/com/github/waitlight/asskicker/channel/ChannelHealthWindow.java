@@ -0,0 +1,139 @@
+package com.github.waitlight.asskicker.channel;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 按时间分桶的滚动窗口，统计通道调用数、失败数与延迟分布。
+ * <p>
+ * 延迟直方图使用 100µs 起、按 1.25 倍递增的固定边界，百分位结果误差不超过 25%；
+ * 记录只做原子自增，桶过期时在桶上加锁重置。
+ */
+final class ChannelHealthWindow {
+
+    static final long[] BOUNDS_MICROS;
+
+    static {
+        long[] bounds = new long[64];
+        int n = 0;
+        double bound = 100;
+        while (bound < 60_000_000 && n < bounds.length) {
+            bounds[n++] = (long) bound;
+            bound *= 1.25;
+        }
+        BOUNDS_MICROS = Arrays.copyOf(bounds, n);
+    }
+
+    private final long bucketMillis;
+    private final Bucket[] buckets;
+
+    ChannelHealthWindow(Duration window, int bucketCount) {
+        this.bucketMillis = Math.max(1, window.toMillis() / bucketCount);
+        this.buckets = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    void record(long nowMillis, long latencyMicros, boolean failed) {
+        Bucket bucket = bucketFor(nowMillis / bucketMillis);
+        bucket.calls.incrementAndGet();
+        if (failed) {
+            bucket.failures.incrementAndGet();
+        }
+        bucket.latency.incrementAndGet(binOf(latencyMicros));
+    }
+
+    /**
+     * @param withLatency 为 false 时不汇总延迟直方图，用于只需要失败率的快速判断
+     */
+    Snapshot snapshot(long nowMillis, boolean withLatency) {
+        long epoch = nowMillis / bucketMillis;
+        long calls = 0;
+        long failures = 0;
+        long[] histogram = withLatency ? new long[BOUNDS_MICROS.length + 1] : null;
+        for (Bucket bucket : buckets) {
+            long bucketEpoch = bucket.epoch.get();
+            if (bucketEpoch <= epoch - buckets.length || bucketEpoch > epoch) {
+                continue;
+            }
+            calls += bucket.calls.get();
+            failures += bucket.failures.get();
+            if (histogram != null) {
+                for (int i = 0; i < histogram.length; i++) {
+                    histogram[i] += bucket.latency.get(i);
+                }
+            }
+        }
+        return new Snapshot(calls, failures, histogram);
+    }
+
+    void reset() {
+        for (Bucket bucket : buckets) {
+            synchronized (bucket) {
+                bucket.clear(-1);
+            }
+        }
+    }
+
+    private Bucket bucketFor(long epoch) {
+        Bucket bucket = buckets[(int) (epoch % buckets.length)];
+        if (bucket.epoch.get() != epoch) {
+            synchronized (bucket) {
+                if (bucket.epoch.get() != epoch) {
+                    bucket.clear(epoch);
+                }
+            }
+        }
+        return bucket;
+    }
+
+    private static int binOf(long latencyMicros) {
+        int idx = Arrays.binarySearch(BOUNDS_MICROS, latencyMicros);
+        return idx >= 0 ? idx : -idx - 1;
+    }
+
+    record Snapshot(long calls, long failures, long[] histogram) {
+
+        double failureRate() {
+            return calls == 0 ? 0 : (double) failures / calls;
+        }
+
+        /**
+         * @return 落在 quantile 分位的直方图桶上界（微秒），无数据时返回 -1
+         */
+        long percentileMicros(double quantile) {
+            if (histogram == null || calls == 0) {
+                return -1;
+            }
+            long rank = (long) Math.ceil(quantile * calls);
+            long seen = 0;
+            for (int i = 0; i < histogram.length; i++) {
+                seen += histogram[i];
+                if (seen >= rank) {
+                    return i < BOUNDS_MICROS.length ? BOUNDS_MICROS[i] : Long.MAX_VALUE;
+                }
+            }
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static final class Bucket {
+
+        final AtomicLong epoch = new AtomicLong(-1);
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final AtomicLongArray latency = new AtomicLongArray(BOUNDS_MICROS.length + 1);
+
+        void clear(long newEpoch) {
+            calls.set(0);
+            failures.set(0);
+            for (int i = 0; i < latency.length(); i++) {
+                latency.set(i, 0);
+            }
+            epoch.set(newEpoch);
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.github.waitlight.asskicker.channel;
 
+import com.github.waitlight.asskicker.config.ChannelRoutingConfig.ChannelRoutingProperties;
+import com.github.waitlight.asskicker.exception.SendException;
 import com.github.waitlight.asskicker.model.ChannelEntity;
 import com.github.waitlight.asskicker.model.ChannelProvider;
 import com.github.waitlight.asskicker.model.ChannelType;
@@ -12,9 +14,13 @@ import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.locks.ReentrantLock;
 
 @Component
@@ -22,13 +28,14 @@ import java.util.concurrent.locks.ReentrantLock;
 @RequiredArgsConstructor
 public class ChannelManager {
 
-    private static final Comparator<AbstractChannel<?>> BY_CODE = Comparator
-            .comparing(AbstractChannel::getCode);
-
     private final ChannelService channelService;
     private final ChannelFactory channelFactory;
+    private final ChannelRoutingProperties routingProperties;
 
-    private final ConcurrentHashMap<String, AbstractChannel<?>> cache = new ConcurrentHashMap<>();
+    /**
+     * 当前路由表，init/refresh 构建新表后整体替换，发送路径只读
+     */
+    private volatile ChannelRoutingTable table = ChannelRoutingTable.EMPTY;
     private final ReentrantLock refreshLock = new ReentrantLock();
     private volatile boolean closed = false;
 
@@ -38,28 +45,25 @@ public class ChannelManager {
         if (enabled == null) {
             enabled = List.of();
         }
-        int loaded = 0;
+        Map<String, AbstractChannel<?>> loaded = new LinkedHashMap<>();
         for (ChannelEntity entity : enabled) {
             AbstractChannel<?> channel = channelFactory.create(entity);
             if (channel == null) {
                 log.warn("Skip channel {}, channel creation returned null", entity.getCode());
                 continue;
             }
-            cache.put(entity.getId(), channel);
-            loaded++;
+            loaded.put(entity.getId(), channel);
         }
-        log.info("Loaded {} channel channel(s)", loaded);
+        table = ChannelRoutingTable.build(loaded.values(), routingProperties);
+        log.info("Loaded {} channel channel(s)", loaded.size());
     }
 
     public Mono<AbstractChannel<?>> chose(ChannelType channelType, String recipient) {
-        List<AbstractChannel<?>> matching = cache.values().stream()
-                .filter(c -> c.getType() == channelType)
-                .sorted(BY_CODE)
-                .toList();
-        if (matching.isEmpty()) {
+        ChannelSelector selector = table.selector(channelType, null);
+        if (selector == null) {
             return Mono.empty();
         }
-        AbstractChannel<?> chosen = matching.get(0);
+        AbstractChannel<?> chosen = selector.select();
         log.debug("Selected channel {} for recipient {}", chosen.getCode(), recipient);
         return Mono.just(chosen);
     }
@@ -68,13 +72,31 @@ public class ChannelManager {
         return chose(req.getType(), req.getProvider());
     }
 
+    /**
+     * 按策略选择通道，跳过熔断中的通道；存在匹配通道但全部熔断时返回 {@link SendException}，
+     * 由上游（如 MQ 重试）稍后再试。
+     */
     public Mono<AbstractChannel<?>> chose(ChannelType channelType, ChannelProvider provider) {
-        AbstractChannel<?> chosen = cache.values().stream()
-                .filter(c -> channelType == null || c.getType() == channelType)
-                .filter(c -> provider == null || c.getProvider() == provider)
-                .min(BY_CODE)
-                .orElse(null);
-        return chosen == null ? Mono.empty() : Mono.just(chosen);
+        ChannelSelector selector = table.selector(channelType, provider);
+        if (selector == null) {
+            return Mono.empty();
+        }
+        AbstractChannel<?> chosen = selector.select(AbstractChannel::tryAcquire);
+        return chosen != null ? Mono.just(chosen) : Mono.error(new SendException(
+                "All " + selector.size() + " channel(s) of " + channelType + "/" + provider + " are circuit-open"));
+    }
+
+    /**
+     * 故障切换：在同一 ChannelType 的通道中选择一个未尝试过且熔断器放行的通道，没有时返回空；
+     * 请求指定了 provider 时只在该 provider 的通道中切换
+     */
+    public Mono<AbstractChannel<?>> choseFailover(ChannelType channelType, ChannelProvider provider,
+                                                  Set<String> excludedIds) {
+        ChannelSelector selector = table.selector(channelType, provider);
+        if (selector == null) {
+            return Mono.empty();
+        }
+        return Mono.justOrEmpty(selector.select(c -> !excludedIds.contains(c.getId()) && c.tryAcquire()));
     }
 
     public void refresh() {
@@ -84,23 +106,29 @@ public class ChannelManager {
                 log.info("Channel cache refresh skipped, manager already closed");
                 return;
             }
-            ConcurrentHashMap<String, AbstractChannel<?>> next = new ConcurrentHashMap<>();
+            Map<String, AbstractChannel<?>> next = new LinkedHashMap<>();
             List<ChannelEntity> enabledProvider = channelService.findEnabled().collectList().block();
             if (enabledProvider == null) {
                 enabledProvider = List.of();
             }
 
+            List<AbstractChannel<?>> previous = new ArrayList<>(table.channels());
+            Map<String, AbstractChannel<?>> previousById = new HashMap<>();
+            for (AbstractChannel<?> c : previous) {
+                previousById.put(c.getId(), c);
+            }
             for (ChannelEntity entity : enabledProvider) {
                 AbstractChannel<?> channel = channelFactory.create(entity);
                 if (channel != null) {
+                    inheritQuotaShare(previousById.get(entity.getId()), channel);
                     next.put(entity.getId(), channel);
                 }
             }
-            List<AbstractChannel<?>> previous = new ArrayList<>(cache.values());
-            cache.clear();
-            cache.putAll(next);
+            table = ChannelRoutingTable.build(next.values(), routingProperties);
             log.info("Refreshed channel cache, {} channel(s)", next.size());
             disposeAll(previous);
+            retireRemoved(previous, next.values());
+            releaseRemoved(previousById.keySet(), next.keySet());
         } catch (Exception e) {
             log.error("Channel cache refresh failed, keeping previous cache", e);
         } finally {
@@ -116,8 +144,8 @@ public class ChannelManager {
                 return;
             }
             closed = true;
-            List<AbstractChannel<?>> toDispose = new ArrayList<>(cache.values());
-            cache.clear();
+            List<AbstractChannel<?>> toDispose = new ArrayList<>(table.channels());
+            table = ChannelRoutingTable.EMPTY;
             log.info("Shutting down ChannelManager, disposing {} channel(s)", toDispose.size());
             disposeAll(toDispose);
             log.info("ChannelManager shutdown complete");
@@ -129,14 +157,74 @@ public class ChannelManager {
     private void disposeAll(List<AbstractChannel<?>> channels) {
         for (AbstractChannel<?> c : channels) {
             try {
-                c.dispose();
+                c.close();
             } catch (Exception e) {
                 log.warn("Channel {} dispose failed", c.getCode(), e);
             }
         }
     }
 
+    /**
+     * 新建的限流器份额为 1，等到下一次租约续期才会调整；沿用旧实例上由 {@link ChannelQuotaCoordinator}
+     * 设置的份额，避免刚刷新后各节点都按整个集群的配额发送
+     */
+    private static void inheritQuotaShare(AbstractChannel<?> previous, AbstractChannel<?> next) {
+        if (previous == null || previous.getRateLimiter() == null || next.getRateLimiter() == null) {
+            return;
+        }
+        next.getRateLimiter().setShare(previous.getRateLimiter().getShare());
+    }
+
+    /**
+     * refresh 后不再存在同 code 实例的旧通道（已删除、禁用或改了 code），通知其注销按 code 注册的指标
+     */
+    private void retireRemoved(List<AbstractChannel<?>> previous, Collection<AbstractChannel<?>> current) {
+        Set<String> liveCodes = new HashSet<>();
+        for (AbstractChannel<?> c : current) {
+            liveCodes.add(c.getCode());
+        }
+        for (AbstractChannel<?> c : previous) {
+            if (!liveCodes.contains(c.getCode())) {
+                try {
+                    c.retire();
+                } catch (Exception e) {
+                    log.warn("Channel {} retire failed", c.getCode(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * refresh 后已删除或禁用的通道 ID，释放其熔断器与状态 gauge
+     */
+    private void releaseRemoved(Set<String> previousIds, Set<String> currentIds) {
+        for (String id : previousIds) {
+            if (id != null && !currentIds.contains(id)) {
+                channelFactory.release(id);
+            }
+        }
+    }
+
+    /**
+     * 当前路由表中的全部通道，只读快照
+     */
+    public Collection<AbstractChannel<?>> getChannels() {
+        return table.channels();
+    }
+
+    /**
+     * 路由表中指定 ID 的通道，未加载（如已禁用）时返回 null；遍历查找，不用于发送热路径
+     */
+    public AbstractChannel<?> getChannel(String id) {
+        for (AbstractChannel<?> channel : table.channels()) {
+            if (channel.getId() != null && channel.getId().equals(id)) {
+                return channel;
+            }
+        }
+        return null;
+    }
+
     public int getChannelCount() {
-        return cache.size();
+        return table.size();
     }
 }
@@ -0,0 +1,95 @@
+package com.github.waitlight.asskicker.channel;
+
+import com.github.waitlight.asskicker.config.ChannelQuotaConfig.ChannelQuotaProperties;
+import com.github.waitlight.asskicker.repository.ChannelQuotaLeaseRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Date;
+
+/**
+ * 分布式限流协调：每个节点为每个限流通道在 MongoDB 中持有一条短期租约并定期续期，
+ * 续期后统计该通道的有效租约数 N，把本地限流器调整为配额的 1/N。
+ * 发送路径不访问 MongoDB，只使用本地限流器；节点加入或退出后最迟一个 renewInterval 内各节点份额收敛。
+ */
+@Slf4j
+@Component
+public class ChannelQuotaCoordinator {
+
+    private final ChannelManager channelManager;
+    private final ChannelQuotaLeaseRepository leaseRepository;
+    private final ChannelQuotaProperties properties;
+    private final String nodeId;
+    private Disposable renewal;
+
+    public ChannelQuotaCoordinator(ChannelManager channelManager, ChannelQuotaLeaseRepository leaseRepository,
+                                   ChannelQuotaProperties properties) {
+        this.channelManager = channelManager;
+        this.leaseRepository = leaseRepository;
+        this.properties = properties;
+        this.nodeId = properties.getNodeId() != null && !properties.getNodeId().isBlank()
+                ? properties.getNodeId()
+                : ManagementFactory.getRuntimeMXBean().getName().replace('@', '-');
+    }
+
+    @PostConstruct
+    void start() {
+        if (!properties.isDistributed()) {
+            return;
+        }
+        renewal = Flux.interval(Duration.ZERO, properties.getRenewInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> renewAll()
+                        .onErrorResume(e -> {
+                            log.warn("Channel quota lease renewal failed, keeping current shares", e);
+                            return Mono.empty();
+                        }), 1)
+                .subscribe();
+        log.info("Distributed channel quota enabled, nodeId={}, leaseTtl={}, renewInterval={}",
+                nodeId, properties.getLeaseTtl(), properties.getRenewInterval());
+    }
+
+    @PreDestroy
+    void stop() {
+        if (renewal == null) {
+            return;
+        }
+        renewal.dispose();
+        try {
+            leaseRepository.releaseAll(nodeId).block(Duration.ofSeconds(3));
+        } catch (Exception e) {
+            log.warn("Release channel quota leases failed, nodeId={}", nodeId, e);
+        }
+    }
+
+    /**
+     * 续期当前所有限流通道的租约并按有效租约数调整本节点份额
+     */
+    Mono<Void> renewAll() {
+        long now = System.currentTimeMillis();
+        Date expiresAt = new Date(now + properties.getLeaseTtl().toMillis());
+        Date current = new Date(now);
+        return Flux.fromIterable(channelManager.getChannels())
+                .filter(channel -> channel.getRateLimiter() != null)
+                .concatMap(channel -> leaseRepository.renew(channel.getId(), nodeId, expiresAt)
+                        .then(leaseRepository.countActive(channel.getId(), current))
+                        .doOnNext(nodes -> applyShare(channel, nodes)))
+                .then();
+    }
+
+    private void applyShare(AbstractChannel<?> channel, long nodes) {
+        ChannelRateLimiter limiter = channel.getRateLimiter();
+        int share = (int) Math.max(1, nodes);
+        if (limiter.getShare() != share) {
+            log.info("Channel {} quota share changed 1/{} -> 1/{}", channel.getCode(), limiter.getShare(), share);
+            limiter.setShare(share);
+        }
+    }
+}
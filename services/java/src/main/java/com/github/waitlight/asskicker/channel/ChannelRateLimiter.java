@@ -0,0 +1,106 @@
+package com.github.waitlight.asskicker.channel;
+
+import com.github.waitlight.asskicker.exception.SendException;
+import com.github.waitlight.asskicker.model.ChannelRateLimit;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个通道的令牌桶限流器，按 GCRA（理论到达时间）实现：每次发送 CAS 预约一个时间槽，
+ * 超出速率时返回需要等待的时长并用 {@link Mono#delay} 延后发送，而不是失败；需要等待超过 maxWaitMs 时
+ * 不预约名额、直接以 {@link SendException} 失败，避免排队无限增长。热路径无锁。
+ * <p>
+ * 分布式限流模式下由 {@link ChannelQuotaCoordinator} 按存活节点数调整本节点份额。
+ */
+public final class ChannelRateLimiter {
+
+    private final long baseIntervalNanos;
+    private final int burst;
+    private final long maxWaitNanos;
+    private volatile int share = 1;
+    private volatile long intervalNanos;
+    private volatile long toleranceNanos;
+    private final AtomicLong theoreticalArrival;
+    private final Timer waitTimer;
+
+    ChannelRateLimiter(ChannelRateLimit limit, Timer waitTimer, long nowNanos) {
+        this.baseIntervalNanos = Math.max(1, TimeUnit.MILLISECONDS.toNanos(limit.getPeriodMs()) / limit.getPermits());
+        this.burst = limit.getBurst() != null ? limit.getBurst() : 1;
+        this.intervalNanos = baseIntervalNanos;
+        this.toleranceNanos = baseIntervalNanos * (burst - 1);
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(
+                limit.getMaxWaitMs() != null ? limit.getMaxWaitMs() : limit.getPeriodMs());
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+        this.waitTimer = waitTimer;
+    }
+
+    /**
+     * @return 配置缺失或不完整时返回 null，表示不限流
+     */
+    static ChannelRateLimiter of(ChannelRateLimit limit, Timer waitTimer) {
+        if (limit == null || limit.getPermits() == null || limit.getPermits() <= 0
+                || limit.getPeriodMs() == null || limit.getPeriodMs() <= 0) {
+            return null;
+        }
+        return new ChannelRateLimiter(limit, waitTimer, System.nanoTime());
+    }
+
+    /**
+     * 调用时立即预约一个发送名额，在名额可用时完成；调用方应在订阅时才调用（{@code Mono.defer(limiter::acquire)}）。
+     * 等待期间被取消时归还名额，需要等待超过 maxWaitMs 时以 {@link SendException} 失败
+     */
+    public Mono<Void> acquire() {
+        long waitNanos = reserve(System.nanoTime());
+        if (waitNanos < 0) {
+            return Mono.error(new SendException("rate limit wait exceeds "
+                    + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + "ms"));
+        }
+        waitTimer.record(waitNanos, TimeUnit.NANOSECONDS);
+        if (waitNanos == 0) {
+            return Mono.empty();
+        }
+        long interval = intervalNanos;
+        return Mono.delay(Duration.ofNanos(waitNanos))
+                .doOnCancel(() -> theoreticalArrival.addAndGet(-interval))
+                .then();
+    }
+
+    /**
+     * 按节点数均分配额：速率与突发容量都缩小为 1/nodes，突发容量至少为 1
+     */
+    public void setShare(int nodes) {
+        int n = Math.max(1, nodes);
+        if (n == share) {
+            return;
+        }
+        long interval = baseIntervalNanos * n;
+        this.toleranceNanos = interval * (Math.max(1, burst / n) - 1);
+        this.intervalNanos = interval;
+        this.share = n;
+    }
+
+    public int getShare() {
+        return share;
+    }
+
+    /**
+     * 预约一个时间槽，返回距离该槽可用还需等待的纳秒数；需要等待超过 maxWaitNanos 时不预约并返回 -1
+     */
+    long reserve(long nowNanos) {
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long base = Math.max(tat, nowNanos);
+            long wait = Math.max(0, base - toleranceNanos - nowNanos);
+            if (wait > maxWaitNanos) {
+                return -1;
+            }
+            if (theoreticalArrival.compareAndSet(tat, base + intervalNanos)) {
+                return wait;
+            }
+        }
+    }
+}
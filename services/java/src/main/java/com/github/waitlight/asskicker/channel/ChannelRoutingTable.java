@@ -0,0 +1,115 @@
+package com.github.waitlight.asskicker.channel;
+
+import com.github.waitlight.asskicker.config.ChannelRoutingConfig.ChannelRoutingProperties;
+import com.github.waitlight.asskicker.model.ChannelProvider;
+import com.github.waitlight.asskicker.model.ChannelType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 不可变的通道路由表，在 init/refresh 时整体构建，由 {@link ChannelManager} 通过 volatile 引用整体替换。
+ * <p>
+ * 选择器按 ChannelType / ChannelProvider 的 ordinal 存放在数组中，查找为 O(1) 且不分配对象；
+ * 同组通道按 code 排序，组内选择由 {@link ChannelSelector} 按配置的策略完成。
+ */
+final class ChannelRoutingTable {
+
+    private static final Comparator<AbstractChannel<?>> BY_CODE = Comparator
+            .comparing(AbstractChannel::getCode);
+    private static final ChannelType[] TYPES = ChannelType.values();
+    private static final ChannelProvider[] PROVIDERS = ChannelProvider.values();
+
+    static final ChannelRoutingTable EMPTY = new ChannelRoutingTable(List.of(), new ChannelRoutingProperties());
+
+    private final Map<String, AbstractChannel<?>> byId;
+    /** [type.ordinal] */
+    private final ChannelSelector[] byType;
+    /** [type.ordinal][provider.ordinal] */
+    private final ChannelSelector[][] byTypeAndProvider;
+    /** 未指定 ChannelType 时沿用 code 最小的通道 */
+    private final ChannelSelector anyType;
+    /** [provider.ordinal]，未指定 ChannelType 时使用 */
+    private final ChannelSelector[] anyTypeByProvider;
+
+    private ChannelRoutingTable(Collection<AbstractChannel<?>> channels, ChannelRoutingProperties properties) {
+        List<AbstractChannel<?>> sorted = new ArrayList<>(channels);
+        sorted.sort(BY_CODE);
+
+        Map<String, AbstractChannel<?>> ids = new LinkedHashMap<>();
+        List<List<AbstractChannel<?>>> typeGroups = groups(TYPES.length);
+        List<List<AbstractChannel<?>>> providerGroups = groups(PROVIDERS.length);
+        List<List<AbstractChannel<?>>> keyGroups = groups(TYPES.length * PROVIDERS.length);
+        for (AbstractChannel<?> channel : sorted) {
+            ids.put(channel.getId(), channel);
+            ChannelType type = channel.getType();
+            ChannelProvider provider = channel.getProvider();
+            if (type != null) {
+                typeGroups.get(type.ordinal()).add(channel);
+            }
+            if (provider != null) {
+                providerGroups.get(provider.ordinal()).add(channel);
+            }
+            if (type != null && provider != null) {
+                keyGroups.get(type.ordinal() * PROVIDERS.length + provider.ordinal()).add(channel);
+            }
+        }
+
+        this.byId = Collections.unmodifiableMap(ids);
+        this.byType = new ChannelSelector[TYPES.length];
+        this.byTypeAndProvider = new ChannelSelector[TYPES.length][PROVIDERS.length];
+        for (ChannelType type : TYPES) {
+            ChannelSelectionStrategy strategy = properties.strategyOf(type);
+            byType[type.ordinal()] = selector(strategy, typeGroups.get(type.ordinal()));
+            for (ChannelProvider provider : PROVIDERS) {
+                byTypeAndProvider[type.ordinal()][provider.ordinal()] = selector(strategy,
+                        keyGroups.get(type.ordinal() * PROVIDERS.length + provider.ordinal()));
+            }
+        }
+        this.anyType = selector(ChannelSelectionStrategy.FIRST, sorted);
+        this.anyTypeByProvider = new ChannelSelector[PROVIDERS.length];
+        for (ChannelProvider provider : PROVIDERS) {
+            anyTypeByProvider[provider.ordinal()] = selector(ChannelSelectionStrategy.FIRST,
+                    providerGroups.get(provider.ordinal()));
+        }
+    }
+
+    static ChannelRoutingTable build(Collection<AbstractChannel<?>> channels, ChannelRoutingProperties properties) {
+        return channels.isEmpty() ? EMPTY : new ChannelRoutingTable(channels, properties);
+    }
+
+    /**
+     * @return 匹配的选择器，没有可用通道时返回 null；type、provider 为 null 表示不限
+     */
+    ChannelSelector selector(ChannelType type, ChannelProvider provider) {
+        if (type == null) {
+            return provider == null ? anyType : anyTypeByProvider[provider.ordinal()];
+        }
+        return provider == null ? byType[type.ordinal()] : byTypeAndProvider[type.ordinal()][provider.ordinal()];
+    }
+
+    Collection<AbstractChannel<?>> channels() {
+        return byId.values();
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    private static List<List<AbstractChannel<?>>> groups(int n) {
+        List<List<AbstractChannel<?>>> groups = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            groups.add(new ArrayList<>());
+        }
+        return groups;
+    }
+
+    private static ChannelSelector selector(ChannelSelectionStrategy strategy, List<AbstractChannel<?>> group) {
+        return group.isEmpty() ? null : ChannelSelector.of(strategy, group.toArray(AbstractChannel<?>[]::new));
+    }
+}
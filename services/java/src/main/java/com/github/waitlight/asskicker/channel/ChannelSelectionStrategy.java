@@ -0,0 +1,19 @@
+package com.github.waitlight.asskicker.channel;
+
+/**
+ * 同一 ChannelType 下存在多个可用通道时的选择策略
+ */
+public enum ChannelSelectionStrategy {
+
+    /** 始终选择 code 最小的通道 */
+    FIRST,
+
+    /** 按 code 顺序轮询 */
+    ROUND_ROBIN,
+
+    /** 按 ChannelEntity.weight 加权随机 */
+    WEIGHTED,
+
+    /** 选择当前在途发送数最少的通道，数量相同时轮询 */
+    LEAST_IN_FLIGHT
+}
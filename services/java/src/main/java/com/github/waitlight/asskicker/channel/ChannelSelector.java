@@ -0,0 +1,144 @@
+package com.github.waitlight.asskicker.channel;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * 基于预先排好序的通道数组做选择，构建后不可变，select 无锁、不分配对象。
+ */
+public abstract class ChannelSelector {
+
+    protected final AbstractChannel<?>[] channels;
+
+    private ChannelSelector(AbstractChannel<?>[] channels) {
+        this.channels = channels;
+    }
+
+    /**
+     * 按策略返回本次选中通道在数组中的下标
+     */
+    protected abstract int selectIndex();
+
+    public AbstractChannel<?> select() {
+        return channels[selectIndex()];
+    }
+
+    /**
+     * 先按策略选择，未被 accept 接受时按数组顺序依次尝试后续通道，全部不接受时返回 null
+     */
+    public AbstractChannel<?> select(Predicate<AbstractChannel<?>> accept) {
+        int n = channels.length;
+        int start = selectIndex();
+        for (int i = 0; i < n; i++) {
+            AbstractChannel<?> candidate = channels[(start + i) % n];
+            if (accept.test(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return channels.length;
+    }
+
+    /**
+     * @param channels 非空，按 code 排序
+     */
+    public static ChannelSelector of(ChannelSelectionStrategy strategy, AbstractChannel<?>[] channels) {
+        if (channels.length == 0) {
+            throw new IllegalArgumentException("channels must not be empty");
+        }
+        if (channels.length == 1 || strategy == null) {
+            return new First(channels);
+        }
+        return switch (strategy) {
+            case FIRST -> new First(channels);
+            case ROUND_ROBIN -> new RoundRobin(channels);
+            case WEIGHTED -> new Weighted(channels);
+            case LEAST_IN_FLIGHT -> new LeastInFlight(channels);
+        };
+    }
+
+    private static final class First extends ChannelSelector {
+
+        First(AbstractChannel<?>[] channels) {
+            super(channels);
+        }
+
+        @Override
+        protected int selectIndex() {
+            return 0;
+        }
+    }
+
+    private static final class RoundRobin extends ChannelSelector {
+
+        private final AtomicInteger next = new AtomicInteger();
+
+        RoundRobin(AbstractChannel<?>[] channels) {
+            super(channels);
+        }
+
+        @Override
+        protected int selectIndex() {
+            return Math.floorMod(next.getAndIncrement(), channels.length);
+        }
+    }
+
+    /**
+     * 累积权重数组上二分查找，权重缺省或非正数时按 1 计。
+     */
+    private static final class Weighted extends ChannelSelector {
+
+        private final int[] cumulative;
+
+        Weighted(AbstractChannel<?>[] channels) {
+            super(channels);
+            this.cumulative = new int[channels.length];
+            int total = 0;
+            for (int i = 0; i < channels.length; i++) {
+                total = Math.addExact(total, channels[i].getWeight());
+                cumulative[i] = total;
+            }
+        }
+
+        @Override
+        protected int selectIndex() {
+            int point = ThreadLocalRandom.current().nextInt(cumulative[cumulative.length - 1]);
+            int idx = Arrays.binarySearch(cumulative, point + 1);
+            return idx >= 0 ? idx : -idx - 1;
+        }
+    }
+
+    /**
+     * 从轮询起点开始扫描，在途数相同时自然轮换，避免总是落在第一个通道。
+     */
+    private static final class LeastInFlight extends ChannelSelector {
+
+        private final AtomicInteger next = new AtomicInteger();
+
+        LeastInFlight(AbstractChannel<?>[] channels) {
+            super(channels);
+        }
+
+        @Override
+        protected int selectIndex() {
+            int n = channels.length;
+            int start = Math.floorMod(next.getAndIncrement(), n);
+            int best = start;
+            int bestInFlight = channels[start].getInFlight();
+            for (int i = 1; i < n && bestInFlight > 0; i++) {
+                int idx = (start + i) % n;
+                int inFlight = channels[idx].getInFlight();
+                if (inFlight < bestInFlight) {
+                    best = idx;
+                    bestInFlight = inFlight;
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.waitlight.asskicker.channel;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 通道内的请求合并器：并发提交的条目经 {@link FluxSink} 串行入队（调用方不会自旋等待），
+ * 按 maxSize / linger 合并成批交给 sender，同时在途的批次数不超过 maxInFlight。
+ * <p>
+ * {@link #close()} 后新提交的条目直接交给 reject；关闭时缓冲中的条目作为最后一批发出，
+ * 超过 {@link #DRAIN_TIMEOUT} 仍未完成的条目交给 reject，保证每个条目都有结果，调用方不会一直等待。
+ */
+public final class RequestBatcher<T> {
+
+    static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(5);
+
+    private final String name;
+    private final BiConsumer<T, Throwable> reject;
+    private final Disposable subscription;
+    private final CountDownLatch drained = new CountDownLatch(1);
+    private FluxSink<T> sink;
+    private volatile boolean closed;
+
+    /**
+     * @param type   条目类型，用于识别关闭时被丢弃的缓冲条目
+     * @param sender 发送一批条目并为其中每个条目给出结果，返回的 Mono 不应以错误结束
+     * @param reject 以给定原因让单个条目失败
+     */
+    public RequestBatcher(String name, Class<T> type, int maxSize, Duration linger, int maxInFlight,
+                          Function<List<T>, Mono<Void>> sender, BiConsumer<T, Throwable> reject) {
+        this.name = name;
+        this.reject = reject;
+        this.subscription = Flux.<T>create(s -> this.sink = s, FluxSink.OverflowStrategy.BUFFER)
+                .bufferTimeout(maxSize, linger, true)
+                .flatMap(batch -> sender.apply(batch)
+                        .doOnCancel(() -> batch.forEach(item -> reject.accept(item, closedError()))), maxInFlight)
+                .doOnDiscard(type, item -> reject.accept(item, closedError()))
+                .doFinally(signal -> drained.countDown())
+                .subscribe();
+    }
+
+    public void submit(T item) {
+        if (closed) {
+            reject.accept(item, closedError());
+            return;
+        }
+        sink.next(item);
+    }
+
+    /**
+     * 不再接收新条目：缓冲中的条目作为最后一批交给 sender，最多等待 {@link #DRAIN_TIMEOUT} 让在途批次完成，
+     * 随后取消订阅，仍未完成的条目交给 reject。会阻塞调用线程，只在通道释放时调用
+     */
+    public void close() {
+        closed = true;
+        sink.complete();
+        try {
+            drained.await(DRAIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        subscription.dispose();
+    }
+
+    private IllegalStateException closedError() {
+        return new IllegalStateException(name + " closed");
+    }
+}
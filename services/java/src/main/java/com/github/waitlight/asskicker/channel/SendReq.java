@@ -12,6 +12,7 @@ import com.github.waitlight.asskicker.model.Language;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 
+import java.util.List;
 import java.util.Map;
 
 @Data
@@ -48,6 +49,12 @@ public abstract class SendReq {
      */
     private String recordId;
 
+    /**
+     * 为 true 时启用对冲请求：主通道在近期分位延迟内未返回，则向同类型另一通道重复发送，先成功者生效。
+     * 模板开启 hedged 时由模板引擎置为 true。
+     */
+    private boolean hedge = false;
+
     /**
      * 将模板引擎渲染后的 title / content 写入子类各自的内容字段；
      * 空值不覆盖，以兼容服务商托管模板（content 由服务商侧渲染）。
@@ -62,7 +69,28 @@ public abstract class SendReq {
 
     /**
      * 返回本次实际发送的正文，用于写入发送记录的 renderedContent。
-     * SMS 由服务商侧渲染，本地无正文，返回 null。
+     * SMS 由服务商侧渲染，本地无正文，返回 null；直发正文的短信通道自行记录发送的正文。
      */
     public abstract String renderedContent();
+
+    /**
+     * 面向多个收件人的请求按收件人拆分为多条请求，每条独立发送并写一条发送记录；
+     * 首条沿用本请求的 recordId，其余由记录服务生成。不需要拆分时返回空列表。
+     */
+    public List<? extends SendReq> split() {
+        return List.of();
+    }
+
+    /**
+     * 把公共字段复制到拆分出的请求
+     */
+    protected void copyTo(SendReq target) {
+        target.setType(type);
+        target.setProvider(provider);
+        target.setTemplateCode(templateCode);
+        target.setLanguage(language);
+        target.setTemplateParams(templateParams);
+        target.setDirectSend(directSend);
+        target.setHedge(hedge);
+    }
 }
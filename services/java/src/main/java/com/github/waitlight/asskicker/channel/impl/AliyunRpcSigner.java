@@ -0,0 +1,67 @@
+package com.github.waitlight.asskicker.channel.impl;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.SortedMap;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * 阿里云 RPC 风格 OpenAPI 签名（SignatureVersion 1.0，HMAC-SHA1）。
+ * <p>
+ * StringToSign = Method + "&" + encode("/") + "&" + encode(按参数名排序后 encode(k)=encode(v) 以 & 拼接)，
+ * 以 AccessKeySecret + "&" 为密钥计算 HMAC-SHA1 后 Base64。
+ */
+final class AliyunRpcSigner {
+
+    static final String SIGNATURE_METHOD = "HMAC-SHA1";
+    static final String SIGNATURE_VERSION = "1.0";
+
+    private AliyunRpcSigner() {
+    }
+
+    /**
+     * 计算签名，params 不含 Signature
+     */
+    static String sign(String method, SortedMap<String, String> params, String accessKeySecret) {
+        String stringToSign = method + "&" + percentEncode("/") + "&" + percentEncode(canonicalize(params));
+        try {
+            Mac mac = Mac.getInstance("HmacSHA1");
+            mac.init(new SecretKeySpec((accessKeySecret + "&").getBytes(StandardCharsets.UTF_8), "HmacSHA1"));
+            return Base64.getEncoder().encodeToString(mac.doFinal(stringToSign.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException("ALIYUN_SMS sign failed", e);
+        }
+    }
+
+    /**
+     * 签名后的表单 / 查询串：规范化参数串追加 Signature
+     */
+    static String signedForm(String method, SortedMap<String, String> params, String accessKeySecret) {
+        return canonicalize(params) + "&Signature=" + percentEncode(sign(method, params, accessKeySecret));
+    }
+
+    static String canonicalize(SortedMap<String, String> params) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> e : params.entrySet()) {
+            if (!sb.isEmpty()) {
+                sb.append('&');
+            }
+            sb.append(percentEncode(e.getKey())).append('=').append(percentEncode(e.getValue()));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * RFC 3986 编码：在 URLEncoder 基础上空格编码为 %20、* 编码为 %2A、~ 保留
+     */
+    static String percentEncode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8)
+                .replace("+", "%20")
+                .replace("*", "%2A")
+                .replace("%7E", "~");
+    }
+}
@@ -2,7 +2,6 @@ package com.github.waitlight.asskicker.channel.impl;
 
 import com.aliyun.dysmsapi20170525.Client;
 import com.aliyun.dysmsapi20170525.models.SendSmsRequest;
-import com.aliyun.dysmsapi20170525.models.SendSmsResponse;
 import com.aliyun.teaopenapi.models.Config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.waitlight.asskicker.channel.AbstractChannel;
@@ -21,7 +20,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
-@Channel(type = ChannelType.SMS, provider = ChannelProvider.ALIYUN, reqType = SmsReq.class)
+@Channel(type = ChannelType.SMS, provider = ChannelProvider.ALIYUN, reqType = SmsReq.class, blocking = true)
 public class AliyunSmsChannel extends AbstractChannel<SmsReq> {
 
     private static final String DEFAULT_ENDPOINT = "dysmsapi.aliyuncs.com";
@@ -44,25 +43,29 @@ public class AliyunSmsChannel extends AbstractChannel<SmsReq> {
 
     @Override
     protected Mono<String> doSend(SmsReq req) {
+        SendSmsRequest sendSmsRequest;
         try {
             String templateParam = req.getTemplateParams() == null
                     ? "{}"
                     : objectMapper.writeValueAsString(req.getTemplateParams());
 
-            SendSmsRequest sendSmsRequest = new SendSmsRequest()
+            sendSmsRequest = new SendSmsRequest()
                     .setPhoneNumbers(req.getPhoneNumber())
                     .setSignName(req.getSignName())
                     .setTemplateCode(req.getTemplateCode())
                     .setTemplateParam(templateParam);
-
-            SendSmsResponse resp = client.sendSms(sendSmsRequest);
-            if (!StringUtils.equalsIgnoreCase("OK", resp.getBody().getCode())) {
-                return Mono.error(new SendException(resp.getBody().getMessage()));
-            }
         } catch (Exception e) {
-            throw new SendException(e.getMessage());
+            return Mono.error(new SendException(e.getMessage()));
         }
-        return Mono.empty();
+
+        return blocking(() -> client.sendSms(sendSmsRequest))
+                .onErrorMap(e -> !(e instanceof SendException), e -> new SendException(e.getMessage()))
+                .flatMap(resp -> {
+                    if (!StringUtils.equalsIgnoreCase("OK", resp.getBody().getCode())) {
+                        return Mono.error(new SendException(resp.getBody().getMessage()));
+                    }
+                    return Mono.just(resp.getBody().getBizId() != null ? resp.getBody().getBizId() : "OK");
+                });
     }
 
     @Override
@@ -0,0 +1,134 @@
+package com.github.waitlight.asskicker.channel.impl;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.waitlight.asskicker.channel.AbstractChannel;
+import com.github.waitlight.asskicker.channel.Channel;
+import com.github.waitlight.asskicker.exception.SendException;
+import com.github.waitlight.asskicker.model.ChannelEntity;
+import com.github.waitlight.asskicker.model.ChannelProvider;
+import com.github.waitlight.asskicker.model.ChannelType;
+import com.github.waitlight.asskicker.service.RecordService;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * 阿里云短信的 WebClient 实现：自行构造 RPC 签名（HMAC-SHA1），经共享 {@link WebClient} 连接池非阻塞发送，
+ * 发送过程不占用线程。通道 properties 中 client=http 时选用，缺省仍为 SDK 实现 {@link AliyunSmsChannel}。
+ */
+@Channel(type = ChannelType.SMS, provider = ChannelProvider.ALIYUN, reqType = SmsReq.class, client = "http")
+public class AliyunSmsHttpChannel extends AbstractChannel<SmsReq> {
+
+    private static final String DEFAULT_ENDPOINT = "dysmsapi.aliyuncs.com";
+    private static final String DEFAULT_REGION = "cn-hangzhou";
+    private static final String ACTION = "SendSms";
+    private static final String API_VERSION = "2017-05-25";
+    private static final String SUCCESS_CODE = "OK";
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'")
+            .withZone(ZoneOffset.UTC);
+
+    private final String url;
+    private final String accessKeyId;
+    private final String accessKeySecret;
+    private final String regionId;
+
+    public AliyunSmsHttpChannel(ChannelEntity entity, WebClient webClient, ObjectMapper objectMapper,
+                                RecordService recordService) {
+        super(entity, webClient, objectMapper, recordService);
+        Properties properties = objectMapper.convertValue(entity.getProperties(), Properties.class);
+        String endpoint = StringUtils.defaultIfBlank(properties.getEndpoint(), DEFAULT_ENDPOINT);
+        this.url = (endpoint.contains("://") ? endpoint : "https://" + endpoint) + "/";
+        this.accessKeyId = properties.getAccessKeyId();
+        this.accessKeySecret = properties.getAccessKeySecret();
+        this.regionId = StringUtils.defaultIfBlank(properties.getRegionId(), DEFAULT_REGION);
+    }
+
+    @Override
+    protected Mono<String> doSend(SmsReq req) {
+        return Mono.defer(() -> {
+            String templateParam;
+            try {
+                templateParam = req.getTemplateParams() == null
+                        ? "{}"
+                        : objectMapper.writeValueAsString(req.getTemplateParams());
+            } catch (JsonProcessingException e) {
+                return Mono.error(new SendException(e.getMessage()));
+            }
+
+            TreeMap<String, String> params = new TreeMap<>();
+            params.put("AccessKeyId", accessKeyId);
+            params.put("Action", ACTION);
+            params.put("Format", "JSON");
+            params.put("RegionId", regionId);
+            params.put("SignatureMethod", AliyunRpcSigner.SIGNATURE_METHOD);
+            params.put("SignatureNonce", UUID.randomUUID().toString());
+            params.put("SignatureVersion", AliyunRpcSigner.SIGNATURE_VERSION);
+            params.put("Timestamp", TIMESTAMP.format(Instant.now()));
+            params.put("Version", API_VERSION);
+            params.put("PhoneNumbers", StringUtils.defaultString(req.getPhoneNumber()));
+            params.put("SignName", StringUtils.defaultString(req.getSignName()));
+            params.put("TemplateCode", StringUtils.defaultString(req.getTemplateCode()));
+            params.put("TemplateParam", templateParam);
+
+            return webClient.post()
+                    .uri(url)
+                    .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                    .bodyValue(AliyunRpcSigner.signedForm("POST", params, accessKeySecret))
+                    .exchangeToMono(resp -> resp.bodyToMono(Map.class)
+                            .defaultIfEmpty(Map.of())
+                            .flatMap(body -> verifyResponse(resp.statusCode().value(), body)));
+        });
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Mono<String> verifyResponse(int status, Map body) {
+        Object code = body.get("Code");
+        if (code == null) {
+            return Mono.error(new SendException("ALIYUN_SMS http " + status + " without Code"));
+        }
+        if (!StringUtils.equalsIgnoreCase(SUCCESS_CODE, code.toString())) {
+            return Mono.error(new SendException("ALIYUN_SMS " + code + ": " + body.get("Message")));
+        }
+        Object bizId = body.get("BizId");
+        return Mono.just(bizId != null ? bizId.toString() : SUCCESS_CODE);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Properties {
+
+        /** 阿里云访问密钥 AccessKey ID */
+        @NotBlank
+        private String accessKeyId;
+
+        /** 阿里云访问密钥 AccessKey Secret */
+        @NotBlank
+        private String accessKeySecret;
+
+        /** 地域 ID,留空使用默认 cn-hangzhou */
+        private String regionId;
+
+        /** 短信服务 endpoint,留空使用默认值 dysmsapi.aliyuncs.com,可写 host、host:port 或带 http(s):// 前缀 */
+        @Pattern(regexp = "^$|^(https?://)?[A-Za-z0-9.-]+(:\\d+)?$")
+        private String endpoint;
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.waitlight.asskicker.channel.impl;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+/**
+ * 所有 APNs 通道共用的事件循环组，按引用计数创建与释放：ApnsClient 不会关闭外部传入的事件循环组，
+ * 最后一个 APNs 通道释放时才关闭线程。
+ */
+final class ApnsEventLoops {
+
+    private static EventLoopGroup group;
+    private static int refs;
+
+    private ApnsEventLoops() {
+    }
+
+    static synchronized EventLoopGroup acquire() {
+        if (group == null) {
+            group = new NioEventLoopGroup(Runtime.getRuntime().availableProcessors(),
+                    new DefaultThreadFactory("apns", true));
+        }
+        refs++;
+        return group;
+    }
+
+    static synchronized void release() {
+        if (refs > 0 && --refs == 0) {
+            group.shutdownGracefully();
+            group = null;
+        }
+    }
+}
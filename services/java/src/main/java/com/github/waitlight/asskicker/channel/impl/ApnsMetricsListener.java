@@ -0,0 +1,133 @@
+package com.github.waitlight.asskicker.channel.impl;
+
+import com.eatthepath.pushy.apns.ApnsClient;
+import com.eatthepath.pushy.apns.ApnsClientMetricsListener;
+import com.github.waitlight.asskicker.channel.AsyncSemaphore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Pushy {@link ApnsClientMetricsListener} 到 Micrometer 的桥接，每个通道实例一个：ApnsClient 在通道构造时创建并持有监听器，
+ * 通道由 {@link com.github.waitlight.asskicker.channel.ChannelFactory} 激活时才 {@link #bind} 到应用的 MeterRegistry，
+ * 未绑定（调试用的临时实例）时事件直接丢弃。
+ * <p>
+ * 计数器按 (名称, tags) 由注册表去重，通道刷新时新旧实例累加到同一组计数；gauge 由新实例重新注册，指向新实例的
+ * 连接数与许可。通道删除后由 {@link #unbind} 注销全部指标。
+ */
+final class ApnsMetricsListener implements ApnsClientMetricsListener {
+
+    private final String channelCode;
+    private final AtomicInteger connections = new AtomicInteger();
+    private volatile Bound bound;
+
+    ApnsMetricsListener(String channelCode) {
+        this.channelCode = channelCode;
+    }
+
+    /**
+     * 注册指标，在途 / 排队 gauge 读取给定许可；同 code 旧实例的 gauge 被替换
+     */
+    void bind(MeterRegistry registry, AsyncSemaphore inFlight) {
+        Tags tags = Tags.of("channel", channelCode);
+        Counter sent = notifications(registry, tags, "sent");
+        Counter accepted = notifications(registry, tags, "accepted");
+        Counter rejected = notifications(registry, tags, "rejected");
+        Counter writeFailures = notifications(registry, tags, "write_failure");
+        Counter connectionFailures = Counter.builder("asskicker.apns.connection.failures").tags(tags)
+                .register(registry);
+        List<Meter> meters = new ArrayList<>(List.of(sent, accepted, rejected, writeFailures, connectionFailures));
+        meters.add(replaceGauge(registry, "asskicker.apns.connections", tags, connections, AtomicInteger::get));
+        meters.add(replaceGauge(registry, "asskicker.apns.in-flight", tags, inFlight, AsyncSemaphore::getInFlight));
+        meters.add(replaceGauge(registry, "asskicker.apns.waiting", tags, inFlight, AsyncSemaphore::getWaiting));
+        this.bound = new Bound(registry, sent, accepted, rejected, writeFailures, connectionFailures, meters);
+    }
+
+    /**
+     * 通道已删除：从注册表注销该 code 的全部指标，之后的事件不再计数
+     */
+    void unbind() {
+        Bound b = bound;
+        bound = null;
+        if (b != null) {
+            b.meters().forEach(b.registry()::remove);
+        }
+    }
+
+    @Override
+    public void handleWriteFailure(ApnsClient apnsClient, long notificationId) {
+        Bound b = bound;
+        if (b != null) {
+            b.writeFailures().increment();
+        }
+    }
+
+    @Override
+    public void handleNotificationSent(ApnsClient apnsClient, long notificationId) {
+        Bound b = bound;
+        if (b != null) {
+            b.sent().increment();
+        }
+    }
+
+    @Override
+    public void handleNotificationAccepted(ApnsClient apnsClient, long notificationId) {
+        Bound b = bound;
+        if (b != null) {
+            b.accepted().increment();
+        }
+    }
+
+    @Override
+    public void handleNotificationRejected(ApnsClient apnsClient, long notificationId) {
+        Bound b = bound;
+        if (b != null) {
+            b.rejected().increment();
+        }
+    }
+
+    @Override
+    public void handleConnectionAdded(ApnsClient apnsClient) {
+        connections.incrementAndGet();
+    }
+
+    @Override
+    public void handleConnectionRemoved(ApnsClient apnsClient) {
+        connections.decrementAndGet();
+    }
+
+    @Override
+    public void handleConnectionCreationFailed(ApnsClient apnsClient) {
+        Bound b = bound;
+        if (b != null) {
+            b.connectionFailures().increment();
+        }
+    }
+
+    /**
+     * Micrometer 对同一 id 的重复注册返回已有 gauge（仍读取旧对象），先注销旧 gauge 再注册
+     */
+    private static <T> Gauge replaceGauge(MeterRegistry registry, String name, Tags tags, T state,
+                                          ToDoubleFunction<T> value) {
+        Gauge previous = registry.find(name).tags(tags).gauge();
+        if (previous != null) {
+            registry.remove(previous);
+        }
+        return Gauge.builder(name, state, value).tags(tags).register(registry);
+    }
+
+    private static Counter notifications(MeterRegistry registry, Tags tags, String result) {
+        return Counter.builder("asskicker.apns.notifications").tags(tags).tag("result", result).register(registry);
+    }
+
+    private record Bound(MeterRegistry registry, Counter sent, Counter accepted, Counter rejected,
+                         Counter writeFailures, Counter connectionFailures, List<Meter> meters) {
+    }
+}
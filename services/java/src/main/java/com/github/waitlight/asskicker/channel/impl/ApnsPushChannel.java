@@ -2,6 +2,7 @@ package com.github.waitlight.asskicker.channel.impl;
 
 import com.eatthepath.pushy.apns.ApnsClient;
 import com.eatthepath.pushy.apns.ApnsClientBuilder;
+import com.eatthepath.pushy.apns.ApnsClientMetricsListener;
 import com.eatthepath.pushy.apns.DeliveryPriority;
 import com.eatthepath.pushy.apns.PushNotificationResponse;
 import com.eatthepath.pushy.apns.PushType;
@@ -10,11 +11,16 @@ import com.eatthepath.pushy.apns.util.SimpleApnsPayloadBuilder;
 import com.eatthepath.pushy.apns.util.SimpleApnsPushNotification;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.waitlight.asskicker.channel.AbstractChannel;
+import com.github.waitlight.asskicker.channel.AsyncSemaphore;
 import com.github.waitlight.asskicker.channel.Channel;
 import com.github.waitlight.asskicker.model.ChannelEntity;
 import com.github.waitlight.asskicker.model.ChannelProvider;
 import com.github.waitlight.asskicker.model.ChannelType;
 import com.github.waitlight.asskicker.service.RecordService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.EventLoopGroup;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
@@ -31,21 +37,34 @@ import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * APNs 推送：基于 Pushy，连接数、在途上限可按通道配置，所有 APNs 通道共用一个事件循环组。
+ * <p>
+ * Pushy 客户端在构造函数中创建并持有指标监听器，监听器在通道激活时才绑定到应用的 MeterRegistry，临时实例不产生指标。
+ */
 @Slf4j
 @Channel(type = ChannelType.APNS, provider = ChannelProvider.APPLE, reqType = PushReq.class)
 public class ApnsPushChannel extends AbstractChannel<PushReq> {
 
     private static final String SANDBOX_KEYWORD = "sandbox";
+    private static final int DEFAULT_CONCURRENT_CONNECTIONS = 4;
+    private static final int DEFAULT_MAX_IN_FLIGHT = 2000;
 
     private final Properties properties;
     private final ApnsClient apnsClient;
+    private final AsyncSemaphore inFlight;
+    private final boolean sharedEventLoop;
+    private final ApnsMetricsListener metrics;
 
     public ApnsPushChannel(ChannelEntity provider, WebClient webClient, ObjectMapper objectMapper,
                            RecordService recordService) {
         super(provider, webClient, objectMapper, recordService);
         this.properties = objectMapper.convertValue(provider.getProperties(), Properties.class);
         validateSpec(this.properties);
-        this.apnsClient = buildApnsClient(this.properties);
+        this.inFlight = new AsyncSemaphore(maxInFlightOf(this.properties));
+        this.metrics = new ApnsMetricsListener(provider.getCode());
+        this.apnsClient = buildApnsClient(this.properties, metrics);
+        this.sharedEventLoop = true;
     }
 
     ApnsPushChannel(ChannelEntity provider, WebClient webClient, ObjectMapper objectMapper,
@@ -53,6 +72,9 @@ public class ApnsPushChannel extends AbstractChannel<PushReq> {
         super(provider, webClient, objectMapper, recordService);
         this.properties = objectMapper.convertValue(provider.getProperties(), Properties.class);
         this.apnsClient = apnsClient;
+        this.inFlight = new AsyncSemaphore(maxInFlightOf(this.properties));
+        this.sharedEventLoop = false;
+        this.metrics = new ApnsMetricsListener(provider.getCode());
     }
 
     public static ApnsPushChannel forTesting(ChannelEntity provider, WebClient webClient,
@@ -80,21 +102,49 @@ public class ApnsPushChannel extends AbstractChannel<PushReq> {
 
             SimpleApnsPushNotification notification = new SimpleApnsPushNotification(
                     token, topic, payload, null, priority, PushType.ALERT, null, apnsId);
-            return Mono.fromFuture(apnsClient.sendNotification(notification))
+            return inFlight.withPermit(() -> Mono.fromFuture(apnsClient.sendNotification(notification)))
                     .map(this::extractApnsId)
                     .map(id -> "APNs ok apns-id=" + id);
         });
     }
 
+    /**
+     * 只有受管理的实例注册指标并把在途 / 排队 gauge 指向自己的许可，调试用的临时实例不会抢占
+     */
+    @Override
+    protected void onActivated(MeterRegistry meterRegistry) {
+        metrics.bind(meterRegistry, inFlight);
+    }
+
+    @Override
+    protected void onRetired() {
+        metrics.unbind();
+    }
+
     @Override
     public void dispose() {
         try {
             apnsClient.close().get(5, TimeUnit.SECONDS);
         } catch (Exception e) {
             log.warn("APNs apnsClient close failed", e);
+        } finally {
+            if (sharedEventLoop) {
+                ApnsEventLoops.release();
+            }
         }
     }
 
+    /**
+     * 在途通知数与排队等待许可的通知数
+     */
+    public int getInFlightNotifications() {
+        return inFlight.getInFlight();
+    }
+
+    public int getWaitingNotifications() {
+        return inFlight.getWaiting();
+    }
+
     private String extractApnsId(PushNotificationResponse<SimpleApnsPushNotification> response) {
         if (!response.isAccepted()) {
             throw new IllegalStateException("APNs " + response.getStatusCode()
@@ -146,7 +196,12 @@ public class ApnsPushChannel extends AbstractChannel<PushReq> {
         }
     }
 
-    private static ApnsClient buildApnsClient(Properties p) {
+    private static int maxInFlightOf(Properties p) {
+        return p.getMaxInFlight() != null ? p.getMaxInFlight() : DEFAULT_MAX_IN_FLIGHT;
+    }
+
+    private static ApnsClient buildApnsClient(Properties p, ApnsClientMetricsListener metricsListener) {
+        EventLoopGroup eventLoopGroup = ApnsEventLoops.acquire();
         try {
             ApnsSigningKey signingKey = ApnsSigningKey.loadFromInputStream(
                     new ByteArrayInputStream(p.getPrivateKeyPem().getBytes(StandardCharsets.UTF_8)),
@@ -154,7 +209,12 @@ public class ApnsPushChannel extends AbstractChannel<PushReq> {
                     p.getKeyId().trim());
 
             ApnsClientBuilder builder = new ApnsClientBuilder()
-                    .setSigningKey(signingKey);
+                    .setSigningKey(signingKey)
+                    .setEventLoopGroup(eventLoopGroup)
+                    .setConcurrentConnections(p.getConcurrentConnections() != null
+                            ? p.getConcurrentConnections()
+                            : DEFAULT_CONCURRENT_CONNECTIONS)
+                    .setMetricsListener(metricsListener);
 
             String url = StringUtils.trimToNull(p.getUrl());
             if (url == null) {
@@ -179,6 +239,7 @@ public class ApnsPushChannel extends AbstractChannel<PushReq> {
 
             return builder.build();
         } catch (Exception e) {
+            ApnsEventLoops.release();
             throw new IllegalStateException("APNs ApnsClient init failed: " + e.getMessage(), e);
         }
     }
@@ -210,5 +271,14 @@ public class ApnsPushChannel extends AbstractChannel<PushReq> {
         /** 账号级默认 apns-id(UUID 格式),用于服务端去重;留空则每次请求由 APNs 生成 */
         @Pattern(regexp = "^$|^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$")
         private String apnsId;
+
+        /** 到 APNs 的 HTTP/2 连接数,单连接受服务端并发流上限约束;留空默认 4 */
+        @Min(1)
+        @Max(64)
+        private Integer concurrentConnections;
+
+        /** 通道在途通知上限,达到后新通知排队等待而不是堆积在 Pushy 内部队列;留空默认 2000 */
+        @Min(1)
+        private Integer maxInFlight;
     }
 }
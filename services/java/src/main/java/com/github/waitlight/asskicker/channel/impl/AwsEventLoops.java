@@ -0,0 +1,33 @@
+package com.github.waitlight.asskicker.channel.impl;
+
+import software.amazon.awssdk.http.nio.netty.SdkEventLoopGroup;
+
+/**
+ * 所有 AWS 异步客户端共用的 Netty 事件循环组，按引用计数创建与释放：NettyNioAsyncHttpClient 不会关闭
+ * 外部传入的事件循环组，最后一个使用方释放时才关闭线程。
+ */
+final class AwsEventLoops {
+
+    private static SdkEventLoopGroup group;
+    private static int refs;
+
+    private AwsEventLoops() {
+    }
+
+    static synchronized SdkEventLoopGroup acquire() {
+        if (group == null) {
+            group = SdkEventLoopGroup.builder()
+                    .numberOfThreads(Runtime.getRuntime().availableProcessors())
+                    .build();
+        }
+        refs++;
+        return group;
+    }
+
+    static synchronized void release() {
+        if (refs > 0 && --refs == 0) {
+            group.eventLoopGroup().shutdownGracefully();
+            group = null;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.github.waitlight.asskicker.channel.impl;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.waitlight.asskicker.channel.AbstractChannel;
+import com.github.waitlight.asskicker.channel.AsyncSemaphore;
+import com.github.waitlight.asskicker.channel.Channel;
+import com.github.waitlight.asskicker.channel.RequestBatcher;
+import com.github.waitlight.asskicker.channel.SendReq;
+import com.github.waitlight.asskicker.exception.SendException;
+import com.github.waitlight.asskicker.model.ChannelEntity;
+import com.github.waitlight.asskicker.model.ChannelProvider;
+import com.github.waitlight.asskicker.model.ChannelType;
+import com.github.waitlight.asskicker.service.RecordService;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.async.SdkAsyncHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.sns.SnsAsyncClient;
+import software.amazon.awssdk.services.sns.SnsAsyncClientBuilder;
+import software.amazon.awssdk.services.sns.model.BatchResultErrorEntry;
+import software.amazon.awssdk.services.sns.model.MessageAttributeValue;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequest;
+import software.amazon.awssdk.services.sns.model.PublishBatchRequestEntry;
+import software.amazon.awssdk.services.sns.model.PublishBatchResponse;
+import software.amazon.awssdk.services.sns.model.PublishBatchResultEntry;
+import software.amazon.awssdk.services.sns.model.PublishRequest;
+import software.amazon.awssdk.services.sns.model.PublishResponse;
+import software.amazon.awssdk.services.sns.model.SnsException;
+
+/**
+ * AWS SNS 短信通道，基于 {@link SnsAsyncClient} 与所有 AWS 客户端共用的 Netty 事件循环组，发送过程不占用线程；
+ * 在途 API 调用数受 maxInFlight 限制，超出部分排队而不堆积到 SDK 内部队列。
+ * <p>
+ * 未配置 topicArn 时按手机号逐条 Publish（SNS 不支持向手机号批量发布）；配置 topicArn 时为扇出模式，
+ * 并发到达的请求按 batchLingerMs 合并为 PublishBatch（单次最多 10 条）发布到主题，手机号放在消息属性
+ * phone_number 中供订阅过滤，逐条结果按 Id 分发回各请求。
+ * <p>
+ * 扇出模式下 PublishBatch 条目成功仅表示主题已接收该消息，返回的是主题消息 ID，记录为 SUCCESS 并不代表短信已送达该手机号；
+ * 实际投递取决于主题订阅及其过滤策略，送达情况需通过 SNS 投递状态日志确认。
+ */
+@Slf4j
+@Channel(type = ChannelType.SMS, provider = ChannelProvider.AWS, reqType = SmsReq.class)
+public class AwsSnsSmsChannel extends AbstractChannel<SmsReq> {
+
+    private static final int MAX_BATCH_ENTRIES = 10;
+    private static final String PHONE_ATTRIBUTE = "phone_number";
+
+    private final Properties properties;
+    private final SdkAsyncHttpClient httpClient;
+    private final SnsAsyncClient client;
+    private final AsyncSemaphore inFlight;
+    private final Map<String, MessageAttributeValue> smsAttributes;
+    private final RequestBatcher<Pending> batcher;
+
+    public AwsSnsSmsChannel(ChannelEntity entity, WebClient webClient, ObjectMapper objectMapper,
+                            RecordService recordService) {
+        super(entity, webClient, objectMapper, recordService);
+        this.properties = objectMapper.convertValue(entity.getProperties(), Properties.class);
+        if (StringUtils.isAnyBlank(properties.getAccessKeyId(), properties.getSecretAccessKey(),
+                properties.getRegion())) {
+            throw new IllegalStateException("AWS SNS spec requires accessKeyId secretAccessKey region");
+        }
+        this.smsAttributes = buildSmsAttributes(properties);
+        this.inFlight = new AsyncSemaphore(properties.getMaxInFlight());
+        SdkAsyncHttpClient http = null;
+        try {
+            http = NettyNioAsyncHttpClient.builder()
+                    .eventLoopGroup(AwsEventLoops.acquire())
+                    .maxConcurrency(properties.getMaxInFlight())
+                    .connectionAcquisitionTimeout(Duration.ofSeconds(5))
+                    .build();
+            this.client = buildClient(properties, http);
+        } catch (RuntimeException e) {
+            if (http != null) {
+                http.close();
+            }
+            AwsEventLoops.release();
+            throw new IllegalStateException("AWS SNS client init failed: " + e.getMessage(), e);
+        }
+        this.httpClient = http;
+        if (StringUtils.isNotBlank(properties.getTopicArn())) {
+            this.batcher = new RequestBatcher<>("AWS SNS channel " + getCode(), Pending.class, MAX_BATCH_ENTRIES,
+                    Duration.ofMillis(properties.getBatchLingerMs()), properties.getMaxInFlight(), this::publishBatch,
+                    (pending, e) -> pending.sink().error(new SendException(e.getMessage())));
+        } else {
+            this.batcher = null;
+        }
+    }
+
+    @Override
+    protected Mono<String> doSend(SmsReq req) {
+        return Mono.defer(() -> {
+            String message = StringUtils.trimToNull(req.getContent());
+            if (message == null) {
+                return Mono.error(new IllegalArgumentException("AWS SNS SMS content required"));
+            }
+            String phoneNumber = TencentSmsChannel.buildE164(req.getCountryCode(), req.getPhoneNumber());
+            if (batcher != null) {
+                return Mono.create(sink -> batcher.submit(new Pending(phoneNumber, message, sink)));
+            }
+            PublishRequest request = PublishRequest.builder()
+                    .phoneNumber(phoneNumber)
+                    .message(message)
+                    .messageAttributes(smsAttributes)
+                    .build();
+            return inFlight.withPermit(() -> Mono.fromFuture(() -> client.publish(request)))
+                    .map(PublishResponse::messageId)
+                    .onErrorMap(SnsException.class, AwsSnsSmsChannel::toSendException);
+        });
+    }
+
+    @Override
+    protected String renderedContent(SendReq req) {
+        return req instanceof SmsReq sms ? sms.getContent() : null;
+    }
+
+    @Override
+    public void dispose() {
+        if (batcher != null) {
+            batcher.close();
+        }
+        try {
+            client.close();
+            httpClient.close();
+        } finally {
+            AwsEventLoops.release();
+        }
+    }
+
+    /**
+     * 以一次 PublishBatch 发布一批请求，条目 Id 为批内下标；整批调用失败时该批全部请求失败
+     */
+    private Mono<Void> publishBatch(List<Pending> batch) {
+        List<PublishBatchRequestEntry> entries = new ArrayList<>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Pending pending = batch.get(i);
+            Map<String, MessageAttributeValue> attributes = new HashMap<>(smsAttributes);
+            attributes.put(PHONE_ATTRIBUTE, stringAttribute(pending.phoneNumber()));
+            entries.add(PublishBatchRequestEntry.builder()
+                    .id(String.valueOf(i))
+                    .message(pending.message())
+                    .messageAttributes(attributes)
+                    .build());
+        }
+        PublishBatchRequest request = PublishBatchRequest.builder()
+                .topicArn(properties.getTopicArn())
+                .publishBatchRequestEntries(entries)
+                .build();
+        return inFlight.withPermit(() -> Mono.fromFuture(() -> client.publishBatch(request)))
+                .doOnNext(response -> dispatch(batch, response))
+                .then()
+                .onErrorResume(e -> {
+                    log.warn("AWS SNS publish batch failed, size={}", batch.size(), e);
+                    Throwable error = e instanceof SnsException sns ? toSendException(sns) : e;
+                    batch.forEach(p -> p.sink().error(error));
+                    return Mono.empty();
+                });
+    }
+
+    private static void dispatch(List<Pending> batch, PublishBatchResponse response) {
+        boolean[] done = new boolean[batch.size()];
+        for (PublishBatchResultEntry entry : response.successful()) {
+            int index = Integer.parseInt(entry.id());
+            done[index] = true;
+            batch.get(index).sink().success(entry.messageId());
+        }
+        for (BatchResultErrorEntry entry : response.failed()) {
+            int index = Integer.parseInt(entry.id());
+            done[index] = true;
+            batch.get(index).sink().error(new SendException("AWS_SNS " + entry.code() + ": " + entry.message()));
+        }
+        for (int i = 0; i < done.length; i++) {
+            if (!done[i]) {
+                batch.get(i).sink().error(new SendException("AWS_SNS batch response missing entry " + i));
+            }
+        }
+    }
+
+    private static SendException toSendException(SnsException e) {
+        String code = e.awsErrorDetails() != null ? e.awsErrorDetails().errorCode() : String.valueOf(e.statusCode());
+        String message = e.awsErrorDetails() != null ? e.awsErrorDetails().errorMessage() : e.getMessage();
+        return new SendException("AWS_SNS " + code + ": " + message);
+    }
+
+    private static SnsAsyncClient buildClient(Properties p, SdkAsyncHttpClient httpClient) {
+        SnsAsyncClientBuilder builder = SnsAsyncClient.builder()
+                .region(Region.of(p.getRegion().trim()))
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create(p.getAccessKeyId().trim(), p.getSecretAccessKey().trim())))
+                .httpClient(httpClient);
+        if (StringUtils.isNotBlank(p.getEndpoint())) {
+            builder.endpointOverride(URI.create(p.getEndpoint().trim()));
+        }
+        return builder.build();
+    }
+
+    private static Map<String, MessageAttributeValue> buildSmsAttributes(Properties p) {
+        Map<String, MessageAttributeValue> attributes = new LinkedHashMap<>();
+        attributes.put("AWS.SNS.SMS.SMSType", stringAttribute(p.getSmsType()));
+        if (StringUtils.isNotBlank(p.getSenderId())) {
+            attributes.put("AWS.SNS.SMS.SenderID", stringAttribute(p.getSenderId().trim()));
+        }
+        return Map.copyOf(attributes);
+    }
+
+    private static MessageAttributeValue stringAttribute(String value) {
+        return MessageAttributeValue.builder().dataType("String").stringValue(value).build();
+    }
+
+    private record Pending(String phoneNumber, String message, MonoSink<String> sink) {
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Properties {
+
+        /** AWS 访问密钥 ID */
+        @NotBlank
+        private String accessKeyId;
+
+        /** AWS 访问密钥 Secret */
+        @NotBlank
+        private String secretAccessKey;
+
+        /** SNS 所在区域,如 us-east-1 */
+        @NotBlank
+        private String region;
+
+        /** SNS endpoint 覆盖,如本地 SNS 模拟服务 http://localhost:4566,留空使用区域默认地址 */
+        @Pattern(regexp = "^$|^https?://.+")
+        private String endpoint;
+
+        /** 短信类型:Transactional 或 Promotional */
+        @Pattern(regexp = "Transactional|Promotional")
+        private String smsType = "Transactional";
+
+        /** 发送方 ID(部分国家支持),留空不设置 */
+        private String senderId;
+
+        /** 扇出模式的目标主题 ARN,配置后请求合并为 PublishBatch 发布到该主题;此时发送成功仅表示主题已接收,不代表短信已送达 */
+        private String topicArn;
+
+        /** 扇出模式凑批最长等待时间(毫秒) */
+        @Min(1)
+        private int batchLingerMs = 10;
+
+        /** 同时在途的 SNS API 调用数上限,同时作为 Netty 客户端的最大连接数 */
+        @Min(1)
+        @Max(10000)
+        private int maxInFlight = 200;
+    }
+}
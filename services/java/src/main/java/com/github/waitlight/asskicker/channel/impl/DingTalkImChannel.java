@@ -1,35 +1,41 @@
 package com.github.waitlight.asskicker.channel.impl;
 
+import java.net.URI;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.util.Base64;
+import java.util.Map;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 
-import com.dingtalk.api.DefaultDingTalkClient;
-import com.dingtalk.api.request.OapiRobotSendRequest;
-import com.dingtalk.api.response.OapiRobotSendResponse;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.waitlight.asskicker.channel.AbstractChannel;
 import com.github.waitlight.asskicker.channel.Channel;
+import com.github.waitlight.asskicker.exception.SendException;
 import com.github.waitlight.asskicker.model.ChannelEntity;
 import com.github.waitlight.asskicker.model.ChannelProvider;
 import com.github.waitlight.asskicker.model.ChannelType;
 import com.github.waitlight.asskicker.service.RecordService;
 import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.MediaType;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
 
 /**
  * DingTalk custom robot: sends text messages via webhook with HMAC-SHA256 signing.
+ *
+ * 直接经共享 WebClient 调用 webhook（连接池见 {@code ass-kicker.web-client}），不再为每条消息创建
+ * DefaultDingTalkClient 并占用 boundedElastic 线程；签名用的 {@link Mac} 按线程缓存，密钥不变时不重复初始化。
  */
 @Channel(type = ChannelType.DINGTALK, provider = ChannelProvider.DINGTALK, reqType = ImReq.class)
 public class DingTalkImChannel extends AbstractChannel<ImReq> {
 
     private static final String WEBHOOK_URL = "https://oapi.dingtalk.com/robot/send";
 
+    private static final ThreadLocal<HmacSha256> MAC = ThreadLocal.withInitial(HmacSha256::new);
+
     public DingTalkImChannel(ChannelEntity entity, WebClient webClient, ObjectMapper objectMapper,
                              RecordService recordService) {
         super(entity, webClient, objectMapper, recordService);
@@ -37,51 +43,70 @@ public class DingTalkImChannel extends AbstractChannel<ImReq> {
 
     @Override
     protected Mono<String> doSend(ImReq req) {
-        return Mono.fromCallable(() -> {
-            String url = buildSignedUrl(req.getToken(), req.getSecret());
-            DefaultDingTalkClient client = new DefaultDingTalkClient(url);
-
-            OapiRobotSendRequest request = new OapiRobotSendRequest();
-            request.setMsgtype("text");
-            OapiRobotSendRequest.Text text = new OapiRobotSendRequest.Text();
-            text.setContent(StringUtils.defaultString(req.getContent()));
-            request.setText(text);
-
-            OapiRobotSendResponse response = client.execute(request);
-            if (response == null) {
-                throw new IllegalStateException("DINGTALK_BOT empty response");
-            }
-            if (response.getErrcode() != null && response.getErrcode() != 0L) {
-                throw new IllegalStateException(
-                        "DINGTALK_BOT err code=" + response.getErrcode() + " msg=" + response.getErrmsg());
-            }
-            return "DINGTALK_BOT ok";
-        }).subscribeOn(Schedulers.boundedElastic());
+        return Mono.defer(() -> webClient.post()
+                .uri(URI.create(buildSignedUrl(req.getToken(), req.getSecret(), System.currentTimeMillis())))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(buildBody(req))
+                .retrieve()
+                .bodyToMono(Map.class)
+                .flatMap(DingTalkImChannel::verifyResponse));
     }
 
     @Override
     public void dispose() {
     }
 
-    private static String buildSignedUrl(String token, String secret) {
-        StringBuilder url = new StringBuilder(WEBHOOK_URL).append("?access_token=").append(token);
+    static Map<String, Object> buildBody(ImReq req) {
+        return Map.of("msgtype", "text", "text", Map.of("content", StringUtils.defaultString(req.getContent())));
+    }
+
+    static String buildSignedUrl(String token, String secret, long timestamp) {
+        StringBuilder url = new StringBuilder(160).append(WEBHOOK_URL).append("?access_token=").append(token);
         if (StringUtils.isNotBlank(secret)) {
-            long timestamp = System.currentTimeMillis();
-            String stringToSign = timestamp + "\n" + secret;
-            String sign = sign(stringToSign, secret);
+            String sign = MAC.get().sign(secret, timestamp + "\n" + secret);
             url.append("&timestamp=").append(timestamp).append("&sign=").append(sign);
         }
         return url.toString();
     }
 
-    private static String sign(String stringToSign, String secret) {
-        try {
-            Mac mac = Mac.getInstance("HmacSHA256");
-            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
-            byte[] signData = mac.doFinal(stringToSign.getBytes(StandardCharsets.UTF_8));
-            return URLEncoder.encode(Base64.getEncoder().encodeToString(signData), StandardCharsets.UTF_8);
-        } catch (Exception e) {
-            throw new IllegalStateException("DINGTALK_BOT sign failed", e);
+    @SuppressWarnings("rawtypes")
+    private static Mono<String> verifyResponse(Map response) {
+        Object codeObj = response.get("errcode");
+        long code = codeObj instanceof Number ? ((Number) codeObj).longValue() : -1L;
+        if (code != 0L) {
+            return Mono.error(new SendException("DINGTALK_BOT err code=" + code + " msg=" + response.get("errmsg")));
+        }
+        return Mono.just("DINGTALK_BOT ok");
+    }
+
+    /**
+     * 线程内复用的 HmacSHA256 实例，记住上次的密钥，同一机器人连续发送时跳过 init
+     */
+    private static final class HmacSha256 {
+
+        private final Mac mac;
+        private String secret;
+
+        HmacSha256() {
+            try {
+                this.mac = Mac.getInstance("HmacSHA256");
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("DINGTALK_BOT HmacSHA256 unavailable", e);
+            }
+        }
+
+        String sign(String secret, String stringToSign) {
+            try {
+                if (!secret.equals(this.secret)) {
+                    mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+                    this.secret = secret;
+                }
+                byte[] signData = mac.doFinal(stringToSign.getBytes(StandardCharsets.UTF_8));
+                return URLEncoder.encode(Base64.getEncoder().encodeToString(signData), StandardCharsets.UTF_8);
+            } catch (GeneralSecurityException e) {
+                this.secret = null;
+                throw new IllegalStateException("DINGTALK_BOT sign failed", e);
+            }
         }
     }
 }
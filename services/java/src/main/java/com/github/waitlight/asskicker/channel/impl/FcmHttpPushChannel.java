@@ -0,0 +1,164 @@
+package com.github.waitlight.asskicker.channel.impl;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.waitlight.asskicker.channel.AbstractChannel;
+import com.github.waitlight.asskicker.channel.Channel;
+import com.github.waitlight.asskicker.exception.SendException;
+import com.github.waitlight.asskicker.model.ChannelEntity;
+import com.github.waitlight.asskicker.model.ChannelProvider;
+import com.github.waitlight.asskicker.model.ChannelType;
+import com.github.waitlight.asskicker.service.RecordService;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * FCM 的 HTTP v1 实现：由服务账号自行换取并缓存 OAuth2 access token，经共享 {@link WebClient} 连接池
+ * （fcm.googleapis.com 走 HTTP/2）非阻塞发送，不创建 FirebaseApp，也不占用线程等待响应。
+ * 通道 properties 中 client=http 时选用，缺省仍为 Admin SDK 实现 {@link FcmPushChannel}。
+ */
+@Slf4j
+@Channel(type = ChannelType.FCM, provider = ChannelProvider.GOOGLE, reqType = PushReq.class, client = "http")
+public class FcmHttpPushChannel extends AbstractChannel<PushReq> {
+
+    private static final String DEFAULT_ENDPOINT = "fcm.googleapis.com";
+    private static final String SCOPE = "https://www.googleapis.com/auth/firebase.messaging";
+    private static final String FCM_ERROR_TYPE = "type.googleapis.com/google.firebase.fcm.v1.FcmError";
+
+    private final URI sendUri;
+    private final GoogleAccessTokenProvider tokenProvider;
+
+    public FcmHttpPushChannel(ChannelEntity entity, WebClient webClient, ObjectMapper objectMapper,
+                              RecordService recordService) {
+        super(entity, webClient, objectMapper, recordService);
+        Properties properties = objectMapper.convertValue(entity.getProperties(), Properties.class);
+        if (StringUtils.isBlank(properties.getProjectId()) || StringUtils.isBlank(properties.getServiceAccountJson())) {
+            throw new IllegalStateException("FCM spec requires projectId serviceAccountJson");
+        }
+        String endpoint = StringUtils.defaultIfBlank(properties.getEndpoint(), DEFAULT_ENDPOINT);
+        this.sendUri = URI.create((endpoint.contains("://") ? endpoint : "https://" + endpoint)
+                + "/v1/projects/" + properties.getProjectId().trim() + "/messages:send");
+        this.tokenProvider = new GoogleAccessTokenProvider(properties.getServiceAccountJson(), SCOPE,
+                Duration.ofSeconds(properties.getTokenRefreshAheadSeconds()), webClient, objectMapper,
+                Clock.systemUTC());
+    }
+
+    @Override
+    protected Mono<String> doSend(PushReq req) {
+        return Mono.defer(() -> {
+            String token = StringUtils.trimToNull(req.getDeviceToken());
+            if (token == null) {
+                return Mono.error(new IllegalArgumentException("FCM deviceToken required"));
+            }
+            Map<String, Object> body = buildBody(token, req);
+            return tokenProvider.token()
+                    .flatMap(accessToken -> webClient.post()
+                            .uri(sendUri)
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .bodyValue(body)
+                            .exchangeToMono(resp -> resp.bodyToMono(Map.class)
+                                    .defaultIfEmpty(Map.of())
+                                    .flatMap(json -> {
+                                        int status = resp.statusCode().value();
+                                        if (status == 401) {
+                                            tokenProvider.invalidate(accessToken);
+                                        }
+                                        return verifyResponse(status, json);
+                                    })));
+        });
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    static Map<String, Object> buildBody(String deviceToken, PushReq req) {
+        String text = req.getBody() != null ? req.getBody() : "";
+        Map<String, Object> notification = new LinkedHashMap<>();
+        if (StringUtils.isNotBlank(req.getTitle())) {
+            notification.put("title", req.getTitle());
+        }
+        notification.put("body", text);
+
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("token", deviceToken);
+        message.put("notification", notification);
+        message.put("android", Map.of(
+                "priority", FcmPushChannel.resolveAndroidPriority(req.getPriority()).name(),
+                "notification", notification));
+
+        Map<String, Object> data = req.getData();
+        if (data != null && !data.isEmpty()) {
+            Map<String, String> dataMap = new LinkedHashMap<>();
+            for (Map.Entry<String, Object> e : data.entrySet()) {
+                String k = e.getKey();
+                if (k != null && !k.isBlank()) {
+                    dataMap.put(k, e.getValue() != null ? e.getValue().toString() : "");
+                }
+            }
+            if (!dataMap.isEmpty()) {
+                message.put("data", dataMap);
+            }
+        }
+        return Map.of("message", message);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Mono<String> verifyResponse(int status, Map body) {
+        if (status == 200 && body.get("name") != null) {
+            return Mono.just("FCM ok name=" + body.get("name"));
+        }
+        Object error = body.get("error");
+        if (!(error instanceof Map errorMap)) {
+            return Mono.error(new SendException("FCM http " + status));
+        }
+        Object code = errorMap.get("status");
+        if (errorMap.get("details") instanceof List details) {
+            for (Object detail : details) {
+                if (detail instanceof Map d && FCM_ERROR_TYPE.equals(d.get("@type")) && d.get("errorCode") != null) {
+                    code = d.get("errorCode");
+                }
+            }
+        }
+        return Mono.error(new SendException("FCM " + code + ": " + errorMap.get("message")));
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Properties {
+
+        /** Firebase 项目 ID,对应 Firebase 控制台的 project id */
+        @NotBlank
+        private String projectId;
+
+        /** Firebase 服务账号 JSON 密钥文件的完整内容(字符串形式),用于签发 JWT 换取 OAuth2 access token */
+        @NotBlank
+        private String serviceAccountJson;
+
+        /** FCM endpoint,留空使用默认值 fcm.googleapis.com,可写 host、host:port 或带 http(s):// 前缀 */
+        @Pattern(regexp = "^$|^(https?://)?[A-Za-z0-9.-]+(:\\d+)?$")
+        private String endpoint;
+
+        /** access token 到期前提前刷新的秒数 */
+        @Min(0)
+        private Integer tokenRefreshAheadSeconds = 300;
+    }
+}
@@ -3,37 +3,52 @@ package com.github.waitlight.asskicker.channel.impl;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.waitlight.asskicker.channel.AbstractChannel;
 import com.github.waitlight.asskicker.channel.Channel;
+import com.github.waitlight.asskicker.channel.RequestBatcher;
 import com.github.waitlight.asskicker.model.ChannelEntity;
 import com.github.waitlight.asskicker.model.ChannelProvider;
 import com.github.waitlight.asskicker.model.ChannelType;
 import com.github.waitlight.asskicker.service.RecordService;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 import com.google.firebase.messaging.AndroidConfig;
 import com.google.firebase.messaging.AndroidNotification;
+import com.google.firebase.messaging.BatchResponse;
 import com.google.firebase.messaging.FirebaseMessaging;
 import com.google.firebase.messaging.FirebaseMessagingException;
 import com.google.firebase.messaging.Message;
 import com.google.firebase.messaging.Notification;
+import com.google.firebase.messaging.SendResponse;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.publisher.MonoSink;
 
+/**
+ * FCM 推送通道。并发到达的单设备消息先进入内存队列，按 batchMaxSize / batchLingerMs 合并为一次
+ * {@code sendEachAsync} 调用（单次最多 500 条），逐条结果按顺序分发回各请求，不占用线程等待 FCM 响应。
+ */
 @Slf4j
 @Channel(type = ChannelType.FCM, provider = ChannelProvider.GOOGLE, reqType = PushReq.class)
 public class FcmPushChannel extends AbstractChannel<PushReq> {
@@ -41,6 +56,7 @@ public class FcmPushChannel extends AbstractChannel<PushReq> {
     private final Properties properties;
     private final FirebaseApp firebaseApp;
     private final FirebaseMessaging messaging;
+    private final RequestBatcher<Pending> batcher;
 
     public FcmPushChannel(ChannelEntity provider, WebClient webClient, ObjectMapper objectMapper,
                           RecordService recordService) {
@@ -49,6 +65,7 @@ public class FcmPushChannel extends AbstractChannel<PushReq> {
         validateSpec(this.properties);
         this.firebaseApp = buildFirebaseApp(provider, this.properties);
         this.messaging = FirebaseMessaging.getInstance(this.firebaseApp);
+        this.batcher = batcher(this.properties);
     }
 
     FcmPushChannel(ChannelEntity provider, WebClient webClient, ObjectMapper objectMapper,
@@ -57,6 +74,7 @@ public class FcmPushChannel extends AbstractChannel<PushReq> {
         this.properties = objectMapper.convertValue(provider.getProperties(), Properties.class);
         this.firebaseApp = firebaseApp;
         this.messaging = messaging;
+        this.batcher = batcher(this.properties);
     }
 
     public static FcmPushChannel forTesting(ChannelEntity provider, WebClient webClient,
@@ -74,16 +92,14 @@ public class FcmPushChannel extends AbstractChannel<PushReq> {
             Message message = buildMessage(token, req);
             log.info("Sending FCM notification to device token ***{}",
                     token.length() > 6 ? token.substring(token.length() - 6) : token);
-            return Mono.fromCallable(() -> messaging.send(message))
-                    .subscribeOn(Schedulers.boundedElastic())
-                    .map(name -> "FCM ok name=" + name)
-                    .onErrorMap(FirebaseMessagingException.class, ex -> new IllegalStateException(
-                            "FCM " + ex.getMessagingErrorCode() + ": " + ex.getMessage(), ex));
+            return Mono.<String>create(sink -> batcher.submit(new Pending(message, sink)))
+                    .map(name -> "FCM ok name=" + name);
         });
     }
 
     @Override
     public void dispose() {
+        batcher.close();
         if (firebaseApp != null) {
             try {
                 firebaseApp.delete();
@@ -93,6 +109,63 @@ public class FcmPushChannel extends AbstractChannel<PushReq> {
         }
     }
 
+    private RequestBatcher<Pending> batcher(Properties p) {
+        return new RequestBatcher<>("FCM channel " + getCode(), Pending.class, p.getBatchMaxSize(),
+                Duration.ofMillis(p.getBatchLingerMs()), p.getMaxInFlightBatches(), this::sendBatch,
+                (pending, e) -> pending.sink().error(e));
+    }
+
+    /**
+     * 以一次 sendEachAsync 发送一批消息，BatchResponse 中的结果与消息顺序一致，逐条完成对应请求；
+     * 整批调用失败时该批全部请求失败。
+     */
+    private Mono<Void> sendBatch(List<Pending> batch) {
+        List<Message> messages = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            messages.add(pending.message());
+        }
+        return Mono.<BatchResponse>create(sink -> ApiFutures.addCallback(messaging.sendEachAsync(messages),
+                        new ApiFutureCallback<>() {
+                            @Override
+                            public void onSuccess(BatchResponse response) {
+                                sink.success(response);
+                            }
+
+                            @Override
+                            public void onFailure(Throwable e) {
+                                sink.error(e);
+                            }
+                        }, MoreExecutors.directExecutor()))
+                .doOnNext(response -> {
+                    List<SendResponse> responses = response.getResponses();
+                    for (int i = 0; i < batch.size(); i++) {
+                        MonoSink<String> sink = batch.get(i).sink();
+                        SendResponse result = i < responses.size() ? responses.get(i) : null;
+                        if (result == null) {
+                            sink.error(new IllegalStateException("FCM batch response missing result"));
+                        } else if (result.isSuccessful()) {
+                            sink.success(result.getMessageId());
+                        } else {
+                            sink.error(toSendError(result.getException()));
+                        }
+                    }
+                })
+                .then()
+                .onErrorResume(e -> {
+                    log.warn("FCM batch send failed, size={}", batch.size(), e);
+                    Throwable error = toSendError(e);
+                    batch.forEach(p -> p.sink().error(error));
+                    return Mono.empty();
+                });
+    }
+
+    private static Throwable toSendError(Throwable e) {
+        if (e instanceof FirebaseMessagingException ex) {
+            return new IllegalStateException("FCM " + ex.getMessagingErrorCode() + ": " + ex.getMessage(), ex);
+        }
+        return e;
+    }
+
     private static Message buildMessage(String deviceToken, PushReq req) {
         Notification.Builder notification = Notification.builder()
                 .setBody(req.getBody() != null ? req.getBody() : "");
@@ -132,7 +205,7 @@ public class FcmPushChannel extends AbstractChannel<PushReq> {
         return builder.build();
     }
 
-    private static AndroidConfig.Priority resolveAndroidPriority(String value) {
+    static AndroidConfig.Priority resolveAndroidPriority(String value) {
         if (StringUtils.isBlank(value)) {
             return AndroidConfig.Priority.HIGH;
         }
@@ -178,6 +251,22 @@ public class FcmPushChannel extends AbstractChannel<PushReq> {
         /** Firebase 服务账号 JSON 密钥文件的完整内容(字符串形式),用于获取 OAuth2 access token */
         @NotBlank
         private String serviceAccountJson;
+
+        /** 单次 sendEachAsync 合并的最大消息数,FCM 上限 500 */
+        @Min(1)
+        @Max(500)
+        private Integer batchMaxSize = 500;
+
+        /** 凑批最长等待时间(毫秒),未满 batchMaxSize 时到时即发送 */
+        @Min(0)
+        private Integer batchLingerMs = 10;
+
+        /** 同时在途的 sendEachAsync 调用数上限 */
+        @Min(1)
+        private Integer maxInFlightBatches = 8;
+    }
+
+    private record Pending(Message message, MonoSink<String> sink) {
     }
 
 }
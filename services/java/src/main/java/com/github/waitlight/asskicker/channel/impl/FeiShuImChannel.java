@@ -1,7 +1,6 @@
 package com.github.waitlight.asskicker.channel.impl;
 
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
 import java.util.Base64;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -54,7 +53,6 @@ public class FeiShuImChannel extends AbstractChannel<ImReq> {
                     .bodyValue(body)
                     .retrieve()
                     .bodyToMono(Map.class)
-                    .timeout(Duration.ofSeconds(10))
                     .flatMap(FeiShuImChannel::verifyResponse);
         });
     }
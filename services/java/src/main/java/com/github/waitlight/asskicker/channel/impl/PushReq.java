@@ -1,20 +1,29 @@
 package com.github.waitlight.asskicker.channel.impl;
 
 import com.github.waitlight.asskicker.channel.SendReq;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import org.apache.commons.lang3.StringUtils;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 @EqualsAndHashCode(callSuper = true)
 @Data
 public class PushReq extends SendReq {
     /** 目标设备令牌:APNs device token 或 FCM registration token */
-    @NotBlank
     private String deviceToken;
 
+    /** 多设备推送的目标令牌列表,非空时按令牌拆分为多条请求分别发送并各写一条发送记录,此时忽略 deviceToken */
+    @Size(max = 10000)
+    private List<@NotBlank String> deviceTokens;
+
     /** 通知标题 */
     @NotBlank
     private String title;
@@ -36,11 +45,37 @@ public class PushReq extends SendReq {
         if (content != null && !content.isBlank()) this.body = content;
     }
 
+    @JsonIgnore
+    @AssertTrue(message = "deviceToken or deviceTokens required")
+    public boolean isRecipientPresent() {
+        return StringUtils.isNotBlank(deviceToken) || (deviceTokens != null && !deviceTokens.isEmpty());
+    }
+
     @Override
     public String recipient() {
         return deviceToken;
     }
 
+    @Override
+    public List<PushReq> split() {
+        if (deviceTokens == null || deviceTokens.isEmpty()) {
+            return List.of();
+        }
+        List<PushReq> parts = new ArrayList<>(deviceTokens.size());
+        for (String token : deviceTokens) {
+            PushReq part = new PushReq();
+            copyTo(part);
+            part.setDeviceToken(token);
+            part.setTitle(title);
+            part.setBody(body);
+            part.setPriority(priority);
+            part.setData(data);
+            parts.add(part);
+        }
+        parts.get(0).setRecordId(getRecordId());
+        return parts;
+    }
+
     @Override
     public String renderedContent() {
         boolean hasTitle = title != null && !title.isBlank();
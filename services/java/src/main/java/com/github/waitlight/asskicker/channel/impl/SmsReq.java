@@ -22,9 +22,12 @@ public class SmsReq extends SendReq {
     @NotBlank
     private String signName;
 
+    /** 短信正文,由本地模板渲染填充;仅 AWS SNS 等直发正文的通道发送并记录,阿里云、腾讯云按服务商模板发送,不使用也不记录 */
+    private String content;
+
     @Override
     public void applyRendered(String title, String content) {
-        // SMS 正文由服务商模板管理，本地无内容字段可填充
+        if (content != null && !content.isBlank()) this.content = content;
     }
 
     @Override
@@ -0,0 +1,203 @@
+package com.github.waitlight.asskicker.channel.impl;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 单个 SMTP 通道的连接池：保持已完成 TLS 握手与认证的 {@link Transport} 会话，后续邮件直接在已有会话上
+ * 连续发送，不再为每封邮件重新建连、STARTTLS 与 AUTH。
+ * <p>
+ * 同时借出的连接数不超过 maxConnections；空闲超过 maxIdle 的连接在下次借出或归还时关闭；
+ * 单个连接发送 maxMessagesPerConnection 封后关闭重建，避免服务端按会话限额断开。
+ * 借出与发送都是阻塞调用，须在通道的阻塞执行器上执行。
+ */
+@Slf4j
+final class SmtpConnectionPool implements AutoCloseable {
+
+    /** 空闲超过该时长的连接借出前先发 NOOP 校验，刚归还的连接直接复用 */
+    private static final long VALIDATE_AFTER_IDLE_NANOS = Duration.ofSeconds(2).toNanos();
+    private static final long BORROW_TIMEOUT_SECONDS = 30;
+
+    private final Session session;
+    private final String host;
+    private final int port;
+    private final String username;
+    private final String password;
+    private final long maxIdleNanos;
+    private final int maxMessagesPerConnection;
+    private final Semaphore permits;
+    private final Deque<Connection> idle = new ArrayDeque<>();
+    private final AtomicLong opened = new AtomicLong();
+    private volatile boolean closed;
+
+    SmtpConnectionPool(Session session, String host, int port, String username, String password,
+                       int maxConnections, Duration maxIdle, int maxMessagesPerConnection) {
+        this.session = session;
+        this.host = host;
+        this.port = port;
+        this.username = username;
+        this.password = password;
+        this.maxIdleNanos = maxIdle.toNanos();
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.permits = new Semaphore(maxConnections, true);
+    }
+
+    /**
+     * 借出一个已认证连接执行回调，回调内可连续发送多封邮件；回调抛出异常时该连接被丢弃
+     */
+    <R> R execute(TransportCallback<R> callback) throws MessagingException {
+        try {
+            if (!permits.tryAcquire(BORROW_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                throw new MessagingException("SMTP connection pool exhausted: " + host);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted while waiting for SMTP connection", e);
+        }
+        Connection connection = null;
+        try {
+            connection = borrow();
+            R result = callback.doWithTransport(connection);
+            giveBack(connection);
+            connection = null;
+            return result;
+        } finally {
+            if (connection != null) {
+                discard(connection);
+            }
+            permits.release();
+        }
+    }
+
+    /**
+     * 累计新建的连接数
+     */
+    long getOpened() {
+        return opened.get();
+    }
+
+    int getIdle() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (idle) {
+            idle.forEach(SmtpConnectionPool::discard);
+            idle.clear();
+        }
+    }
+
+    private Connection borrow() throws MessagingException {
+        long now = System.nanoTime();
+        while (true) {
+            Connection connection;
+            synchronized (idle) {
+                connection = idle.pollFirst();
+            }
+            if (connection == null) {
+                return open();
+            }
+            long idleNanos = now - connection.lastUsed;
+            if (idleNanos > maxIdleNanos) {
+                discard(connection);
+            } else if (idleNanos <= VALIDATE_AFTER_IDLE_NANOS || connection.transport.isConnected()) {
+                return connection;
+            } else {
+                discard(connection);
+            }
+        }
+    }
+
+    private Connection open() throws MessagingException {
+        return new Connection(connect());
+    }
+
+    private Transport connect() throws MessagingException {
+        Transport transport = session.getTransport();
+        transport.connect(host, port, username, password);
+        opened.incrementAndGet();
+        log.debug("Opened SMTP connection to {}:{}", host, port);
+        return transport;
+    }
+
+    private void giveBack(Connection connection) {
+        connection.lastUsed = System.nanoTime();
+        if (closed || connection.sent >= maxMessagesPerConnection) {
+            discard(connection);
+            return;
+        }
+        synchronized (idle) {
+            idle.offerFirst(connection);
+            // 最久未用的连接在队尾，逐个检查并关闭空闲超时的
+            Connection oldest;
+            while ((oldest = idle.peekLast()) != null && connection.lastUsed - oldest.lastUsed > maxIdleNanos) {
+                discard(idle.pollLast());
+            }
+        }
+    }
+
+    private static void discard(Connection connection) {
+        try {
+            connection.transport.close();
+        } catch (MessagingException e) {
+            log.debug("Close SMTP connection failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 已认证的 SMTP 会话；一次借用内发送达到 maxMessagesPerConnection 封时就地关闭重建，
+     * 批量发送也不会在单个会话上超过限额
+     */
+    final class Connection {
+
+        private Transport transport;
+        private int sent;
+        private long lastUsed = System.nanoTime();
+
+        private Connection(Transport transport) {
+            this.transport = transport;
+        }
+
+        void send(Message message) throws MessagingException {
+            send(message, message.getAllRecipients());
+        }
+
+        /**
+         * 按给定信封收件人（RCPT TO）发送，可与邮件头中的收件人不同
+         */
+        void send(Message message, Address[] recipients) throws MessagingException {
+            if (sent >= maxMessagesPerConnection) {
+                rotate();
+            }
+            message.saveChanges();
+            sent++;
+            transport.sendMessage(message, recipients);
+        }
+
+        private void rotate() throws MessagingException {
+            discard(this);
+            transport = connect();
+            sent = 0;
+        }
+    }
+
+    @FunctionalInterface
+    interface TransportCallback<R> {
+        R doWithTransport(Connection connection) throws MessagingException;
+    }
+}
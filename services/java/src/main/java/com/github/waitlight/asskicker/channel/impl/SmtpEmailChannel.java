@@ -1,42 +1,83 @@
 package com.github.waitlight.asskicker.channel.impl;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import com.github.waitlight.asskicker.channel.AbstractChannel;
 import com.github.waitlight.asskicker.channel.Channel;
+import com.github.waitlight.asskicker.channel.RequestBatcher;
+import com.github.waitlight.asskicker.exception.SendException;
 import com.github.waitlight.asskicker.model.ChannelProvider;
 import com.github.waitlight.asskicker.model.ChannelType;
 import com.github.waitlight.asskicker.service.RecordService;
 import org.apache.commons.lang3.StringUtils;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.waitlight.asskicker.model.ChannelEntity;
 
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.internet.AddressException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.publisher.MonoSink;
 
-@Channel(type = ChannelType.EMAIL, provider = ChannelProvider.SMTP, reqType = EmailReq.class)
+/**
+ * SMTP 邮件通道。每个通道持有一个 {@link SmtpConnectionPool}，邮件在已认证的会话上连续发送，
+ * 发送调用运行在通道专属的阻塞执行器上。
+ * <p>
+ * 并发到达的邮件先进入内存队列，按 batchMaxSize / batchLingerMs 合批后借用一个连接连续发送。
+ * 开启 envelopeBatching 时，发件人、主题、正文相同且无抄送密送的邮件合并为一封多收件人信封，
+ * 按收件人域名分组（同域通常同 MX），每个信封最多 maxRecipientsPerEnvelope 个 RCPT TO，
+ * 邮件头收件人为 undisclosed-recipients，收件人之间互不可见。
+ * 合批不改变结果粒度：每个请求按其收件人的投递结果单独完成，仍各写一条发送记录。
+ */
+@Slf4j
+@Channel(type = ChannelType.EMAIL, provider = ChannelProvider.SMTP, reqType = EmailReq.class, blocking = true)
 public class SmtpEmailChannel extends AbstractChannel<EmailReq> {
 
     private final Properties properties;
-    private final JavaMailSender mailSender;
+    private final Session session;
+    private final SmtpConnectionPool pool;
+    private final RequestBatcher<Pending> batcher;
 
     public SmtpEmailChannel(ChannelEntity provider, WebClient webClient, ObjectMapper objectMapper,
                             RecordService recordService) {
         super(provider, webClient, objectMapper, recordService);
         this.properties = objectMapper.convertValue(provider.getProperties(), Properties.class);
-        this.mailSender = buildMailSender(this.properties);
+        this.session = buildSession(this.properties);
+        this.pool = new SmtpConnectionPool(session, properties.getHost(), properties.getPort(),
+                properties.getUsername(), properties.getPassword(), properties.getPoolSize(),
+                Duration.ofSeconds(properties.getMaxIdleSeconds()), properties.getMaxMessagesPerConnection());
+        if (properties.getBatchLingerMs() > 0 && properties.getBatchMaxSize() > 1) {
+            this.batcher = new RequestBatcher<>("SMTP channel " + getCode(), Pending.class,
+                    properties.getBatchMaxSize(), Duration.ofMillis(properties.getBatchLingerMs()),
+                    properties.getPoolSize(), this::sendBatch,
+                    (pending, e) -> pending.fail(new SendException(e.getMessage())));
+        } else {
+            this.batcher = null;
+        }
     }
 
     @Override
@@ -46,46 +87,250 @@ public class SmtpEmailChannel extends AbstractChannel<EmailReq> {
             if (recipients == null || recipients.isEmpty()) {
                 return Mono.error(new IllegalArgumentException("SMTP recipients (to) required"));
             }
-
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(StringUtils.defaultIfBlank(req.getFrom(), properties.getFrom()));
-            message.setTo(recipients.toArray(String[]::new));
-            if (req.getCc() != null && !req.getCc().isEmpty()) {
-                message.setCc(req.getCc().toArray(String[]::new));
+            if (batcher == null) {
+                return blocking(() -> {
+                    MimeMessage message = buildMessage(req);
+                    pool.execute(connection -> {
+                        connection.send(message);
+                        return null;
+                    });
+                    return okResult(req);
+                });
             }
-            if (req.getBcc() != null && !req.getBcc().isEmpty()) {
-                message.setBcc(req.getBcc().toArray(String[]::new));
-            }
-            message.setSubject(StringUtils.defaultString(req.getSubject()));
-            message.setText(StringUtils.defaultString(req.getBody()));
-
-            return Mono.fromRunnable(() -> mailSender.send(message))
-                    .subscribeOn(Schedulers.boundedElastic())
-                    .thenReturn("SMTP ok " + recipients.size() + " recipient(s)");
+            return Mono.create(sink -> batcher.submit(new Pending(req, sink)));
         });
     }
 
     @Override
     public void dispose() {
+        if (batcher != null) {
+            batcher.close();
+        }
+        pool.close();
     }
 
-    private static JavaMailSender buildMailSender(Properties properties) {
-        JavaMailSenderImpl sender = new JavaMailSenderImpl();
-        sender.setHost(properties.getHost());
-        sender.setPort(properties.getPort());
-        sender.setUsername(properties.getUsername());
-        sender.setPassword(properties.getPassword());
-        sender.setDefaultEncoding("UTF-8");
+    /**
+     * 借用一个连接发送一批邮件：不可合并的逐封发送，可合并的按内容与收件人域名拼成多收件人信封。
+     * 地址非法等单个请求自身的错误只让该请求失败；连接级错误时丢弃连接，批内尚未完成的请求全部失败。
+     */
+    private Mono<Void> sendBatch(List<Pending> batch) {
+        List<Pending> singles = new ArrayList<>();
+        Map<Content, Map<String, List<Rcpt>>> envelopes = new LinkedHashMap<>();
+        for (Pending pending : batch) {
+            EmailReq req = pending.req;
+            if (!properties.isEnvelopeBatching() || (req.getCc() != null && !req.getCc().isEmpty())
+                    || (req.getBcc() != null && !req.getBcc().isEmpty())) {
+                pending.remaining = 1;
+                singles.add(pending);
+                continue;
+            }
+            Content content = new Content(StringUtils.defaultIfBlank(req.getFrom(), properties.getFrom()),
+                    StringUtils.defaultString(req.getSubject()), StringUtils.defaultString(req.getBody()));
+            Map<String, List<Rcpt>> byDomain = envelopes.computeIfAbsent(content, k -> new LinkedHashMap<>());
+            for (String address : req.getTo()) {
+                byDomain.computeIfAbsent(domainOf(address), k -> new ArrayList<>()).add(new Rcpt(address, pending));
+            }
+            pending.remaining = req.getTo().size();
+        }
+        return blocking(() -> pool.execute(connection -> {
+            for (Pending pending : singles) {
+                MimeMessage message;
+                try {
+                    message = buildMessage(pending.req);
+                } catch (MessagingException | RuntimeException e) {
+                    pending.fail(new SendException("SMTP invalid message: " + e.getMessage()));
+                    continue;
+                }
+                try {
+                    connection.send(message);
+                    pending.addressSent();
+                } catch (SendFailedException e) {
+                    pending.addressFailed(e.getMessage());
+                }
+            }
+            int maxRecipients = properties.getMaxRecipientsPerEnvelope();
+            for (Map.Entry<Content, Map<String, List<Rcpt>>> entry : envelopes.entrySet()) {
+                for (List<Rcpt> domainRcpts : entry.getValue().values()) {
+                    for (int from = 0; from < domainRcpts.size(); from += maxRecipients) {
+                        sendEnvelope(connection, entry.getKey(),
+                                domainRcpts.subList(from, Math.min(from + maxRecipients, domainRcpts.size())));
+                    }
+                }
+            }
+            return batch.size();
+        }))
+                .then()
+                .onErrorResume(e -> {
+                    log.warn("SMTP batch send failed, size={}", batch.size(), e);
+                    batch.forEach(p -> p.fail(e));
+                    return Mono.empty();
+                });
+    }
 
-        java.util.Properties mailProps = sender.getJavaMailProperties();
-        mailProps.put("mail.smtp.auth", "true");
-        if (properties.getPort() == 465) {
-            mailProps.put("mail.smtp.ssl.enable", "true");
-        } else {
-            mailProps.put("mail.smtp.starttls.enable", "true");
-            mailProps.put("mail.smtp.starttls.required", "true");
+    private void sendEnvelope(SmtpConnectionPool.Connection connection, Content content, List<Rcpt> rcpts)
+            throws MessagingException {
+        MimeMessage message = new MimeMessage(session);
+        try {
+            message.setFrom(new InternetAddress(content.from()));
+            message.setHeader("To", "undisclosed-recipients:;");
+            message.setSubject(content.subject(), StandardCharsets.UTF_8.name());
+            message.setText(content.body(), StandardCharsets.UTF_8.name());
+            message.setSentDate(new Date());
+        } catch (MessagingException | RuntimeException e) {
+            rcpts.forEach(rcpt -> rcpt.pending().addressFailed("invalid message: " + e.getMessage()));
+            return;
+        }
+        List<Rcpt> valid = new ArrayList<>(rcpts.size());
+        List<Address> addresses = new ArrayList<>(rcpts.size());
+        for (Rcpt rcpt : rcpts) {
+            try {
+                addresses.add(new InternetAddress(rcpt.address()));
+                valid.add(rcpt);
+            } catch (AddressException e) {
+                rcpt.pending().addressFailed(rcpt.address() + ": " + e.getMessage());
+            }
+        }
+        if (valid.isEmpty()) {
+            return;
+        }
+        try {
+            connection.send(message, addresses.toArray(new Address[0]));
+            valid.forEach(rcpt -> rcpt.pending().addressSent());
+        } catch (SendFailedException e) {
+            Set<String> sent = new HashSet<>();
+            if (e.getValidSentAddresses() != null) {
+                for (Address address : e.getValidSentAddresses()) {
+                    sent.add(((InternetAddress) address).getAddress().toLowerCase());
+                }
+            }
+            for (Rcpt rcpt : valid) {
+                if (sent.contains(rcpt.address().toLowerCase())) {
+                    rcpt.pending().addressSent();
+                } else {
+                    rcpt.pending().addressFailed(rcpt.address() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static String domainOf(String address) {
+        int at = address.lastIndexOf('@');
+        return at < 0 ? "" : address.substring(at + 1).toLowerCase();
+    }
+
+    private static String okResult(EmailReq req) {
+        return "SMTP ok " + req.getTo().size() + " recipient(s)";
+    }
+
+    SmtpConnectionPool getPool() {
+        return pool;
+    }
+
+    private MimeMessage buildMessage(EmailReq req) throws MessagingException {
+        MimeMessage message = new MimeMessage(session);
+        message.setFrom(new InternetAddress(StringUtils.defaultIfBlank(req.getFrom(), properties.getFrom())));
+        message.setRecipients(Message.RecipientType.TO, toAddresses(req.getTo()));
+        if (req.getCc() != null && !req.getCc().isEmpty()) {
+            message.setRecipients(Message.RecipientType.CC, toAddresses(req.getCc()));
+        }
+        if (req.getBcc() != null && !req.getBcc().isEmpty()) {
+            message.setRecipients(Message.RecipientType.BCC, toAddresses(req.getBcc()));
+        }
+        message.setSubject(StringUtils.defaultString(req.getSubject()), StandardCharsets.UTF_8.name());
+        message.setText(StringUtils.defaultString(req.getBody()), StandardCharsets.UTF_8.name());
+        message.setSentDate(new Date());
+        return message;
+    }
+
+    private static InternetAddress[] toAddresses(List<String> addresses) throws MessagingException {
+        InternetAddress[] result = new InternetAddress[addresses.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = new InternetAddress(addresses.get(i));
+        }
+        return result;
+    }
+
+    private static Session buildSession(Properties properties) {
+        java.util.Properties mailProps = new java.util.Properties();
+        mailProps.put("mail.transport.protocol", "smtp");
+        mailProps.put("mail.smtp.auth", String.valueOf(StringUtils.isNotBlank(properties.getPassword())));
+        mailProps.put("mail.smtp.connectiontimeout", "10000");
+        mailProps.put("mail.smtp.timeout", "30000");
+        mailProps.put("mail.smtp.writetimeout", "30000");
+        switch (resolveSecurity(properties)) {
+            case "ssl" -> mailProps.put("mail.smtp.ssl.enable", "true");
+            case "starttls" -> {
+                mailProps.put("mail.smtp.starttls.enable", "true");
+                mailProps.put("mail.smtp.starttls.required", "true");
+            }
+            default -> {
+            }
+        }
+        return Session.getInstance(mailProps);
+    }
+
+    private static String resolveSecurity(Properties properties) {
+        if (StringUtils.isNotBlank(properties.getSecurity())) {
+            return properties.getSecurity().trim().toLowerCase();
+        }
+        return properties.getPort() == 465 ? "ssl" : "starttls";
+    }
+
+    private record Content(String from, String subject, String body) {
+    }
+
+    private record Rcpt(String address, Pending pending) {
+    }
+
+    /**
+     * 批内的单个请求，全部收件人都有结果后完成；计数只在批处理线程内修改，通道关闭时可能由其他线程 fail
+     */
+    private static final class Pending {
+
+        private final EmailReq req;
+        private final MonoSink<String> sink;
+        private int remaining;
+        private String error;
+        private boolean done;
+
+        private Pending(EmailReq req, MonoSink<String> sink) {
+            this.req = req;
+            this.sink = sink;
+        }
+
+        void addressSent() {
+            if (--remaining == 0) {
+                finish();
+            }
+        }
+
+        void addressFailed(String message) {
+            if (error == null) {
+                error = message;
+            }
+            if (--remaining == 0) {
+                finish();
+            }
+        }
+
+        void fail(Throwable e) {
+            if (!done) {
+                done = true;
+                sink.error(e);
+            }
+        }
+
+        private void finish() {
+            if (done) {
+                return;
+            }
+            done = true;
+            if (error == null) {
+                sink.success(okResult(req));
+            } else {
+                sink.error(new SendException("SMTP " + error));
+            }
         }
-        return sender;
     }
 
     @Data
@@ -106,12 +351,46 @@ public class SmtpEmailChannel extends AbstractChannel<EmailReq> {
         @NotBlank
         private String username;
 
-        /** SMTP 登录密码或应用专用密码 */
+        /** SMTP 登录密码或应用专用密码,为空时不做 AUTH */
         private String password;
 
         /** 默认发件人地址,当 EmailReq.from 为空时使用 */
         @NotBlank
         @Email
         private String from;
+
+        /** 传输安全方式:ssl、starttls 或 none(仅限内网中继),留空按端口推断 */
+        @Pattern(regexp = "(?i)|ssl|starttls|none")
+        private String security;
+
+        /** 每个通道保持的已认证 SMTP 连接数上限 */
+        @Min(1)
+        @Max(64)
+        private int poolSize = 4;
+
+        /** 连接空闲超过该秒数后关闭 */
+        @Min(1)
+        private int maxIdleSeconds = 60;
+
+        /** 单个连接发送该数量的邮件后关闭重建 */
+        @Min(1)
+        private int maxMessagesPerConnection = 100;
+
+        /** 单批合并发送的最大邮件数 */
+        @Min(1)
+        @Max(1000)
+        private int batchMaxSize = 50;
+
+        /** 凑批最长等待时间(毫秒),为 0 时不合批、逐封发送 */
+        @Min(0)
+        private int batchLingerMs = 20;
+
+        /** 是否把内容相同的邮件按收件人域名合并为多收件人信封,需服务商允许单封多 RCPT TO */
+        private boolean envelopeBatching = false;
+
+        /** 每个合并信封的收件人上限 */
+        @Min(1)
+        @Max(1000)
+        private int maxRecipientsPerEnvelope = 50;
     }
 }
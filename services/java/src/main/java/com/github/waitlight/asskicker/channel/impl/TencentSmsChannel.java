@@ -13,7 +13,6 @@ import com.tencentcloudapi.common.profile.ClientProfile;
 import com.tencentcloudapi.common.profile.HttpProfile;
 import com.tencentcloudapi.sms.v20210111.SmsClient;
 import com.tencentcloudapi.sms.v20210111.models.SendSmsRequest;
-import com.tencentcloudapi.sms.v20210111.models.SendSmsResponse;
 import com.tencentcloudapi.sms.v20210111.models.SendStatus;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
@@ -24,7 +23,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
-@Channel(type = ChannelType.SMS, provider = ChannelProvider.TENCENT, reqType = SmsReq.class)
+@Channel(type = ChannelType.SMS, provider = ChannelProvider.TENCENT, reqType = SmsReq.class, blocking = true)
 public class TencentSmsChannel extends AbstractChannel<SmsReq> {
 
     private static final String DEFAULT_ENDPOINT = "sms.tencentcloudapi.com";
@@ -55,32 +54,31 @@ public class TencentSmsChannel extends AbstractChannel<SmsReq> {
 
     @Override
     protected Mono<String> doSend(SmsReq req) {
-        try {
-            SendSmsRequest sendSmsRequest = new SendSmsRequest();
-            sendSmsRequest.setSmsSdkAppId(smsSdkAppId);
-            sendSmsRequest.setSignName(req.getSignName());
-            sendSmsRequest.setTemplateId(req.getTemplateCode());
-            sendSmsRequest.setPhoneNumberSet(new String[]{buildE164(req.getCountryCode(), req.getPhoneNumber())});
-            if (req.getTemplateParams() != null && !req.getTemplateParams().isEmpty()) {
-                sendSmsRequest.setTemplateParamSet(req.getTemplateParams().values().toArray(new String[0]));
-            }
-
-            SendSmsResponse resp = client.SendSms(sendSmsRequest);
-            SendStatus[] statuses = resp.getSendStatusSet();
-            if (statuses == null || statuses.length == 0) {
-                return Mono.error(new SendException("TENCENT_SMS empty SendStatusSet"));
-            }
-            SendStatus status = statuses[0];
-            if (!StringUtils.equalsIgnoreCase(SUCCESS_CODE, status.getCode())) {
-                return Mono.error(new SendException(status.getCode() + ": " + status.getMessage()));
-            }
-        } catch (Exception e) {
-            throw new SendException(e.getMessage());
+        SendSmsRequest sendSmsRequest = new SendSmsRequest();
+        sendSmsRequest.setSmsSdkAppId(smsSdkAppId);
+        sendSmsRequest.setSignName(req.getSignName());
+        sendSmsRequest.setTemplateId(req.getTemplateCode());
+        sendSmsRequest.setPhoneNumberSet(new String[]{buildE164(req.getCountryCode(), req.getPhoneNumber())});
+        if (req.getTemplateParams() != null && !req.getTemplateParams().isEmpty()) {
+            sendSmsRequest.setTemplateParamSet(req.getTemplateParams().values().toArray(new String[0]));
         }
-        return Mono.empty();
+
+        return blocking(() -> client.SendSms(sendSmsRequest))
+                .onErrorMap(e -> !(e instanceof SendException), e -> new SendException(e.getMessage()))
+                .flatMap(resp -> {
+                    SendStatus[] statuses = resp.getSendStatusSet();
+                    if (statuses == null || statuses.length == 0) {
+                        return Mono.error(new SendException("TENCENT_SMS empty SendStatusSet"));
+                    }
+                    SendStatus status = statuses[0];
+                    if (!StringUtils.equalsIgnoreCase(SUCCESS_CODE, status.getCode())) {
+                        return Mono.error(new SendException(status.getCode() + ": " + status.getMessage()));
+                    }
+                    return Mono.just(status.getSerialNo() != null ? status.getSerialNo() : SUCCESS_CODE);
+                });
     }
 
-    private static String buildE164(String countryCode, String phoneNumber) {
+    static String buildE164(String countryCode, String phoneNumber) {
         if (StringUtils.isBlank(phoneNumber)) {
             return phoneNumber;
         }
@@ -0,0 +1,146 @@
+package com.github.waitlight.asskicker.channel.impl;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.waitlight.asskicker.channel.AbstractChannel;
+import com.github.waitlight.asskicker.channel.Channel;
+import com.github.waitlight.asskicker.exception.SendException;
+import com.github.waitlight.asskicker.model.ChannelEntity;
+import com.github.waitlight.asskicker.model.ChannelProvider;
+import com.github.waitlight.asskicker.model.ChannelType;
+import com.github.waitlight.asskicker.service.RecordService;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * 腾讯云短信的 WebClient 实现：自行构造 TC3-HMAC-SHA256 签名，经共享 {@link WebClient} 连接池非阻塞发送，
+ * 发送过程不占用线程。通道 properties 中 client=http 时选用，缺省仍为 SDK 实现 {@link TencentSmsChannel}。
+ */
+@Channel(type = ChannelType.SMS, provider = ChannelProvider.TENCENT, reqType = SmsReq.class, client = "http")
+public class TencentSmsHttpChannel extends AbstractChannel<SmsReq> {
+
+    private static final String DEFAULT_ENDPOINT = "sms.tencentcloudapi.com";
+    private static final String DEFAULT_REGION = "ap-guangzhou";
+    private static final String SERVICE = "sms";
+    private static final String ACTION = "SendSms";
+    private static final String API_VERSION = "2021-01-11";
+    private static final String CONTENT_TYPE = "application/json; charset=utf-8";
+    private static final String SUCCESS_CODE = "Ok";
+
+    private final String url;
+    private final String host;
+    private final String secretId;
+    private final String secretKey;
+    private final String smsSdkAppId;
+    private final String region;
+
+    public TencentSmsHttpChannel(ChannelEntity entity, WebClient webClient, ObjectMapper objectMapper,
+                                 RecordService recordService) {
+        super(entity, webClient, objectMapper, recordService);
+        Properties properties = objectMapper.convertValue(entity.getProperties(), Properties.class);
+        String endpoint = StringUtils.defaultIfBlank(properties.getEndpoint(), DEFAULT_ENDPOINT);
+        this.url = (endpoint.contains("://") ? endpoint : "https://" + endpoint) + "/";
+        this.host = URI.create(url).getRawAuthority();
+        this.secretId = properties.getSecretId();
+        this.secretKey = properties.getSecretKey();
+        this.smsSdkAppId = properties.getSmsSdkAppId();
+        this.region = StringUtils.defaultIfBlank(properties.getRegion(), DEFAULT_REGION);
+    }
+
+    @Override
+    protected Mono<String> doSend(SmsReq req) {
+        return Mono.defer(() -> {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("PhoneNumberSet", List.of(TencentSmsChannel.buildE164(req.getCountryCode(), req.getPhoneNumber())));
+            body.put("SmsSdkAppId", smsSdkAppId);
+            body.put("SignName", req.getSignName());
+            body.put("TemplateId", req.getTemplateCode());
+            if (req.getTemplateParams() != null && !req.getTemplateParams().isEmpty()) {
+                body.put("TemplateParamSet", List.copyOf(req.getTemplateParams().values()));
+            }
+            byte[] payload;
+            try {
+                payload = objectMapper.writeValueAsBytes(body);
+            } catch (JsonProcessingException e) {
+                return Mono.error(new SendException(e.getMessage()));
+            }
+
+            long timestamp = System.currentTimeMillis() / 1000L;
+            String authorization = TencentTc3Signer.authorization(secretId, secretKey, SERVICE, host, ACTION,
+                    CONTENT_TYPE, timestamp, payload);
+            return webClient.post()
+                    .uri(url)
+                    .header(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE)
+                    .header(HttpHeaders.AUTHORIZATION, authorization)
+                    .header("X-TC-Action", ACTION)
+                    .header("X-TC-Version", API_VERSION)
+                    .header("X-TC-Timestamp", String.valueOf(timestamp))
+                    .header("X-TC-Region", region)
+                    .bodyValue(payload)
+                    .exchangeToMono(resp -> resp.bodyToMono(Map.class)
+                            .defaultIfEmpty(Map.of())
+                            .flatMap(respBody -> verifyResponse(resp.statusCode().value(), respBody)));
+        });
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Mono<String> verifyResponse(int status, Map body) {
+        if (!(body.get("Response") instanceof Map response)) {
+            return Mono.error(new SendException("TENCENT_SMS http " + status + " without Response"));
+        }
+        if (response.get("Error") instanceof Map error) {
+            return Mono.error(new SendException(error.get("Code") + ": " + error.get("Message")));
+        }
+        if (!(response.get("SendStatusSet") instanceof List statuses) || statuses.isEmpty()
+                || !(statuses.get(0) instanceof Map sendStatus)) {
+            return Mono.error(new SendException("TENCENT_SMS empty SendStatusSet"));
+        }
+        Object code = sendStatus.get("Code");
+        if (code == null || !StringUtils.equalsIgnoreCase(SUCCESS_CODE, code.toString())) {
+            return Mono.error(new SendException(code + ": " + sendStatus.get("Message")));
+        }
+        Object serialNo = sendStatus.get("SerialNo");
+        return Mono.just(serialNo != null ? serialNo.toString() : SUCCESS_CODE);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Properties {
+
+        /** 腾讯云 API 密钥 SecretId */
+        @NotBlank
+        private String secretId;
+
+        /** 腾讯云 API 密钥 SecretKey */
+        @NotBlank
+        private String secretKey;
+
+        /** 短信应用 SDK AppID,在腾讯云短信控制台创建应用后获取 */
+        @NotBlank
+        private String smsSdkAppId;
+
+        /** 服务地域,如 ap-guangzhou;留空使用默认 ap-guangzhou */
+        private String region;
+
+        /** 短信服务 endpoint,留空使用默认值 sms.tencentcloudapi.com,可写 host、host:port 或带 http(s):// 前缀 */
+        @Pattern(regexp = "^$|^(https?://)?[A-Za-z0-9.-]+(:\\d+)?$")
+        private String endpoint;
+    }
+}
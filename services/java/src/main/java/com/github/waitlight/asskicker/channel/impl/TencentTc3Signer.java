@@ -0,0 +1,75 @@
+package com.github.waitlight.asskicker.channel.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * 腾讯云 API 3.0 签名（TC3-HMAC-SHA256），签名头固定为 content-type、host、x-tc-action。
+ * <p>
+ * 派生密钥：HMAC("TC3" + SecretKey, Date) → HMAC(·, Service) → HMAC(·, "tc3_request")，
+ * 再对 StringToSign 计算 HMAC-SHA256 取十六进制。
+ */
+final class TencentTc3Signer {
+
+    static final String ALGORITHM = "TC3-HMAC-SHA256";
+    static final String SIGNED_HEADERS = "content-type;host;x-tc-action";
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd").withZone(ZoneOffset.UTC);
+    private static final HexFormat HEX = HexFormat.of();
+
+    private TencentTc3Signer() {
+    }
+
+    /**
+     * 生成 Authorization 请求头
+     *
+     * @param timestamp 秒级时间戳，与 X-TC-Timestamp 一致
+     * @param payload   实际发送的请求体字节
+     */
+    static String authorization(String secretId, String secretKey, String service, String host, String action,
+                                String contentType, long timestamp, byte[] payload) {
+        String canonicalRequest = "POST\n/\n\n"
+                + "content-type:" + contentType + "\n"
+                + "host:" + host + "\n"
+                + "x-tc-action:" + action.toLowerCase() + "\n"
+                + "\n"
+                + SIGNED_HEADERS + "\n"
+                + sha256Hex(payload);
+        String date = DATE.format(Instant.ofEpochSecond(timestamp));
+        String credentialScope = date + "/" + service + "/tc3_request";
+        String stringToSign = ALGORITHM + "\n" + timestamp + "\n" + credentialScope + "\n"
+                + sha256Hex(canonicalRequest.getBytes(StandardCharsets.UTF_8));
+
+        byte[] secretDate = hmac256(("TC3" + secretKey).getBytes(StandardCharsets.UTF_8), date);
+        byte[] secretService = hmac256(secretDate, service);
+        byte[] secretSigning = hmac256(secretService, "tc3_request");
+        String signature = HEX.formatHex(hmac256(secretSigning, stringToSign));
+        return ALGORITHM + " Credential=" + secretId + "/" + credentialScope
+                + ", SignedHeaders=" + SIGNED_HEADERS + ", Signature=" + signature;
+    }
+
+    private static String sha256Hex(byte[] data) {
+        try {
+            return HEX.formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (Exception e) {
+            throw new IllegalStateException("TENCENT_SMS digest failed", e);
+        }
+    }
+
+    private static byte[] hmac256(byte[] key, String msg) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(msg.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new IllegalStateException("TENCENT_SMS sign failed", e);
+        }
+    }
+}
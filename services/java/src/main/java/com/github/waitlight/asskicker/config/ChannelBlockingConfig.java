@@ -0,0 +1,62 @@
+package com.github.waitlight.asskicker.config;
+
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ChannelBlockingConfig.ChannelBlockingProperties.class)
+public class ChannelBlockingConfig {
+
+    @Getter
+    @Setter
+    @Validated
+    @ConfigurationProperties(prefix = "ass-kicker.channel.blocking")
+    public static class ChannelBlockingProperties {
+
+        /**
+         * 为 true 时阻塞 SDK 调用运行在虚拟线程上，并发由 maxConcurrency 信号量限制；
+         * 为 false 时每个通道使用固定大小的平台线程池
+         */
+        private boolean virtualThreads = false;
+
+        /** 每个阻塞通道同时执行的 SDK 调用上限 */
+        @Min(1)
+        private int maxConcurrency = 16;
+
+        /** 每个阻塞通道排队等待执行的调用上限，超出时直接失败 */
+        @Min(0)
+        private int queueCapacity = 512;
+
+        /** 按通道 code 覆盖舱壁参数 */
+        private Map<String, Bulkhead> bulkheads = new HashMap<>();
+
+        public int maxConcurrencyOf(String channelCode) {
+            Bulkhead bulkhead = bulkheads.get(channelCode);
+            return bulkhead != null && bulkhead.getMaxConcurrency() != null ? bulkhead.getMaxConcurrency() : maxConcurrency;
+        }
+
+        public int queueCapacityOf(String channelCode) {
+            Bulkhead bulkhead = bulkheads.get(channelCode);
+            return bulkhead != null && bulkhead.getQueueCapacity() != null ? bulkhead.getQueueCapacity() : queueCapacity;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Bulkhead {
+
+        @Min(1)
+        private Integer maxConcurrency;
+
+        @Min(0)
+        private Integer queueCapacity;
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.waitlight.asskicker.config;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ChannelCircuitBreakerConfig.ChannelCircuitBreakerProperties.class)
+public class ChannelCircuitBreakerConfig {
+
+    @Getter
+    @Setter
+    @Validated
+    @ConfigurationProperties(prefix = "ass-kicker.channel.circuit-breaker")
+    public static class ChannelCircuitBreakerProperties {
+
+        /** 为 false 时不熔断，只统计延迟 */
+        private boolean enabled = true;
+
+        /** 滚动统计窗口长度 */
+        @NotNull
+        private Duration window = Duration.ofSeconds(10);
+
+        /** 窗口分桶数 */
+        @Min(1)
+        @Max(120)
+        private int windowBuckets = 10;
+
+        /** 窗口内调用数达到该值才参与判断 */
+        @Min(1)
+        private int minimumCalls = 20;
+
+        /** 失败率达到该值（0~1）时熔断 */
+        @DecimalMin("0.0")
+        @DecimalMax("1.0")
+        private double failureRateThreshold = 0.5;
+
+        /** 参与判断的延迟分位 */
+        @DecimalMin("0.0")
+        @DecimalMax("1.0")
+        private double latencyPercentile = 0.9;
+
+        /** latencyPercentile 分位延迟超过该值时熔断 */
+        @NotNull
+        private Duration latencyThreshold = Duration.ofSeconds(5);
+
+        /** 熔断后多久进入半开并放行探测请求 */
+        @NotNull
+        private Duration openDuration = Duration.ofSeconds(30);
+
+        /** 半开状态放行的探测请求数，全部成功后恢复 */
+        @Min(1)
+        private int halfOpenProbes = 3;
+
+        /** 半开状态的最长持续时间，探测在此期间未全部返回时重新熔断，避免探测名额丢失后一直停在半开 */
+        @NotNull
+        private Duration halfOpenTimeout = Duration.ofSeconds(30);
+
+        /** 发送失败后切换到同类型其他可用通道的最大次数，0 表示不切换 */
+        @Min(0)
+        @Max(10)
+        private int maxFailoverAttempts = 1;
+    }
+}
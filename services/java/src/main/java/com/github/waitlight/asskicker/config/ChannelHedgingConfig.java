@@ -0,0 +1,45 @@
+package com.github.waitlight.asskicker.config;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ChannelHedgingConfig.ChannelHedgingProperties.class)
+public class ChannelHedgingConfig {
+
+    @Getter
+    @Setter
+    @Validated
+    @ConfigurationProperties(prefix = "ass-kicker.channel.hedging")
+    public static class ChannelHedgingProperties {
+
+        /** 全局开关；为 true 时仍只对 SendReq.hedge 或模板 hedged 的请求生效 */
+        private boolean enabled = true;
+
+        /** 主通道近期延迟的该分位作为对冲等待时间 */
+        @DecimalMin("0.5")
+        @DecimalMax("1.0")
+        private double percentile = 0.95;
+
+        /** 延迟样本不足时使用的对冲等待时间 */
+        @NotNull
+        private Duration defaultDelay = Duration.ofMillis(500);
+
+        /** 对冲等待时间下限，避免主通道稍有波动即重复发送 */
+        @NotNull
+        private Duration minDelay = Duration.ofMillis(50);
+
+        /** 对冲等待时间上限 */
+        @NotNull
+        private Duration maxDelay = Duration.ofSeconds(2);
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.waitlight.asskicker.config;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ChannelQuotaConfig.ChannelQuotaProperties.class)
+public class ChannelQuotaConfig {
+
+    @Getter
+    @Setter
+    @Validated
+    @ConfigurationProperties(prefix = "ass-kicker.channel.quota")
+    public static class ChannelQuotaProperties {
+
+        /**
+         * 为 true 时各节点通过 MongoDB 租约均分通道限流配额；为 false 时每个节点独立使用完整配额
+         */
+        private boolean distributed = false;
+
+        /** 节点标识，为空时使用 主机名-进程号 */
+        private String nodeId;
+
+        /** 租约有效期，节点失联超过该时长后其配额份额由其他节点接管 */
+        @NotNull
+        private Duration leaseTtl = Duration.ofSeconds(5);
+
+        /** 续期间隔，应明显小于 leaseTtl */
+        @NotNull
+        private Duration renewInterval = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,38 @@
+package com.github.waitlight.asskicker.config;
+
+import com.github.waitlight.asskicker.channel.ChannelSelectionStrategy;
+import com.github.waitlight.asskicker.model.ChannelType;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ChannelRoutingConfig.ChannelRoutingProperties.class)
+public class ChannelRoutingConfig {
+
+    @Getter
+    @Setter
+    @Validated
+    @ConfigurationProperties(prefix = "ass-kicker.channel.routing")
+    public static class ChannelRoutingProperties {
+
+        /** 未单独配置的 ChannelType 使用的选择策略 */
+        @NotNull
+        private ChannelSelectionStrategy defaultStrategy = ChannelSelectionStrategy.FIRST;
+
+        /** 按 ChannelType 覆盖选择策略 */
+        private Map<ChannelType, ChannelSelectionStrategy> strategies = new EnumMap<>(ChannelType.class);
+
+        public ChannelSelectionStrategy strategyOf(ChannelType type) {
+            ChannelSelectionStrategy strategy = type == null ? null : strategies.get(type);
+            return strategy != null ? strategy : defaultStrategy;
+        }
+    }
+}
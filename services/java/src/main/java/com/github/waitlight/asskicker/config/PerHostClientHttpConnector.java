@@ -0,0 +1,141 @@
+package com.github.waitlight.asskicker.config;
+
+import com.github.waitlight.asskicker.config.WebClientConfig.Pool;
+import com.github.waitlight.asskicker.config.WebClientConfig.WebClientProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ClientHttpRequest;
+import org.springframework.http.client.reactive.ClientHttpResponse;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 按请求 host 分派到各自连接池的 {@link ClientHttpConnector}：配置了专属连接池的 host 各用一个 {@link ConnectionProvider}，
+ * 其余 host 共用默认连接池。使用共享 WebClient 的通道按请求 URL 自动选用，无需改动。
+ * <p>
+ * 每个连接池按远端地址导出 asskicker.http.pool.* gauge（已借出、空闲、已分配、等待获取连接数及上限）。
+ */
+@Slf4j
+public final class PerHostClientHttpConnector implements ClientHttpConnector, DisposableBean {
+
+    static final String DEFAULT_POOL = "default";
+
+    private static final Map<String, ToDoubleFunction<ConnectionPoolMetrics>> GAUGES = Map.of(
+            "asskicker.http.pool.acquired", ConnectionPoolMetrics::acquiredSize,
+            "asskicker.http.pool.idle", ConnectionPoolMetrics::idleSize,
+            "asskicker.http.pool.allocated", ConnectionPoolMetrics::allocatedSize,
+            "asskicker.http.pool.pending", ConnectionPoolMetrics::pendingAcquireSize,
+            "asskicker.http.pool.max-allocated", ConnectionPoolMetrics::maxAllocatedSize,
+            "asskicker.http.pool.max-pending", ConnectionPoolMetrics::maxPendingAcquireSize);
+
+    private final WebClientProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Pooled> pools = new ConcurrentHashMap<>();
+
+    public PerHostClientHttpConnector(WebClientProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<ClientHttpResponse> connect(HttpMethod method, URI uri,
+                                            Function<? super ClientHttpRequest, Mono<Void>> requestCallback) {
+        return connectorFor(uri.getHost()).connect(method, uri, requestCallback);
+    }
+
+    ReactorClientHttpConnector connectorFor(String host) {
+        String poolName = properties.hasDedicatedPool(host) ? host.toLowerCase(Locale.ROOT) : DEFAULT_POOL;
+        return pools.computeIfAbsent(poolName, this::create).connector();
+    }
+
+    @Override
+    public void destroy() {
+        pools.values().forEach(pooled -> pooled.provider().dispose());
+        pools.clear();
+    }
+
+    private Pooled create(String poolName) {
+        Pool pool = DEFAULT_POOL.equals(poolName) ? properties.getDefaults() : properties.poolOf(poolName);
+        ConnectionProvider.Builder builder = ConnectionProvider.builder("asskicker-" + poolName)
+                .maxConnections(pool.getMaxConnections())
+                .pendingAcquireMaxCount(pool.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(pool.getPendingAcquireTimeout())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .maxLifeTime(pool.getMaxLifeTime())
+                .metrics(true, () -> new PoolGauges(poolName));
+        if (!pool.getEvictInterval().isZero()) {
+            builder.evictInBackground(pool.getEvictInterval());
+        }
+        ConnectionProvider provider = builder.build();
+
+        HttpClient client = HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) pool.getConnectTimeout().toMillis())
+                .responseTimeout(pool.getResponseTimeout());
+        if (Boolean.TRUE.equals(pool.getHttp2())) {
+            client = client.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        }
+        log.info("Created HTTP connection pool {}, maxConnections={}, pendingAcquireMaxCount={}, http2={}",
+                poolName, pool.getMaxConnections(), pool.getPendingAcquireMaxCount(), pool.getHttp2());
+        return new Pooled(provider, new ReactorClientHttpConnector(client));
+    }
+
+    private record Pooled(ConnectionProvider provider, ReactorClientHttpConnector connector) {
+    }
+
+    /**
+     * 把 Reactor Netty 连接池指标注册到应用的 {@link MeterRegistry}，远端地址的子连接池释放时一并移除
+     */
+    private final class PoolGauges implements ConnectionProvider.MeterRegistrar {
+
+        private final String poolName;
+
+        PoolGauges(String poolName) {
+            this.poolName = poolName;
+        }
+
+        @Override
+        public void registerMetrics(String name, String id, SocketAddress remoteAddress,
+                                    ConnectionPoolMetrics metrics) {
+            Tags tags = tags(remoteAddress);
+            GAUGES.forEach((gauge, fn) -> Gauge.builder(gauge, metrics, fn)
+                    .tags(tags)
+                    .strongReference(true)
+                    .register(meterRegistry));
+        }
+
+        @Override
+        public void deRegisterMetrics(String name, String id, SocketAddress remoteAddress) {
+            Tags tags = tags(remoteAddress);
+            for (String gauge : GAUGES.keySet()) {
+                meterRegistry.remove(new Meter.Id(gauge, tags, null, null, Meter.Type.GAUGE));
+            }
+        }
+
+        private Tags tags(SocketAddress remoteAddress) {
+            String remote = remoteAddress instanceof InetSocketAddress inet
+                    ? inet.getHostString() + ":" + inet.getPort()
+                    : String.valueOf(remoteAddress);
+            return Tags.of("pool", poolName, "remote", remote);
+        }
+    }
+}
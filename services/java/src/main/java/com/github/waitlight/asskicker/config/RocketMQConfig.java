@@ -1,6 +1,11 @@
 package com.github.waitlight.asskicker.config;
 
+import com.github.waitlight.asskicker.model.ChannelType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -8,6 +13,10 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.context.annotation.Configuration;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
 @Configuration(proxyBeanMethods = false)
 @EnableConfigurationProperties(RocketMQConfig.RocketMQProperties.class)
 public class RocketMQConfig {
@@ -20,5 +29,68 @@ public class RocketMQConfig {
 
         @NotBlank
         private String sendReqsTopic;
+
+        @Valid
+        private ProducerProperties producer = new ProducerProperties();
+
+        @Valid
+        private ConsumerProperties consumer = new ConsumerProperties();
+    }
+
+    @Getter
+    @Setter
+    public static class ProducerProperties {
+
+        /** 为 true 时把并发到达的发送请求合并为批量消息投递，为 false 时逐条异步投递 */
+        private boolean batchEnabled = false;
+
+        /** 单个批量消息最多携带的请求数 */
+        @Min(1)
+        @Max(1024)
+        private int batchMaxSize = 64;
+
+        /** 批次未满时的最长等待时间，到期即投递 */
+        @NotNull
+        private Duration batchLinger = Duration.ofMillis(5);
+
+        /** 同时等待 Broker 响应的批次数上限 */
+        @Min(1)
+        private int maxInFlightBatches = 16;
+    }
+
+    @Getter
+    @Setter
+    public static class ConsumerProperties {
+
+        /**
+         * 为 true 时消费线程把一批消息交给 Reactor 流水线并发发送，整批发送结束后再确认；
+         * 为 false 时退回逐条 block 发送。
+         */
+        private boolean reactive = true;
+
+        /** 单次消费回调携带的最大消息数，对应 consumeMessageBatchMaxSize */
+        @Min(1)
+        @Max(1024)
+        private int batchSize = 32;
+
+        /** 每个 ChannelType 默认的在途发送上限 */
+        @Min(1)
+        private int maxInFlight = 256;
+
+        /** 按 ChannelType 覆盖在途发送上限，未配置的类型使用 maxInFlight */
+        private Map<ChannelType, Integer> maxInFlightPerType = new EnumMap<>(ChannelType.class);
+
+        /** 待处理（排队 + 在途）消息数达到该值时暂停从 Broker 拉取 */
+        @Min(1)
+        private int suspendThreshold = 2048;
+
+        /** 暂停后待处理消息数回落到该值及以下时恢复拉取 */
+        @Min(0)
+        private int resumeThreshold = 1024;
+
+        public int maxInFlightOf(ChannelType type) {
+            Integer limit = maxInFlightPerType.get(type);
+            return limit != null && limit > 0 ? limit : maxInFlight;
+        }
     }
 }
@@ -0,0 +1,90 @@
+package com.github.waitlight.asskicker.config;
+
+import com.mongodb.WriteConcern;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(SendRecordConfig.SendRecordProperties.class)
+public class SendRecordConfig {
+
+    @Getter
+    @Setter
+    @Validated
+    @ConfigurationProperties(prefix = "send-record")
+    public static class SendRecordProperties {
+
+        /** 缓冲达到该条数时立即批量落库 */
+        @Min(1)
+        private int bufferSize = 100;
+
+        /** 定时落库间隔(毫秒) */
+        @Min(1)
+        private long flushIntervalMs = 5000;
+
+        /**
+         * 批量写入使用的写关注，取 {@link WriteConcern#valueOf(String)} 支持的名称：
+         * ACKNOWLEDGED、W1、W2、MAJORITY、JOURNALED、UNACKNOWLEDGED
+         */
+        @Pattern(regexp = "(?i)ACKNOWLEDGED|W1|W2|W3|MAJORITY|JOURNALED|UNACKNOWLEDGED")
+        private String writeConcern = "ACKNOWLEDGED";
+
+        /**
+         * QUEUED / SENDING 在内存中保留的时长(毫秒)，期间同一记录后到的状态替换先到的、终态到达时合并为一次写入；
+         * 超时仍未推进的照常落库
+         */
+        @Min(1)
+        private long transitionLingerMs = 1000;
+
+        /** 等待落库的记录条数上限(含正在写入的批次)，超出时丢弃新记录并计入 asskicker.record.dropped */
+        @Min(1)
+        private int queueCapacity = 10000;
+
+        /** 同时进行的批量落库数上限，写入变慢时记录在队列中积压而不是堆积更多请求 */
+        @Min(1)
+        private int maxConcurrentFlushes = 4;
+
+        /** 连接中断、主节点切换等暂时性错误的重试次数，用尽后整批丢弃 */
+        @Min(0)
+        private int maxRetries = 3;
+
+        /** 首次重试前的等待时间(毫秒)，此后指数退避 */
+        @Min(1)
+        private long retryBackoffMs = 200;
+
+        /** Mongo 不可用或队列已满时的本地溢写日志 */
+        @Valid
+        private Spill spill = new Spill();
+
+        public WriteConcern resolveWriteConcern() {
+            return WriteConcern.valueOf(writeConcern.toUpperCase());
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Spill {
+
+        /** 关闭时写入失败或队列已满的记录直接丢弃 */
+        private boolean enabled = false;
+
+        /** 段文件所在目录 */
+        @NotBlank
+        private String directory = "data/record-spill";
+
+        /** 单个段文件大小(字节)，按此大小预分配并内存映射 */
+        @Min(65536)
+        private int segmentSize = 16 * 1024 * 1024;
+
+        /** 为 true 时每次追加后刷盘，主机掉电也不丢；否则只保证进程崩溃不丢 */
+        private boolean sync = false;
+    }
+}
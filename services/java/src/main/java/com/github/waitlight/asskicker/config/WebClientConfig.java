@@ -1,19 +1,135 @@
 package com.github.waitlight.asskicker.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.commons.lang3.ObjectUtils;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
 /**
  * 提供项目统一注入的出站 {@link WebClient}。
  * <p>
- * Bean 方法名为 {@code webClient}，默认 Bean 名称为 {@code webClient}，不覆盖 Reactor Netty 与 codec 的默认配置。
+ * Bean 方法名为 {@code webClient}，默认 Bean 名称为 {@code webClient}。底层连接器为 {@link PerHostClientHttpConnector}，
+ * 按请求 host 选用 ass-kicker.web-client.hosts 中配置的专属连接池，其余 host 共用 defaults 连接池；codec 保持默认配置。
  */
 @Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(WebClientConfig.WebClientProperties.class)
 public class WebClientConfig {
 
     @Bean
-    public WebClient webClient() {
-        return WebClient.builder().build();
+    public PerHostClientHttpConnector perHostClientHttpConnector(WebClientProperties properties,
+                                                                 MeterRegistry meterRegistry) {
+        return new PerHostClientHttpConnector(properties, meterRegistry);
+    }
+
+    @Bean
+    public WebClient webClient(PerHostClientHttpConnector connector) {
+        return WebClient.builder().clientConnector(connector).build();
+    }
+
+    @Getter
+    @Setter
+    @Validated
+    @ConfigurationProperties(prefix = "ass-kicker.web-client")
+    public static class WebClientProperties {
+
+        /** 未单独配置的 host 共用的连接池参数 */
+        @Valid
+        private Pool defaults = Pool.builtIn();
+
+        /**
+         * 按出站 host（小写，YAML 中含点的键需写成 "[open.feishu.cn]"）配置专属连接池，未填写的字段沿用 defaults
+         */
+        @Valid
+        private Map<String, Pool> hosts = new HashMap<>();
+
+        /**
+         * host 是否配置了专属连接池
+         */
+        public boolean hasDedicatedPool(String host) {
+            return host != null && hosts.containsKey(host.toLowerCase(Locale.ROOT));
+        }
+
+        /**
+         * host 生效的连接池参数：专属配置叠加在 defaults 之上
+         */
+        public Pool poolOf(String host) {
+            Pool pool = host != null ? hosts.get(host.toLowerCase(Locale.ROOT)) : null;
+            return pool != null ? pool.over(defaults) : defaults;
+        }
+    }
+
+    @Getter
+    @Setter
+    public static class Pool {
+
+        /** 每个远端地址的最大连接数 */
+        @Min(1)
+        private Integer maxConnections;
+
+        /** 等待获取连接的最大排队数，超出时立即失败；-1 表示不限制 */
+        @Min(-1)
+        private Integer pendingAcquireMaxCount;
+
+        /** 等待获取连接的超时时间 */
+        private Duration pendingAcquireTimeout;
+
+        /** 连接空闲超过该时长后关闭 */
+        private Duration maxIdleTime;
+
+        /** 连接存活超过该时长后关闭，避免长期连接落在已下线的后端上 */
+        private Duration maxLifeTime;
+
+        /** 后台清理空闲 / 过期连接的间隔，0 表示只在获取连接时检查 */
+        private Duration evictInterval;
+
+        /** 建立连接超时时间 */
+        private Duration connectTimeout;
+
+        /** 请求发出后等待响应的超时时间 */
+        private Duration responseTimeout;
+
+        /** 是否启用 HTTP/2，仅对 https 生效，经 ALPN 协商，对端不支持时回落 HTTP/1.1 */
+        private Boolean http2;
+
+        static Pool builtIn() {
+            Pool pool = new Pool();
+            pool.maxConnections = 200;
+            pool.pendingAcquireMaxCount = 1000;
+            pool.pendingAcquireTimeout = Duration.ofSeconds(5);
+            pool.maxIdleTime = Duration.ofSeconds(30);
+            pool.maxLifeTime = Duration.ofMinutes(5);
+            pool.evictInterval = Duration.ofSeconds(30);
+            pool.connectTimeout = Duration.ofSeconds(3);
+            pool.responseTimeout = Duration.ofSeconds(10);
+            pool.http2 = false;
+            return pool;
+        }
+
+        Pool over(Pool base) {
+            Pool pool = new Pool();
+            pool.maxConnections = ObjectUtils.firstNonNull(maxConnections, base.maxConnections);
+            pool.pendingAcquireMaxCount = ObjectUtils.firstNonNull(pendingAcquireMaxCount, base.pendingAcquireMaxCount);
+            pool.pendingAcquireTimeout = ObjectUtils.firstNonNull(pendingAcquireTimeout, base.pendingAcquireTimeout);
+            pool.maxIdleTime = ObjectUtils.firstNonNull(maxIdleTime, base.maxIdleTime);
+            pool.maxLifeTime = ObjectUtils.firstNonNull(maxLifeTime, base.maxLifeTime);
+            pool.evictInterval = ObjectUtils.firstNonNull(evictInterval, base.evictInterval);
+            pool.connectTimeout = ObjectUtils.firstNonNull(connectTimeout, base.connectTimeout);
+            pool.responseTimeout = ObjectUtils.firstNonNull(responseTimeout, base.responseTimeout);
+            pool.http2 = ObjectUtils.firstNonNull(http2, base.http2);
+            return pool;
+        }
     }
-}
\ No newline at end of file
+}
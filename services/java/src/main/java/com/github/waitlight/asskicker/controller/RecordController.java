@@ -7,6 +7,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.github.waitlight.asskicker.config.OpenApiConfig;
+import com.github.waitlight.asskicker.dto.CursorPageResp;
 import com.github.waitlight.asskicker.dto.PageResp;
 import com.github.waitlight.asskicker.dto.Resp;
 import com.github.waitlight.asskicker.dto.record.RecordVO;
@@ -26,6 +27,10 @@ public class RecordController {
 
     private final RecordService recordService;
 
+    /**
+     * @deprecated 深分页时 skip 会扫描之前的所有记录，请改用 {@link #scroll}
+     */
+    @Deprecated
     @Operation(summary = "分页查询", security = @SecurityRequirement(name = OpenApiConfig.BEARER_JWT))
     @GetMapping
     public Mono<PageResp<RecordVO>> page(
@@ -38,6 +43,18 @@ public class RecordController {
                 .map(pr -> PageResp.success(pr.page(), pr.size(), pr.total(), pr.data()));
     }
 
+    @Operation(summary = "游标分页查询", security = @SecurityRequirement(name = OpenApiConfig.BEARER_JWT))
+    @GetMapping("/cursor")
+    public Mono<CursorPageResp<RecordVO>> scroll(
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String recipient,
+            @RequestParam(required = false) String channelType,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+
+        return recordService.scroll(size, cursor, recipient, channelType, withTotal);
+    }
+
     @Operation(summary = "查询记录", security = @SecurityRequirement(name = OpenApiConfig.BEARER_JWT))
     @GetMapping("/{id}")
     public Mono<Resp<RecordVO>> getById(@PathVariable String id) {
@@ -3,19 +3,25 @@ package com.github.waitlight.asskicker.controller;
 import com.github.waitlight.asskicker.channel.SendReq;
 import com.github.waitlight.asskicker.config.OpenApiConfig;
 import com.github.waitlight.asskicker.dto.Resp;
+import com.github.waitlight.asskicker.dto.send.SendBatchItemVO;
+import com.github.waitlight.asskicker.dto.send.SendBatchVO;
 import com.github.waitlight.asskicker.dto.send.SendVO;
 import com.github.waitlight.asskicker.mq.SendReqProducer;
+import com.github.waitlight.asskicker.service.RecordService;
+import com.github.waitlight.asskicker.service.SendService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.bson.types.ObjectId;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Tag(name = "发送消息")
@@ -25,16 +31,33 @@ import reactor.core.publisher.Mono;
 public class SendController {
 
     private final SendReqProducer sendReqProducer;
+    private final SendService sendService;
+    private final RecordService recordService;
 
     @Operation(summary = "发送消息", security = @SecurityRequirement(name = OpenApiConfig.BEARER_JWT))
     @PostMapping("/send")
     public Mono<Resp<SendVO>> sendDirect(@Valid @RequestBody SendReq req) {
         req.setRecordId(ObjectId.get().toString());
         return sendReqProducer.publish(req)
+                .doOnNext(recordId -> recordService.createQueued(req))
                 .map(SendVO::new)
                 .map(Resp::success)
                 .onErrorResume(ResponseStatusException.class, ex -> Mono.just(
                         Resp.error(String.valueOf(ex.getStatusCode().value()),
                                 ex.getReason() == null ? "发送失败" : ex.getReason())));
     }
+
+    @Operation(summary = "批量发送消息", security = @SecurityRequirement(name = OpenApiConfig.BEARER_JWT))
+    @PostMapping("/send/batch")
+    public Mono<Resp<SendBatchVO>> sendBatch(@RequestBody Flux<SendReq> reqs) {
+        return sendService.sendBatch(reqs)
+                .map(Resp::success);
+    }
+
+    @Operation(summary = "流式发送消息", security = @SecurityRequirement(name = OpenApiConfig.BEARER_JWT))
+    @PostMapping(value = "/send/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<SendBatchItemVO> sendStream(@RequestBody Flux<String> lines) {
+        return sendService.sendStream(lines);
+    }
 }
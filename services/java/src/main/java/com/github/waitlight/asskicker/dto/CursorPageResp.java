@@ -0,0 +1,18 @@
+package com.github.waitlight.asskicker.dto;
+
+import java.util.List;
+
+/**
+ * 游标分页响应：nextCursor 为空表示没有更多数据；total 仅在请求时返回，为近似值
+ */
+public record CursorPageResp<T>(
+        String code,
+        String message,
+        int size,
+        List<T> data,
+        String nextCursor,
+        Long total) {
+    public static <T> CursorPageResp<T> success(int size, List<T> data, String nextCursor, Long total) {
+        return new CursorPageResp<>("200", "success", size, data, nextCursor, total);
+    }
+}
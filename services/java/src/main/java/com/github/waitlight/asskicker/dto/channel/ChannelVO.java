@@ -3,6 +3,7 @@ package com.github.waitlight.asskicker.dto.channel;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.github.waitlight.asskicker.model.ChannelProvider;
+import com.github.waitlight.asskicker.model.ChannelRateLimit;
 import com.github.waitlight.asskicker.model.ChannelType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -32,6 +33,10 @@ public class ChannelVO {
 
     private boolean enabled;
 
+    private Integer weight;
+
+    private ChannelRateLimit rateLimit;
+
     @Builder.Default
     private JsonNode properties = JsonNodeFactory.instance.objectNode();
 
@@ -4,7 +4,11 @@ import java.util.HashMap;
 import java.util.Map;
 
 import com.github.waitlight.asskicker.model.ChannelProvider;
+import com.github.waitlight.asskicker.model.ChannelRateLimit;
 import com.github.waitlight.asskicker.model.ChannelType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -42,6 +46,13 @@ public class CreateChannelDTO {
     @Builder.Default
     private boolean enabled = true;
 
+    @Min(1)
+    @Max(10000)
+    private Integer weight;
+
+    @Valid
+    private ChannelRateLimit rateLimit;
+
     @Builder.Default
     private Map<String, Object> properties = new HashMap<>();
 }
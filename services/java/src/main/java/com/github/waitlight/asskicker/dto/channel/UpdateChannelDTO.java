@@ -1,7 +1,11 @@
 package com.github.waitlight.asskicker.dto.channel;
 
 import com.github.waitlight.asskicker.model.ChannelProvider;
+import com.github.waitlight.asskicker.model.ChannelRateLimit;
 import com.github.waitlight.asskicker.model.ChannelType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
@@ -38,5 +42,12 @@ public class UpdateChannelDTO {
 
     private Boolean enabled;
 
+    @Min(1)
+    @Max(10000)
+    private Integer weight;
+
+    @Valid
+    private ChannelRateLimit rateLimit;
+
     private Map<String, Object> properties;
 }
@@ -1,6 +1,7 @@
 package com.github.waitlight.asskicker.dto.record;
 
 import com.github.waitlight.asskicker.model.ChannelType;
+import com.github.waitlight.asskicker.model.CircuitState;
 import com.github.waitlight.asskicker.model.SendRecordStatus;
 
 import java.util.Map;
@@ -20,6 +21,8 @@ public record RecordVO(
         SendRecordStatus status,
         String errorCode,
         String errorMessage,
-        Long sentAt
+        Long sentAt,
+        Integer failoverAttempts,
+        CircuitState circuitState
 ) {
 }
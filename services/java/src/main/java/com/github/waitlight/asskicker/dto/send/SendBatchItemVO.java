@@ -0,0 +1,22 @@
+package com.github.waitlight.asskicker.dto.send;
+
+/**
+ * 批量 / 流式发送中单条请求的受理结果：受理成功时 recordId 非空，被拒绝时 error 给出原因。
+ */
+public record SendBatchItemVO(
+        long index,
+        String recordId,
+        String error
+) {
+    public static SendBatchItemVO accepted(long index, String recordId) {
+        return new SendBatchItemVO(index, recordId, null);
+    }
+
+    public static SendBatchItemVO rejected(long index, String error) {
+        return new SendBatchItemVO(index, null, error);
+    }
+
+    public boolean isAccepted() {
+        return error == null;
+    }
+}
@@ -0,0 +1,11 @@
+package com.github.waitlight.asskicker.dto.send;
+
+import java.util.List;
+
+public record SendBatchVO(
+        int total,
+        int accepted,
+        int rejected,
+        List<SendBatchItemVO> items
+) {
+}
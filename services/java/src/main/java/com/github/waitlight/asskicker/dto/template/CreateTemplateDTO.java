@@ -34,4 +34,10 @@ public class CreateTemplateDTO {
      */
     @Builder.Default
     private boolean providerManaged = false;
+
+    /**
+     * 是否对使用该模板的发送启用对冲请求
+     */
+    @Builder.Default
+    private boolean hedged = false;
 }
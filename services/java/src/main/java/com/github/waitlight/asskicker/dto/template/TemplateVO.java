@@ -22,6 +22,8 @@ public class TemplateVO {
 
     private boolean providerManaged;
 
+    private boolean hedged;
+
     private String creator;
 
     private String updater;
@@ -32,6 +32,17 @@ public class ChannelEntity extends Auditable {
 
         private boolean enabled = true;
 
+        /**
+         * 负载均衡权重，仅 WEIGHTED 策略使用，缺省按 1 计
+         */
+        private Integer weight;
+
+        /**
+         * 发送限流，为空时不限流；超出速率的发送会排队等待而不是失败
+         */
+        @Field("rate_limit")
+        private ChannelRateLimit rateLimit;
+
         /**
          * 供应商配置，用于存储供应商的配置
          */
@@ -0,0 +1,39 @@
+package com.github.waitlight.asskicker.model;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.util.Date;
+
+/**
+ * 分布式限流租约：每个工作节点为每个限流通道持有一条租约并定期续期，
+ * 通道配额按有效租约数均分。_id 为 channelId:nodeId，过期租约由 TTL 索引清理。
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Document(collection = "channel_quota_leases")
+public class ChannelQuotaLeaseEntity {
+
+    @Id
+    private String id;
+
+    @Field("channel_id")
+    @Indexed(name = "idx_channel_quota_leases_channel_id")
+    private String channelId;
+
+    @Field("node_id")
+    private String nodeId;
+
+    /**
+     * TTL 索引要求 Date 类型
+     */
+    @Field("expires_at")
+    @Indexed(name = "ttl_channel_quota_leases_expires_at", expireAfterSeconds = 0)
+    private Date expiresAt;
+}
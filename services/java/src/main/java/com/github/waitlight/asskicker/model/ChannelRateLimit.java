@@ -0,0 +1,45 @@
+package com.github.waitlight.asskicker.model;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 通道限流配置：每 periodMs 毫秒最多发送 permits 条，空闲后允许最多 burst 条突发。
+ * 例如钉钉机器人 20 条/分钟配置为 permits=20、periodMs=60000。
+ * 排队等待超过 maxWaitMs 的发送直接失败，不再预约名额。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChannelRateLimit {
+
+    @NotNull
+    @Min(1)
+    private Integer permits;
+
+    @NotNull
+    @Min(1)
+    @Max(86_400_000)
+    private Long periodMs;
+
+    /**
+     * 突发容量，缺省为 1（严格匀速）
+     */
+    @Min(1)
+    private Integer burst;
+
+    /**
+     * 单次发送排队等待的上限(毫秒)，缺省为 periodMs
+     */
+    @Min(0)
+    @Max(86_400_000)
+    private Long maxWaitMs;
+
+    public ChannelRateLimit(Integer permits, Long periodMs, Integer burst) {
+        this(permits, periodMs, burst, null);
+    }
+}
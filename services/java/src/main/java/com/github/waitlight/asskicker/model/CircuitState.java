@@ -0,0 +1,10 @@
+package com.github.waitlight.asskicker.model;
+
+/**
+ * 通道熔断器状态
+ */
+public enum CircuitState {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+}
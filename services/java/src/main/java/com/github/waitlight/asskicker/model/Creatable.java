@@ -7,8 +7,8 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 /**
- * 只记录创建者与创建时间、且创建后不可再修改的实体基类。
- * 典型场景：发送流水（RecordEntity）——一次落库、终态写入、不再更新。
+ * 只记录创建者与创建时间、不跟踪修改者的实体基类。
+ * 典型场景：发送流水（RecordEntity）——由发送链路按状态推进原地更新，不需要审计修改者。
  * 需要跟踪修改者的实体请继承 {@link Auditable}。
  */
 @Getter
@@ -3,6 +3,8 @@ package com.github.waitlight.asskicker.model;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
@@ -14,6 +16,11 @@ import java.util.Map;
 @Setter
 @NoArgsConstructor
 @Document(collection = "records")
+@CompoundIndexes({
+        @CompoundIndex(name = "idx_records_sent_at_id", def = "{'sent_at': -1, '_id': -1}"),
+        @CompoundIndex(name = "idx_records_recipient_sent_at_id", def = "{'recipient': 1, 'sent_at': -1, '_id': -1}"),
+        @CompoundIndex(name = "idx_records_channel_type_sent_at_id", def = "{'channel_type': 1, 'sent_at': -1, '_id': -1}")
+})
 public class RecordEntity extends Creatable {
 
     @Field("template_code")
@@ -58,6 +65,18 @@ public class RecordEntity extends Creatable {
     @Field("sent_at")
     private Long sentAt;
 
+    /**
+     * 产生最终结果前切换通道的次数，0 表示首个通道即得到结果
+     */
+    @Field("failover_attempts")
+    private Integer failoverAttempts;
+
+    /**
+     * 写入记录时最终通道的熔断器状态
+     */
+    @Field("circuit_state")
+    private CircuitState circuitState;
+
     /**
      * Absolute time when this document may be removed by MongoDB TTL.
      * {@code expireAfterSeconds = 0} means delete once this instant is in the past.
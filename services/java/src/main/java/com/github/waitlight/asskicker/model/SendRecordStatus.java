@@ -1,6 +1,24 @@
 package com.github.waitlight.asskicker.model;
 
+/**
+ * 发送记录状态，只向前推进：QUEUED → SENDING → SUCCESS / FAILED
+ */
 public enum SendRecordStatus {
+    /** 已受理并投递到消息队列，尚未被消费 */
+    QUEUED,
+    /** 消费端已开始发送 */
+    SENDING,
     SUCCESS,
-    FAILED
+    FAILED;
+
+    public boolean isTerminal() {
+        return this == SUCCESS || this == FAILED;
+    }
+
+    /**
+     * 推进顺序，两个终态并列：合并同一记录的多次变更时取顺序靠后的状态
+     */
+    public int order() {
+        return isTerminal() ? SUCCESS.ordinal() : ordinal();
+    }
 }
@@ -24,4 +24,9 @@ public class TemplateEntity extends Auditable {
          * 是否将模板托管至服务商，由服务商负责渲染与发送
          */
         private boolean providerManaged = false;
+
+        /**
+         * 是否对使用该模板的发送启用对冲请求，适用于验证码等对延迟敏感的消息
+         */
+        private boolean hedged = false;
 }
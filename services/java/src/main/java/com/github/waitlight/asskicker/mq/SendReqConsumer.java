@@ -1,22 +1,63 @@
 package com.github.waitlight.asskicker.mq;
 
 import com.github.waitlight.asskicker.channel.SendReq;
+import com.github.waitlight.asskicker.config.RocketMQConfig.ConsumerProperties;
+import com.github.waitlight.asskicker.config.RocketMQConfig.RocketMQProperties;
 import com.github.waitlight.asskicker.service.Sender;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.consumer.DefaultMQPushConsumer;
+import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyContext;
+import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyStatus;
+import org.apache.rocketmq.client.consumer.listener.MessageListenerConcurrently;
+import org.apache.rocketmq.common.message.MessageExt;
 import org.apache.rocketmq.spring.annotation.RocketMQMessageListener;
 import org.apache.rocketmq.spring.core.RocketMQListener;
+import org.apache.rocketmq.spring.core.RocketMQPushConsumerLifecycleListener;
+import org.apache.rocketmq.spring.support.RocketMQMessageConverter;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 发送请求消费端。
+ * <p>
+ * reactive 模式下接管 PushConsumer 的消息监听：一批消息交给 {@link SendReqDispatcher} 并发发送，
+ * 整批发送结束后才返回确认；失败的消息单独退回 Broker 重试，不影响同批成功的消息。
+ * 某条消息退回失败时以 ackIndex 确认它之前的消息，只有从它开始的消息交由客户端退回或本地重试，不重投整批。
+ * 调度器积压超过阈值时 suspend 拉取，回落后 resume。
+ */
+@Slf4j
 @Component
-@RequiredArgsConstructor
 @RocketMQMessageListener(
         topic = "${ass-kicker.rocketmq.send-reqs-topic}",
         consumerGroup = "ass-kicker-send-req-consumer-group"
 )
-public class SendReqConsumer implements RocketMQListener<SendReq> {
+public class SendReqConsumer implements RocketMQListener<SendReq>, RocketMQPushConsumerLifecycleListener {
 
     private final Sender sender;
+    private final SendReqDispatcher dispatcher;
+    private final RocketMQMessageConverter messageConverter;
+    private final ConsumerProperties properties;
+    private final Timer ackLatency;
+
+    public SendReqConsumer(Sender sender, SendReqDispatcher dispatcher,
+                           RocketMQMessageConverter messageConverter,
+                           RocketMQProperties properties, MeterRegistry meterRegistry) {
+        this.sender = sender;
+        this.dispatcher = dispatcher;
+        this.messageConverter = messageConverter;
+        this.properties = properties.getConsumer();
+        this.ackLatency = Timer.builder("asskicker.mq.consumer.ack-latency")
+                .register(meterRegistry);
+    }
 
     @Override
     public void onMessage(SendReq req) {
@@ -25,4 +66,84 @@ public class SendReqConsumer implements RocketMQListener<SendReq> {
         }
         sender.send(req).block();
     }
+
+    @Override
+    public void prepareStart(DefaultMQPushConsumer consumer) {
+        if (!properties.isReactive()) {
+            return;
+        }
+        consumer.setConsumeMessageBatchMaxSize(properties.getBatchSize());
+        consumer.setMessageListener((MessageListenerConcurrently) (msgs, context) ->
+                consumeBatch(consumer, msgs, context));
+        dispatcher.setPressureListener(new SendReqDispatcher.PressureListener() {
+            @Override
+            public void saturated() {
+                consumer.suspend();
+            }
+
+            @Override
+            public void drained() {
+                consumer.resume();
+            }
+        });
+        log.info("Send request consumer in reactive mode, batchSize={}, maxInFlight={}",
+                properties.getBatchSize(), properties.getMaxInFlight());
+    }
+
+    private ConsumeConcurrentlyStatus consumeBatch(DefaultMQPushConsumer consumer, List<MessageExt> msgs,
+                                                   ConsumeConcurrentlyContext context) {
+        long start = System.nanoTime();
+        List<Integer> failed = Flux.range(0, msgs.size())
+                .flatMap(i -> handle(msgs.get(i)).map(ok -> ok ? -1 : i), Math.max(1, msgs.size()))
+                .filter(i -> i >= 0)
+                .collectList()
+                .block();
+
+        if (failed != null) {
+            failed.sort(null);
+            for (Integer i : failed) {
+                try {
+                    consumer.sendMessageBack(msgs.get(i), context.getDelayLevelWhenNextConsume());
+                } catch (Exception e) {
+                    // ackIndex 只能表达前缀成功：之后的消息由客户端逐条退回，退回失败的在本地稍后重新消费
+                    log.warn("Send message back failed, msgId={}, ack up to index {}", msgs.get(i).getMsgId(),
+                            i - 1, e);
+                    context.setAckIndex(i - 1);
+                    break;
+                }
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        for (int i = 0; i < msgs.size(); i++) {
+            ackLatency.record(elapsed, TimeUnit.NANOSECONDS);
+        }
+        return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
+    }
+
+    private Mono<Boolean> handle(MessageExt msg) {
+        SendReq req;
+        try {
+            req = convert(msg);
+        } catch (Exception e) {
+            log.warn("Drop undecodable send request, msgId={}", msg.getMsgId(), e);
+            return Mono.just(true);
+        }
+        if (req == null || req.getType() == null) {
+            return Mono.just(true);
+        }
+        return dispatcher.dispatch(req)
+                .thenReturn(true)
+                .onErrorResume(e -> {
+                    log.warn("Send failed, recordId={}, reconsumeTimes={}", req.getRecordId(),
+                            msg.getReconsumeTimes(), e);
+                    return Mono.just(false);
+                });
+    }
+
+    private SendReq convert(MessageExt msg) {
+        String payload = new String(msg.getBody(), StandardCharsets.UTF_8);
+        return (SendReq) messageConverter.getMessageConverter()
+                .fromMessage(MessageBuilder.withPayload(payload).build(), SendReq.class);
+    }
 }
@@ -0,0 +1,161 @@
+package com.github.waitlight.asskicker.mq;
+
+import com.github.waitlight.asskicker.channel.SendReq;
+import com.github.waitlight.asskicker.config.RocketMQConfig.ConsumerProperties;
+import com.github.waitlight.asskicker.config.RocketMQConfig.RocketMQProperties;
+import com.github.waitlight.asskicker.model.ChannelType;
+import com.github.waitlight.asskicker.service.Sender;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 消费端发送调度器：每个 ChannelType 一条 Reactor 通道，按配置限制在途发送数，
+ * 排队与在途总数超过阈值时通知 {@link PressureListener} 暂停拉取，回落后恢复。
+ * 入队经 {@link FluxSink} 串行化，多个消费线程同时投递时不会自旋等待。
+ */
+@Slf4j
+@Component
+public class SendReqDispatcher implements DisposableBean {
+
+    private final Sender sender;
+    private final ConsumerProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<ChannelType, Lane> lanes = new EnumMap<>(ChannelType.class);
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicBoolean saturated = new AtomicBoolean(false);
+    private volatile PressureListener pressureListener = PressureListener.NOOP;
+    private volatile boolean closed;
+
+    public SendReqDispatcher(Sender sender, RocketMQProperties properties, MeterRegistry meterRegistry) {
+        this.sender = sender;
+        this.properties = properties.getConsumer();
+        this.meterRegistry = meterRegistry;
+        for (ChannelType type : ChannelType.values()) {
+            lanes.put(type, new Lane(type, this.properties.maxInFlightOf(type)));
+        }
+        meterRegistry.gauge("asskicker.mq.consumer.pending", pending);
+    }
+
+    public void setPressureListener(PressureListener pressureListener) {
+        this.pressureListener = pressureListener != null ? pressureListener : PressureListener.NOOP;
+    }
+
+    /**
+     * 把请求放入对应 ChannelType 的通道，发送结束（成功或失败）时返回的 Mono 完成。
+     */
+    public Mono<Void> dispatch(SendReq req) {
+        Lane lane = lanes.get(req.getType());
+        if (lane == null) {
+            return Mono.error(new IllegalArgumentException("Unsupported channel type: " + req.getType()));
+        }
+        return Mono.create(result -> {
+            if (closed) {
+                result.error(new CancellationException("Send dispatcher disposed"));
+                return;
+            }
+            acquire();
+            lane.sink.next(new Task(req, result, System.nanoTime()));
+        });
+    }
+
+    public int getPending() {
+        return pending.get();
+    }
+
+    @Override
+    public void destroy() {
+        closed = true;
+        lanes.values().forEach(lane -> lane.subscription.dispose());
+    }
+
+    private void acquire() {
+        if (pending.incrementAndGet() >= properties.getSuspendThreshold()
+                && saturated.compareAndSet(false, true)) {
+            log.warn("Send dispatcher saturated, pending={}, suspending consumer", pending.get());
+            pressureListener.saturated();
+        }
+    }
+
+    private void release() {
+        if (pending.decrementAndGet() <= properties.getResumeThreshold()
+                && saturated.compareAndSet(true, false)) {
+            log.info("Send dispatcher drained, pending={}, resuming consumer", pending.get());
+            pressureListener.drained();
+        }
+    }
+
+    /**
+     * 拉取压力回调，由消费端实现为 suspend / resume。
+     */
+    public interface PressureListener {
+
+        PressureListener NOOP = new PressureListener() {
+            @Override
+            public void saturated() {
+            }
+
+            @Override
+            public void drained() {
+            }
+        };
+
+        void saturated();
+
+        void drained();
+    }
+
+    private record Task(SendReq req, MonoSink<Void> result, long enqueuedAt) {
+    }
+
+    private final class Lane {
+
+        private FluxSink<Task> sink;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final Timer queueWait;
+        private final Disposable subscription;
+
+        private Lane(ChannelType type, int maxInFlight) {
+            Tags tags = Tags.of("type", type.name());
+            meterRegistry.gauge("asskicker.mq.consumer.in-flight", tags, inFlight);
+            this.queueWait = Timer.builder("asskicker.mq.consumer.queue-wait")
+                    .tags(tags)
+                    .register(meterRegistry);
+            this.subscription = Flux.<Task>create(s -> this.sink = s, FluxSink.OverflowStrategy.BUFFER)
+                    .flatMap(this::run, maxInFlight)
+                    .subscribe();
+        }
+
+        private Mono<Void> run(Task task) {
+            queueWait.record(System.nanoTime() - task.enqueuedAt(), TimeUnit.NANOSECONDS);
+            inFlight.incrementAndGet();
+            return Mono.defer(() -> sender.send(task.req()))
+                    .then()
+                    .doOnSuccess(v -> task.result().success())
+                    .onErrorResume(e -> {
+                        task.result().error(e);
+                        return Mono.empty();
+                    })
+                    .doOnCancel(() -> task.result().error(new CancellationException("Send dispatcher disposed")))
+                    .doFinally(signal -> {
+                        inFlight.decrementAndGet();
+                        release();
+                    });
+        }
+    }
+}
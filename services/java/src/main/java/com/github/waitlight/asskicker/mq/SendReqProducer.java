@@ -1,32 +1,129 @@
 package com.github.waitlight.asskicker.mq;
 
 import com.github.waitlight.asskicker.channel.SendReq;
+import com.github.waitlight.asskicker.config.RocketMQConfig.ProducerProperties;
 import com.github.waitlight.asskicker.config.RocketMQConfig.RocketMQProperties;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.producer.SendCallback;
+import org.apache.rocketmq.client.producer.SendResult;
 import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.messaging.Message;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 发送请求投递端，基于 RocketMQ 异步发送，回调桥接为 {@link Mono}，不占用调用线程等待 Broker 响应。
+ * <p>
+ * 开启 batchEnabled 后，并发到达的请求先进入内存队列，按 batchMaxSize / batchLinger 合并为一条批量消息投递，
+ * 批量结果再分发回各请求。入队经 {@link FluxSink} 串行化，并发调用方不会自旋等待。
+ */
 @Slf4j
 @Component
-public class SendReqProducer {
+public class SendReqProducer implements DisposableBean {
 
     private final RocketMQTemplate template;
     private final RocketMQProperties properties;
+    private final Disposable batchSubscription;
+    private FluxSink<Pending> batchSink;
+    private volatile boolean closed;
 
     public SendReqProducer(RocketMQTemplate template, RocketMQProperties properties) {
         this.template = template;
         this.properties = properties;
+        ProducerProperties producer = properties.getProducer();
+        if (producer.isBatchEnabled()) {
+            this.batchSubscription = Flux.<Pending>create(sink -> this.batchSink = sink,
+                            FluxSink.OverflowStrategy.BUFFER)
+                    .bufferTimeout(producer.getBatchMaxSize(), producer.getBatchLinger(), true)
+                    .flatMap(this::sendBatch, producer.getMaxInFlightBatches())
+                    .subscribe();
+        } else {
+            this.batchSubscription = null;
+        }
     }
 
     public Mono<String> publish(SendReq req) {
-        return Mono.fromCallable(() -> {
-            template.syncSend(
-                    properties.getSendReqsTopic(),
-                    MessageBuilder.withPayload(req).build()
-            );
-            return req.getRecordId();
-        }).onErrorResume(Mono::error);
+        if (batchSink != null) {
+            return Mono.create(sink -> {
+                if (closed) {
+                    sink.error(new IllegalStateException("send request producer is closed"));
+                    return;
+                }
+                batchSink.next(new Pending(req, sink));
+            });
+        }
+        return Mono.create(sink -> template.asyncSend(
+                properties.getSendReqsTopic(),
+                MessageBuilder.withPayload(req).build(),
+                new SendCallback() {
+                    @Override
+                    public void onSuccess(SendResult sendResult) {
+                        sink.success(req.getRecordId());
+                    }
+
+                    @Override
+                    public void onException(Throwable e) {
+                        sink.error(e);
+                    }
+                }));
+    }
+
+    @Override
+    public void destroy() {
+        closed = true;
+        if (batchSubscription != null) {
+            batchSink.complete();
+        }
+    }
+
+    /**
+     * 把一组请求作为一条 RocketMQ 批量消息投递，Broker 确认后完成；调用方负责控制单批大小。
+     */
+    public Mono<Void> publishBatch(List<SendReq> reqs) {
+        if (reqs.isEmpty()) {
+            return Mono.empty();
+        }
+        List<Message<SendReq>> messages = new ArrayList<>(reqs.size());
+        for (SendReq req : reqs) {
+            messages.add(MessageBuilder.withPayload(req).build());
+        }
+        return Mono.create(sink -> template.asyncSend(properties.getSendReqsTopic(), messages,
+                new SendCallback() {
+                    @Override
+                    public void onSuccess(SendResult sendResult) {
+                        sink.success();
+                    }
+
+                    @Override
+                    public void onException(Throwable e) {
+                        sink.error(e);
+                    }
+                }));
+    }
+
+    private Mono<Void> sendBatch(List<Pending> batch) {
+        List<SendReq> reqs = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            reqs.add(pending.req());
+        }
+        return publishBatch(reqs)
+                .doOnSuccess(v -> batch.forEach(p -> p.sink().success(p.req().getRecordId())))
+                .onErrorResume(e -> {
+                    log.warn("Send request batch publish failed, size={}", batch.size(), e);
+                    batch.forEach(p -> p.sink().error(e));
+                    return Mono.empty();
+                });
+    }
+
+    private record Pending(SendReq req, MonoSink<String> sink) {
     }
 }
@@ -0,0 +1,43 @@
+package com.github.waitlight.asskicker.repository;
+
+import com.github.waitlight.asskicker.model.ChannelQuotaLeaseEntity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+
+@Repository
+@RequiredArgsConstructor
+public class ChannelQuotaLeaseRepository {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    /**
+     * 创建或续期当前节点在该通道上的租约
+     */
+    public Mono<Void> renew(String channelId, String nodeId, Date expiresAt) {
+        Query query = new Query(Criteria.where("_id").is(channelId + ":" + nodeId));
+        Update update = new Update()
+                .set("channel_id", channelId)
+                .set("node_id", nodeId)
+                .set("expires_at", expiresAt);
+        return mongoTemplate.upsert(query, update, ChannelQuotaLeaseEntity.class).then();
+    }
+
+    public Mono<Long> countActive(String channelId, Date now) {
+        Query query = new Query();
+        query.addCriteria(Criteria.where("channel_id").is(channelId));
+        query.addCriteria(Criteria.where("expires_at").gt(now));
+        return mongoTemplate.count(query, ChannelQuotaLeaseEntity.class);
+    }
+
+    public Mono<Void> releaseAll(String nodeId) {
+        Query query = new Query(Criteria.where("node_id").is(nodeId));
+        return mongoTemplate.remove(query, ChannelQuotaLeaseEntity.class).then();
+    }
+}
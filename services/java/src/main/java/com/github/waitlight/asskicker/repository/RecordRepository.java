@@ -1,7 +1,21 @@
 package com.github.waitlight.asskicker.repository;
 
 import com.github.waitlight.asskicker.model.RecordEntity;
+import com.github.waitlight.asskicker.model.SendRecordStatus;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
 import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
@@ -10,23 +24,131 @@ import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Repository
 @RequiredArgsConstructor
 public class RecordRepository {
 
+    private static final String ID = "_id";
+    private static final String STATUS = "status";
+    private static final Set<String> INSERT_ONLY_FIELDS = Set.of("created_at", "creator", "submitted_at");
+
     private final ReactiveMongoTemplate mongoTemplate;
 
     public Mono<RecordEntity> save(RecordEntity entity) {
         return mongoTemplate.save(entity);
     }
 
-    public Mono<Void> saveAll(List<RecordEntity> entities) {
-        if (entities == null || entities.isEmpty()) {
-            return Mono.empty();
+    /**
+     * 按记录状态以一次无序 bulkWrite 批量写入，同一 ID 的多次写入先在内存中合并为一条：
+     * <ul>
+     *   <li>QUEUED：insertOne；</li>
+     *   <li>SENDING：仅当现有状态未到终态时 $set status，其余字段 $setOnInsert；</li>
+     *   <li>SUCCESS / FAILED：upsert $set 全部字段，created_at、submitted_at 仅在插入时写入。</li>
+     * </ul>
+     * 写入乱序或重试导致的重复键（QUEUED 晚于后续状态到达、SENDING 晚于终态到达、批次重放）
+     * 视为已写入计入 duplicates；其余写错误仍以 {@link MongoBulkWriteException} 失败。
+     */
+    public Mono<WriteResult> writeAll(List<Document> documents, WriteConcern writeConcern) {
+        if (documents.isEmpty()) {
+            return Mono.just(new WriteResult(0, 0, 0));
+        }
+        Collection<Document> merged = coalesce(documents);
+        List<WriteModel<Document>> models = new ArrayList<>(merged.size());
+        for (Document document : merged) {
+            models.add(toWriteModel(document));
+        }
+        int coalesced = documents.size() - models.size();
+        BulkWriteOptions options = new BulkWriteOptions().ordered(false);
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(RecordEntity.class))
+                .flatMap(collection -> Mono.from(collection.withWriteConcern(writeConcern)
+                        .bulkWrite(models, options)))
+                .map(result -> new WriteResult(models.size(), 0, coalesced))
+                .onErrorResume(MongoBulkWriteException.class, e -> onlyDuplicates(e)
+                        ? Mono.just(new WriteResult(models.size() - e.getWriteErrors().size(),
+                                e.getWriteErrors().size(), coalesced))
+                        : Mono.error(e));
+    }
+
+    /**
+     * 按实体映射把记录转换为待写入的文档。直接写集合而不经 bulkOps，以便按调用指定写关注；
+     * 因此不触发 BeforeConvert 回调，createdAt 在此补齐。
+     */
+    public List<Document> toDocuments(List<RecordEntity> entities) {
+        long now = Instant.now().toEpochMilli();
+        List<Document> documents = new ArrayList<>(entities.size());
+        for (RecordEntity entity : entities) {
+            if (entity.getCreatedAt() == null) {
+                entity.setCreatedAt(now);
+            }
+            Document document = new Document();
+            mongoTemplate.getConverter().write(entity, document);
+            documents.add(document);
+        }
+        return documents;
+    }
+
+    /**
+     * 同一 ID 的文档按到达顺序合并，后到的非空字段覆盖先到的；状态按 QUEUED < SENDING < 终态 取靠后者，
+     * 晚到的 QUEUED / SENDING 不会让记录回退
+     */
+    private static Collection<Document> coalesce(List<Document> documents) {
+        Map<Object, Document> merged = new LinkedHashMap<>(documents.size() * 2);
+        for (Document document : documents) {
+            Document previous = merged.get(document.get(ID));
+            if (previous == null) {
+                merged.put(document.get(ID), document);
+                continue;
+            }
+            Document combined = new Document(previous);
+            combined.putAll(document);
+            if (statusOf(previous).order() > statusOf(document).order()) {
+                combined.put(STATUS, previous.get(STATUS));
+            }
+            merged.put(document.get(ID), combined);
         }
-        return Flux.fromIterable(entities).concatMap(mongoTemplate::save).then();
+        return merged.values();
+    }
+
+    private static WriteModel<Document> toWriteModel(Document document) {
+        SendRecordStatus status = statusOf(document);
+        if (status == SendRecordStatus.QUEUED) {
+            return new InsertOneModel<>(document);
+        }
+        Object id = document.get(ID);
+        Document set = new Document();
+        Document setOnInsert = new Document();
+        for (Map.Entry<String, Object> field : document.entrySet()) {
+            String name = field.getKey();
+            if (ID.equals(name)) {
+                continue;
+            }
+            boolean insertOnly = status == SendRecordStatus.SENDING
+                    ? !STATUS.equals(name)
+                    : INSERT_ONLY_FIELDS.contains(name);
+            (insertOnly ? setOnInsert : set).put(name, field.getValue());
+        }
+        Document update = new Document("$set", set);
+        if (!setOnInsert.isEmpty()) {
+            update.append("$setOnInsert", setOnInsert);
+        }
+        Bson filter = status == SendRecordStatus.SENDING
+                ? Filters.and(Filters.eq(ID, id), Filters.in(STATUS,
+                        SendRecordStatus.QUEUED.name(), SendRecordStatus.SENDING.name()))
+                : Filters.eq(ID, id);
+        return new UpdateOneModel<>(filter, update, new UpdateOptions().upsert(true));
+    }
+
+    private static SendRecordStatus statusOf(Document document) {
+        String status = document.getString(STATUS);
+        return status != null ? SendRecordStatus.valueOf(status) : SendRecordStatus.SUCCESS;
     }
 
     public Mono<RecordEntity> findById(String id) {
@@ -42,10 +164,56 @@ public class RecordRepository {
         return mongoTemplate.find(query, RecordEntity.class);
     }
 
+    /**
+     * 按 (sent_at, _id) 倒序取 afterSentAt/afterId 之后的 limit 条，命中 idx_records_*_sent_at_id 复合索引，
+     * 翻页代价与页深无关。尚未发送（sent_at 为空）的记录排在最后，游标进入该区段后只按 _id 继续。
+     */
+    public Flux<RecordEntity> findAfter(int limit, Long afterSentAt, String afterId,
+                                        String recipient, String channelType) {
+        Query query = buildListQuery(recipient, channelType);
+        if (afterId != null) {
+            Object id = ObjectId.isValid(afterId) ? new ObjectId(afterId) : afterId;
+            if (afterSentAt == null) {
+                query.addCriteria(Criteria.where("sent_at").is(null).and("_id").lt(id));
+            } else {
+                query.addCriteria(new Criteria().orOperator(
+                        Criteria.where("sent_at").lt(afterSentAt),
+                        Criteria.where("sent_at").is(afterSentAt).and("_id").lt(id),
+                        Criteria.where("sent_at").is(null)));
+            }
+        }
+        query.with(Sort.by(Sort.Direction.DESC, "sentAt", "id"));
+        query.limit(limit);
+        return mongoTemplate.find(query, RecordEntity.class);
+    }
+
     public Mono<Long> countAll(String recipient, String channelType) {
         return mongoTemplate.count(buildListQuery(recipient, channelType), RecordEntity.class);
     }
 
+    /**
+     * 集合元数据中的文档总数，不扫描索引，可能略有偏差
+     */
+    public Mono<Long> estimatedCount() {
+        return mongoTemplate.estimatedCount(RecordEntity.class);
+    }
+
+    /**
+     * 向 Mongo 发送 ping，用于确认连接已恢复
+     */
+    public Mono<Void> ping() {
+        return mongoTemplate.executeCommand("{ ping: 1 }").then();
+    }
+
+    private static boolean onlyDuplicates(MongoBulkWriteException e) {
+        for (BulkWriteError error : e.getWriteErrors()) {
+            if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                return false;
+            }
+        }
+        return e.getWriteConcernError() == null;
+    }
+
     private Query buildListQuery(String recipient, String channelType) {
         Query query = new Query();
         if (recipient != null && !recipient.isBlank()) {
@@ -57,4 +225,11 @@ public class RecordRepository {
         }
         return query;
     }
+
+    /**
+     * 批量写入结果：written 为生效的写操作数，duplicates 为重复键被跳过的写操作数，
+     * coalesced 为同批内合并掉的写入数
+     */
+    public record WriteResult(int written, int duplicates, int coalesced) {
+    }
 }
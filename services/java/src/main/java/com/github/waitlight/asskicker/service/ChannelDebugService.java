@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.waitlight.asskicker.channel.AbstractChannel;
 import com.github.waitlight.asskicker.channel.Channel;
 import com.github.waitlight.asskicker.channel.ChannelFactory;
+import com.github.waitlight.asskicker.channel.ChannelManager;
 import com.github.waitlight.asskicker.channel.SendReq;
 import com.github.waitlight.asskicker.config.ChannelObjectMapperConfig;
 import com.github.waitlight.asskicker.dto.channel.ChannelDebugResultVO;
@@ -25,6 +26,7 @@ public class ChannelDebugService {
 
     private final ChannelService channelService;
     private final ChannelFactory channelFactory;
+    private final ChannelManager channelManager;
     @Qualifier(ChannelObjectMapperConfig.BEAN_NAME)
     private final ObjectMapper channelObjectMapper;
 
@@ -41,8 +43,16 @@ public class ChannelDebugService {
                 });
     }
 
+    /**
+     * 通道已加载时经在线实例发送，共用其限流器、熔断器与执行器；未加载时创建临时实例，用完即释放
+     */
     private Mono<ChannelDebugResultVO> executeSend(ChannelEntity entity, Map<String, Object> requestPayload) {
-        AbstractChannel<?> channel = channelFactory.create(entity);
+        AbstractChannel<?> managed = channelManager.getChannel(entity.getId());
+        if (managed != null) {
+            return sendWithChannel(managed, requestPayload)
+                    .map(ChannelDebugResultVO::success);
+        }
+        AbstractChannel<?> channel = channelFactory.createDetached(entity);
         if (channel == null) {
             return Mono.just(ChannelDebugResultVO.error(
                     "Failed to create channel instance for type=" + entity.getType()
@@ -71,7 +81,7 @@ public class ChannelDebugService {
 
     private void dispose(AbstractChannel<?> channel) {
         try {
-            channel.dispose();
+            channel.close();
             log.debug("Channel instance disposed for code={}", channel.getCode());
         } catch (Exception e) {
             log.warn("Failed to dispose channel instance", e);
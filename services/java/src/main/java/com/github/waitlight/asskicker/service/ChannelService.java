@@ -140,6 +140,12 @@ public class ChannelService {
         if (patch.isEnabled() != target.isEnabled()) {
             target.setEnabled(patch.isEnabled());
         }
+        if (patch.getWeight() != null) {
+            target.setWeight(patch.getWeight());
+        }
+        if (patch.getRateLimit() != null) {
+            target.setRateLimit(patch.getRateLimit());
+        }
         if (patch.getProperties() != null) {
             target.setProperties(patch.getProperties());
         }
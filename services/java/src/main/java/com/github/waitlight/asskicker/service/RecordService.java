@@ -1,51 +1,124 @@
 package com.github.waitlight.asskicker.service;
 
 import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.waitlight.asskicker.channel.SendReq;
 import com.github.waitlight.asskicker.config.CaffeineCacheConfig;
+import com.github.waitlight.asskicker.config.SendRecordConfig.SendRecordProperties;
+import com.github.waitlight.asskicker.config.SendRecordConfig.Spill;
 import com.github.waitlight.asskicker.converter.RecordConverter;
+import com.github.waitlight.asskicker.dto.CursorPageResp;
 import com.github.waitlight.asskicker.dto.PageResp;
 import com.github.waitlight.asskicker.dto.record.RecordVO;
+import com.github.waitlight.asskicker.exception.BadRequestException;
 import com.github.waitlight.asskicker.model.RecordEntity;
+import com.github.waitlight.asskicker.model.SendRecordStatus;
 import com.github.waitlight.asskicker.repository.RecordRepository;
+import com.mongodb.WriteConcern;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.bson.types.ObjectId;
 import org.springframework.beans.factory.DisposableBean;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 发送记录的读写入口，内置缓冲批量写入与按 ID 缓存查询。
+ * <p>
+ * 记录经 {@link RecordWritePipeline} 无锁入队、按批以一次无序 bulkWrite 落库，写关注由 send-record.write-concern 配置；
+ * 落库耗时与每批条数分别记录到 asskicker.record.flush 与 asskicker.record.flush.docs。
+ * 记录随发送推进经历 QUEUED、SENDING、终态：非终态先在 {@link RecordTransitionBuffer} 中按 ID 保留
+ * send-record.transition-linger-ms，期间到达的后续状态与之合并，同一批次内的多次变更同样合并为一次写入。
+ * 开启 send-record.spill 时，重试用尽或队列已满的记录溢写到 {@link RecordSpillLog}，
+ * 任一批次落库成功后回放溢写段；启动时与定时任务先 ping Mongo，连通后才回放。Mongo 不可用期间不封存写入段，
+ * 写入段继续写满，避免每个周期新建段并反复读取首段。
  */
 @Service
 @Slf4j
 public class RecordService implements DisposableBean {
 
+    private static final int MAX_SCROLL_SIZE = 200;
+
     private final RecordRepository recordRepository;
     private final CaffeineCacheConfig caffeineCacheConfig;
     private final RecordConverter recordConverter;
-    private final List<RecordEntity> buffer = Collections.synchronizedList(new ArrayList<>());
-    @Value("${send-record.buffer-size:100}")
-    private int bufferSize;
-    @Value("${send-record.flush-interval-ms:5000}")
-    private long flushIntervalMs;
+    private final RecordWritePipeline pipeline;
+    private final RecordTransitionBuffer transitions;
+    private final WriteConcern writeConcern;
+    private final Timer flushSuccessTimer;
+    private final Timer flushFailureTimer;
+    private final DistributionSummary flushDocs;
+    private final Counter duplicateCounter;
+    private final Counter coalescedCounter;
+    private final RecordSpillLog spillLog;
+    private final int replayBatchSize;
+    private final AtomicBoolean replaying = new AtomicBoolean();
+    private final Counter spilledCounter;
+    private final Counter replayedCounter;
     private AsyncLoadingCache<String, Optional<RecordVO>> recordByIdCache;
+    private AsyncLoadingCache<CountKey, Long> countCache;
 
     public RecordService(RecordRepository recordRepository,
                          CaffeineCacheConfig caffeineCacheConfig,
-                         RecordConverter recordConverter) {
+                         RecordConverter recordConverter,
+                         SendRecordProperties properties,
+                         MeterRegistry meterRegistry) {
         this.recordRepository = recordRepository;
         this.caffeineCacheConfig = caffeineCacheConfig;
         this.recordConverter = recordConverter;
+        this.writeConcern = properties.resolveWriteConcern();
+        this.flushSuccessTimer = flushTimer(meterRegistry, "success");
+        this.flushFailureTimer = flushTimer(meterRegistry, "failure");
+        this.flushDocs = DistributionSummary.builder("asskicker.record.flush.docs")
+                .description("每次批量落库的记录条数")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.duplicateCounter = Counter.builder("asskicker.record.flush.duplicates")
+                .description("批量落库时因已存在而跳过的记录数")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("asskicker.record.flush.coalesced")
+                .description("同一记录的多次状态变更（保留窗口内或同一批次内）合并后省下的写入数")
+                .register(meterRegistry);
+        this.spillLog = properties.getSpill().isEnabled() ? openSpillLog(properties.getSpill()) : null;
+        this.replayBatchSize = properties.getBufferSize();
+        this.spilledCounter = Counter.builder("asskicker.record.spill.written")
+                .description("溢写到本地日志的发送记录数")
+                .register(meterRegistry);
+        this.replayedCounter = Counter.builder("asskicker.record.spill.replayed")
+                .description("从本地日志回放落库的发送记录数")
+                .register(meterRegistry);
+        if (spillLog != null) {
+            Gauge.builder("asskicker.record.spill.segments", spillLog, RecordSpillLog::getSegmentCount)
+                    .description("本地溢写日志的段文件数")
+                    .register(meterRegistry);
+        }
+        this.pipeline = new RecordWritePipeline(this::flush, spillLog != null ? this::spill : null, properties,
+                meterRegistry);
+        this.transitions = new RecordTransitionBuffer(properties.getTransitionLingerMs(),
+                properties.getQueueCapacity(), pipeline::offer, coalescedCounter);
+        Gauge.builder("asskicker.record.transitions.held", transitions, RecordTransitionBuffer::size)
+                .description("在内存中等待后续状态合并的 QUEUED / SENDING 记录数")
+                .register(meterRegistry);
     }
 
     @PostConstruct
@@ -55,10 +128,19 @@ public class RecordService implements DisposableBean {
                         .map(r -> Optional.of(recordConverter.toVO(r)))
                         .defaultIfEmpty(Optional.empty())
                         .toFuture());
+        countCache = caffeineCacheConfig.buildCache((key, executor) -> {
+            String recipient = key.recipient();
+            String channelType = key.channelType();
+            Mono<Long> count = recipient == null && channelType == null
+                    ? recordRepository.estimatedCount()
+                    : recordRepository.countAll(recipient, channelType);
+            return count.toFuture();
+        });
+        replaySpillIfReachable();
     }
 
     /**
-     * 分页查询发送记录，支持按收件人和渠道类型过滤。
+     * 分页查询发送记录，支持按收件人和渠道类型过滤。total 为近似值；深分页请使用 {@link #scroll}。
      */
     public Mono<PageResp<RecordVO>> page(int page, int size, String recipient, String channelType) {
         int normalizedPage = page <= 0 ? 1 : page;
@@ -67,7 +149,7 @@ public class RecordService implements DisposableBean {
         String recipientFilter = (recipient != null && !recipient.isBlank()) ? recipient.trim() : null;
         String channelTypeFilter = (channelType != null && !channelType.isBlank()) ? channelType.trim() : null;
 
-        Mono<Long> totalMono = recordRepository.countAll(recipientFilter, channelTypeFilter);
+        Mono<Long> totalMono = approximateCount(recipientFilter, channelTypeFilter);
         Mono<List<RecordVO>> itemsMono = recordRepository.findPage(normalizedSize, offset, recipientFilter, channelTypeFilter)
                 .map(recordConverter::toVO)
                 .collectList();
@@ -77,17 +159,60 @@ public class RecordService implements DisposableBean {
     }
 
     /**
-     * 按 ID 查询单条发送记录，命中缓存时直接返回。
+     * 按 (sent_at, _id) 倒序的游标分页，cursor 为上一页返回的 nextCursor，首页传空。
+     * withTotal 为 true 时附带近似总数：无过滤条件取集合元数据计数，有过滤条件时计数结果按条件缓存。
+     */
+    public Mono<CursorPageResp<RecordVO>> scroll(int size, String cursor, String recipient, String channelType,
+                                                 boolean withTotal) {
+        int normalizedSize = size <= 0 ? 10 : Math.min(size, MAX_SCROLL_SIZE);
+        String recipientFilter = (recipient != null && !recipient.isBlank()) ? recipient.trim() : null;
+        String channelTypeFilter = (channelType != null && !channelType.isBlank()) ? channelType.trim() : null;
+        RecordCursor after;
+        try {
+            after = RecordCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(new BadRequestException("record.cursor.invalid"));
+        }
+
+        Mono<List<RecordEntity>> itemsMono = recordRepository.findAfter(normalizedSize + 1,
+                        after != null ? after.sentAt() : null, after != null ? after.id() : null,
+                        recipientFilter, channelTypeFilter)
+                .collectList();
+        Mono<Optional<Long>> totalMono = withTotal
+                ? approximateCount(recipientFilter, channelTypeFilter).map(Optional::of)
+                : Mono.just(Optional.empty());
+
+        return Mono.zip(itemsMono, totalMono).map(tuple -> {
+            List<RecordEntity> items = tuple.getT1();
+            String nextCursor = null;
+            if (items.size() > normalizedSize) {
+                items = items.subList(0, normalizedSize);
+                RecordEntity last = items.get(normalizedSize - 1);
+                nextCursor = new RecordCursor(last.getSentAt(), last.getId()).encode();
+            }
+            return CursorPageResp.success(normalizedSize, items.stream().map(recordConverter::toVO).toList(),
+                    nextCursor, tuple.getT2().orElse(null));
+        });
+    }
+
+    /**
+     * 按 ID 查询单条发送记录，命中缓存时直接返回。状态仍会变化的记录与不存在的结果不留在缓存中。
      */
     public Mono<RecordVO> getById(String id) {
         return Mono.fromFuture(recordByIdCache.get(id))
+                .doOnNext(opt -> {
+                    if (opt.map(vo -> vo.status() == null || !vo.status().isTerminal()).orElse(true)) {
+                        recordByIdCache.synchronous().invalidate(id);
+                    }
+                })
                 .flatMap(opt -> opt
                         .map(Mono::just)
                         .orElseGet(() -> Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "发送记录不存在"))));
     }
 
     /**
-     * 写入一条发送记录，预生成 MongoDB ID 并在缓冲满时异步批量落库。
+     * 写入一条发送记录，预生成 MongoDB ID 并交给写入管道异步批量落库，同一 ID 仍在保留的 QUEUED / SENDING 一并合并；
+     * 管道已满且未开启溢写时记录被丢弃，ID 仍返回。
      *
      * @return 预生成的记录 ID
      */
@@ -96,53 +221,198 @@ public class RecordService implements DisposableBean {
                 ? record.getId()
                 : ObjectId.get().toString();
         record.setId(id);
-
-        List<RecordEntity> toFlush = null;
-        synchronized (buffer) {
-            buffer.add(record);
-            if (buffer.size() >= bufferSize) {
-                toFlush = new ArrayList<>(buffer);
-                buffer.clear();
-            }
-        }
-        if (toFlush != null && !toFlush.isEmpty()) {
-            flushAsync(toFlush);
-        }
+        pipeline.offer(transitions.absorb(record));
         return id;
     }
 
+    /**
+     * 请求投递到消息队列后写入 QUEUED 记录，记录 ID 即请求的 recordId
+     */
+    public void createQueued(SendReq req) {
+        RecordEntity record = fromReq(req, SendRecordStatus.QUEUED);
+        record.setSubmittedAt(System.currentTimeMillis());
+        transitions.hold(record);
+    }
+
+    /**
+     * 消费端开始发送时把记录推进到 SENDING；记录已到终态时不生效
+     */
+    public void markSending(SendReq req) {
+        transitions.hold(fromReq(req, SendRecordStatus.SENDING));
+    }
+
+    /**
+     * 保留超过 transition-linger-ms 仍未推进的 QUEUED / SENDING 交给写入管道
+     */
+    @Scheduled(fixedDelayString = "${send-record.transition-linger-ms:1000}")
+    public void releaseTransitions() {
+        transitions.releaseExpired();
+    }
+
     @Scheduled(fixedDelayString = "${send-record.flush-interval-ms:5000}")
     public void flushScheduled() {
-        List<RecordEntity> toFlush = null;
-        synchronized (buffer) {
-            if (buffer.isEmpty()) {
-                return;
+        pipeline.flush();
+        replaySpillIfReachable();
+    }
+
+    @Override
+    public void destroy() {
+        transitions.releaseAll();
+        pipeline.close();
+        if (spillLog != null) {
+            try {
+                spillLog.close();
+            } catch (IOException e) {
+                log.error("SEND_RECORD_SPILL close failed error={}", e.getMessage());
             }
-            toFlush = new ArrayList<>(buffer);
-            buffer.clear();
         }
-        if (toFlush != null && !toFlush.isEmpty()) {
-            flushAsync(toFlush);
+    }
+
+    private Mono<Void> flush(List<RecordEntity> batch) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return recordRepository.writeAll(recordRepository.toDocuments(batch), writeConcern)
+                    .doOnNext(result -> {
+                        flushSuccessTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        flushDocs.record(batch.size());
+                        if (result.duplicates() > 0) {
+                            duplicateCounter.increment(result.duplicates());
+                        }
+                        if (result.coalesced() > 0) {
+                            coalescedCounter.increment(result.coalesced());
+                        }
+                    })
+                    .doOnError(e -> flushFailureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS))
+                    .doOnSuccess(result -> replaySpill())
+                    .then();
+        });
+    }
+
+    private Mono<Long> approximateCount(String recipient, String channelType) {
+        return Mono.fromFuture(countCache.get(new CountKey(recipient, channelType)));
+    }
+
+    private static RecordEntity fromReq(SendReq req, SendRecordStatus status) {
+        RecordEntity record = new RecordEntity();
+        record.setId(req.getRecordId());
+        record.setTemplateCode(req.getTemplateCode());
+        record.setLanguageCode(req.getLanguage() != null ? req.getLanguage().getCode() : null);
+        if (req.getTemplateParams() != null) {
+            record.setParams(new HashMap<>(req.getTemplateParams()));
+        }
+        record.setChannelType(req.getType());
+        record.setRecipient(req.recipient());
+        record.setDirectSend(req.isDirectSend());
+        record.setStatus(status);
+        return record;
+    }
+
+    /**
+     * 写入管道的兜底：把记录追加到本地溢写日志，未开启或写盘失败时返回 false
+     */
+    private boolean spill(List<RecordEntity> records) {
+        if (spillLog == null) {
+            return false;
+        }
+        try {
+            spilledCounter.increment(spillLog.append(recordRepository.toDocuments(records)));
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.error("SEND_RECORD_SPILL_FAILED size={} error={}", records.size(), e.getMessage());
+            return false;
         }
     }
 
-    @Override
-    public void destroy() {
-        List<RecordEntity> toFlush;
-        synchronized (buffer) {
-            toFlush = new ArrayList<>(buffer);
-            buffer.clear();
+    /**
+     * 刚有批次落库成功，Mongo 可用，直接回放
+     */
+    private void replaySpill() {
+        if (spillLog == null || !spillLog.hasPending() || !replaying.compareAndSet(false, true)) {
+            return;
+        }
+        replay(Mono.empty());
+    }
+
+    /**
+     * 没有落库成功可作依据时先 ping，失败则本轮不封存也不回放
+     */
+    private void replaySpillIfReachable() {
+        if (spillLog == null || !spillLog.hasPending() || !replaying.compareAndSet(false, true)) {
+            return;
+        }
+        replay(recordRepository.ping());
+    }
+
+    /**
+     * 确认 Mongo 可用后封存写入段，按段顺序把溢写记录分批落库，整段成功后删除段文件；遇到写入失败即停止，留待下次触发。
+     * 重复键按已写入处理，因此段回放中断后重放是安全的。
+     */
+    private void replay(Mono<Void> reachable) {
+        reachable.publishOn(Schedulers.boundedElastic())
+                .thenMany(Flux.defer(() -> Flux.fromIterable(sealSpill())))
+                .concatMap(segment -> Mono.fromCallable(() -> RecordSpillLog.read(segment))
+                        .flatMapMany(documents -> Flux.fromIterable(documents).buffer(replayBatchSize))
+                        .concatMap(batch -> recordRepository.writeAll(batch, writeConcern)
+                                .doOnNext(result -> replayedCounter.increment(batch.size())))
+                        .then(Mono.fromCallable(() -> {
+                            spillLog.delete(segment);
+                            return segment;
+                        })))
+                .subscribeOn(Schedulers.boundedElastic())
+                .doFinally(signal -> replaying.set(false))
+                .subscribe(segment -> log.info("SEND_RECORD_SPILL replayed {}", segment.getFileName()),
+                        e -> log.warn("SEND_RECORD_SPILL_REPLAY_FAILED error={}", e.getMessage()));
+    }
+
+    private List<Path> sealSpill() {
+        try {
+            return spillLog.seal();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        if (toFlush != null && !toFlush.isEmpty()) {
-            recordRepository.saveAll(toFlush)
-                    .doOnError(e -> log.error("SEND_RECORD_BATCH_SAVE_FAILED on shutdown size={} error={}", toFlush.size(), e.getMessage()))
-                    .block();
+    }
+
+    private static RecordSpillLog openSpillLog(Spill spill) {
+        try {
+            return new RecordSpillLog(Path.of(spill.getDirectory()), spill.getSegmentSize(), spill.isSync());
+        } catch (IOException e) {
+            throw new IllegalStateException("send record spill init failed: " + e.getMessage(), e);
         }
     }
 
-    private void flushAsync(List<RecordEntity> batch) {
-        recordRepository.saveAll(batch)
-                .doOnError(e -> log.error("SEND_RECORD_BATCH_SAVE_FAILED size={} error={}", batch.size(), e.getMessage()))
-                .subscribe();
+    private static Timer flushTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("asskicker.record.flush")
+                .description("发送记录批量落库耗时")
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    private record CountKey(String recipient, String channelType) {
+    }
+
+    /**
+     * 游标内容为最后一条记录的 sent_at 与 _id，对外编码为 base64url 的不透明字符串
+     */
+    record RecordCursor(Long sentAt, String id) {
+
+        private static final String VERSION = "v1";
+
+        String encode() {
+            String raw = VERSION + "|" + (sentAt != null ? sentAt : "") + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static RecordCursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            String raw = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3 || !VERSION.equals(parts[0]) || parts[2].isEmpty()) {
+                throw new IllegalArgumentException("malformed cursor");
+            }
+            return new RecordCursor(parts[1].isEmpty() ? null : Long.valueOf(parts[1]), parts[2]);
+        }
     }
 }
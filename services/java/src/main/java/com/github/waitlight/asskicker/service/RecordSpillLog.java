@@ -0,0 +1,199 @@
+package com.github.waitlight.asskicker.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 发送记录的本地溢写日志：Mongo 不可用或写入管道已满时，记录文档以 BSON 追加到内存映射的分段文件，
+ * 连接恢复或重启后按段批量回放并删除。
+ * <p>
+ * 每帧为 [int 长度][int CRC32C][BSON]，段文件按 segmentSize 预分配，未写区域为 0，长度 0 即段尾；
+ * 校验失败或被截断的帧视为崩溃时未写完，回放到此为止。写入段写满或被 {@link #seal()} 后封存，只有封存段参与回放。
+ */
+@Slf4j
+final class RecordSpillLog implements Closeable {
+
+    private static final String PREFIX = "records-";
+    private static final String SUFFIX = ".seg";
+    private static final int HEADER_BYTES = 8;
+    private static final DocumentCodec CODEC = new DocumentCodec();
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean sync;
+    /** 已封存待回放的段，按序号排列 */
+    private final TreeMap<Long, Path> sealed = new TreeMap<>();
+    private long nextSequence;
+    private Path activePath;
+    private FileChannel activeChannel;
+    private MappedByteBuffer active;
+
+    RecordSpillLog(Path directory, int segmentSize, boolean sync) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.sync = sync;
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                long sequence = sequenceOf(file);
+                if (sequence >= 0) {
+                    sealed.put(sequence, file);
+                }
+            });
+        }
+        this.nextSequence = sealed.isEmpty() ? 0 : sealed.lastKey() + 1;
+        if (!sealed.isEmpty()) {
+            log.info("SEND_RECORD_SPILL found {} segment(s) to replay in {}", sealed.size(), directory);
+        }
+    }
+
+    /**
+     * 追加一批记录文档，返回写入条数；单条超过段大小时抛出 {@link IOException}
+     */
+    synchronized int append(List<Document> documents) throws IOException {
+        for (Document document : documents) {
+            ByteBuffer bson = new RawBsonDocument(document, CODEC).getByteBuffer().asNIO();
+            int length = bson.remaining();
+            if (HEADER_BYTES + length > segmentSize) {
+                throw new IOException("record of " + length + " bytes exceeds spill segment size " + segmentSize);
+            }
+            if (active == null || active.remaining() < HEADER_BYTES + length) {
+                roll();
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(bson.duplicate());
+            active.putInt(length).putInt((int) crc.getValue()).put(bson);
+        }
+        if (sync && active != null) {
+            active.force();
+        }
+        return documents.size();
+    }
+
+    /**
+     * 封存当前写入段，返回全部待回放段
+     */
+    synchronized List<Path> seal() throws IOException {
+        sealActive();
+        return new ArrayList<>(sealed.values());
+    }
+
+    synchronized boolean hasPending() {
+        return !sealed.isEmpty() || (active != null && active.position() > 0);
+    }
+
+    synchronized int getSegmentCount() {
+        return sealed.size() + (active != null ? 1 : 0);
+    }
+
+    /**
+     * 段内记录已全部落库后删除段文件
+     */
+    synchronized void delete(Path segment) throws IOException {
+        sealed.values().remove(segment);
+        Files.deleteIfExists(segment);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        sealActive();
+    }
+
+    /**
+     * 读出段内所有完整的记录文档
+     */
+    static List<Document> read(Path segment) throws IOException {
+        List<Document> documents = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            while (buffer.remaining() >= HEADER_BYTES) {
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if (length <= 0) {
+                    break;
+                }
+                if (length > buffer.remaining()) {
+                    log.warn("SEND_RECORD_SPILL truncated frame in {} at {}", segment, buffer.position() - HEADER_BYTES);
+                    break;
+                }
+                ByteBuffer bson = buffer.slice(buffer.position(), length);
+                buffer.position(buffer.position() + length);
+                CRC32C crc = new CRC32C();
+                crc.update(bson.duplicate());
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("SEND_RECORD_SPILL corrupt frame in {} at {}", segment,
+                            buffer.position() - length - HEADER_BYTES);
+                    break;
+                }
+                byte[] bytes = new byte[length];
+                bson.get(bytes);
+                documents.add(new RawBsonDocument(bytes).decode(CODEC));
+            }
+        }
+        return documents;
+    }
+
+    private void roll() throws IOException {
+        sealActive();
+        long sequence = nextSequence++;
+        Path path = directory.resolve(String.format("%s%020d%s", PREFIX, sequence, SUFFIX));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            active = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            channel.close();
+            Files.deleteIfExists(path);
+            throw e;
+        }
+        activeChannel = channel;
+        activePath = path;
+    }
+
+    private void sealActive() throws IOException {
+        if (active == null) {
+            return;
+        }
+        boolean empty = active.position() == 0;
+        if (!empty) {
+            active.force();
+        }
+        activeChannel.close();
+        if (empty) {
+            Files.deleteIfExists(activePath);
+        } else {
+            sealed.put(sequenceOf(activePath), activePath);
+        }
+        active = null;
+        activeChannel = null;
+        activePath = null;
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
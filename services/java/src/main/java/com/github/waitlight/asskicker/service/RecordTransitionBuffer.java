@@ -0,0 +1,98 @@
+package com.github.waitlight.asskicker.service;
+
+import com.github.waitlight.asskicker.model.RecordEntity;
+import io.micrometer.core.instrument.Counter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 非终态记录（QUEUED / SENDING）的合并窗口：按记录 ID 在内存中保留 linger，期间同一记录后到的状态替换先到的，
+ * 终态到达时由 {@link #absorb} 取走并合并，一次发送通常只落库一次；超过 linger 仍未推进的由 {@link #releaseExpired}
+ * 交给写入管道。保留条数达到 capacity 时新记录不再保留，直接交给写入管道。
+ * <p>
+ * 状态按 {@link com.github.waitlight.asskicker.model.SendRecordStatus#order()} 取靠后者，晚到的变更不会让记录回退；
+ * 跨节点的变更（受理与消费不在同一实例）无法在此合并，由落库时的状态条件保证不回退。
+ */
+final class RecordTransitionBuffer {
+
+    private final long lingerNanos;
+    private final int capacity;
+    private final Consumer<RecordEntity> writer;
+    private final Counter coalesced;
+    private final Map<String, Held> held = new ConcurrentHashMap<>();
+
+    RecordTransitionBuffer(long lingerMs, int capacity, Consumer<RecordEntity> writer, Counter coalesced) {
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.capacity = capacity;
+        this.writer = writer;
+        this.coalesced = coalesced;
+    }
+
+    void hold(RecordEntity record) {
+        if (record.getId() == null || held.size() >= capacity) {
+            writer.accept(record);
+            return;
+        }
+        held.merge(record.getId(), new Held(record, System.nanoTime()), (previous, next) -> {
+            coalesced.increment();
+            return new Held(advance(previous.record(), next.record()), previous.heldAt());
+        });
+    }
+
+    /**
+     * 终态记录到达：取走同一 ID 仍在保留的变更，合并为一条待写入的记录
+     */
+    RecordEntity absorb(RecordEntity record) {
+        Held previous = record.getId() != null ? held.remove(record.getId()) : null;
+        if (previous == null) {
+            return record;
+        }
+        coalesced.increment();
+        return advance(previous.record(), record);
+    }
+
+    void releaseExpired() {
+        release(false);
+    }
+
+    /**
+     * 关闭时交出全部保留的记录
+     */
+    void releaseAll() {
+        release(true);
+    }
+
+    int size() {
+        return held.size();
+    }
+
+    private void release(boolean all) {
+        long now = System.nanoTime();
+        for (Map.Entry<String, Held> entry : held.entrySet()) {
+            Held h = entry.getValue();
+            if ((all || now - h.heldAt() >= lingerNanos) && held.remove(entry.getKey(), h)) {
+                writer.accept(h.record());
+            }
+        }
+    }
+
+    /**
+     * 取状态靠后的一条；只有 QUEUED 带提交时间，合并后保留
+     */
+    private static RecordEntity advance(RecordEntity earlier, RecordEntity later) {
+        boolean laterWins = later.getStatus() == null || earlier.getStatus() == null
+                || later.getStatus().order() >= earlier.getStatus().order();
+        RecordEntity winner = laterWins ? later : earlier;
+        RecordEntity other = laterWins ? earlier : later;
+        if (winner.getSubmittedAt() == null) {
+            winner.setSubmittedAt(other.getSubmittedAt());
+        }
+        return winner;
+    }
+
+    private record Held(RecordEntity record, long heldAt) {
+    }
+}
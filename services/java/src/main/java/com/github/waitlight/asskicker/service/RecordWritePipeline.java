@@ -0,0 +1,313 @@
+package com.github.waitlight.asskicker.service;
+
+import com.github.waitlight.asskicker.config.SendRecordConfig.SendRecordProperties;
+import com.github.waitlight.asskicker.model.RecordEntity;
+import com.mongodb.MongoException;
+import com.mongodb.MongoNodeIsRecoveringException;
+import com.mongodb.MongoNotPrimaryException;
+import com.mongodb.MongoSocketException;
+import com.mongodb.MongoTimeoutException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * 发送记录的写入管道：多生产者无锁入队，攒满 bufferSize 或定时触发时按批交给 writer 落库。
+ * <p>
+ * 同时在途的批次不超过 maxConcurrentFlushes，写入变慢时记录留在队列中；排队加在途的记录数达到
+ * queueCapacity 后新记录交给 fallback（溢写到本地）。暂时性 Mongo 错误按指数退避重试，重试用尽的批次同样交给 fallback。
+ * fallback 只在专用的 record-spill 线程上调用，发送线程与 Mongo 驱动线程只负责入队，不做磁盘 I/O；
+ * 等待溢写的记录同样以 queueCapacity 为上限。未配置 fallback、溢写排队已满或 fallback 未能接收的记录丢弃并计入
+ * asskicker.record.dropped{reason=queue_full|flush_failed}。
+ */
+@Slf4j
+final class RecordWritePipeline {
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 10_000;
+    /** 驱动为可重试写错误附加的标签，4.x 驱动未公开该常量 */
+    private static final String RETRYABLE_WRITE_ERROR_LABEL = "RetryableWriteError";
+
+    private final Function<List<RecordEntity>, Mono<Void>> writer;
+    private final Predicate<List<RecordEntity>> fallback;
+    private final int batchSize;
+    private final int capacity;
+    private final int maxConcurrentFlushes;
+    private final Retry retry;
+    private final Queue<RecordEntity> queue = new ConcurrentLinkedQueue<>();
+    /** 已入队或正在写入、尚未结束的记录数 */
+    private final AtomicInteger pending = new AtomicInteger();
+    /** 已入队、尚未被取走组批的记录数 */
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final BlockingQueue<Overflow> spillQueue = new LinkedBlockingQueue<>();
+    /** 已交给溢写线程、尚未写出的记录数 */
+    private final AtomicInteger spillPending = new AtomicInteger();
+    private final Thread spillThread;
+    private final Counter droppedQueueFull;
+    private final Counter droppedFlushFailed;
+    private final Counter retries;
+    private volatile boolean flushRequested;
+    private volatile boolean closed;
+
+    /**
+     * @param fallback 落库不成功时的兜底写出，为 null 时直接丢弃
+     */
+    RecordWritePipeline(Function<List<RecordEntity>, Mono<Void>> writer, Predicate<List<RecordEntity>> fallback,
+                        SendRecordProperties properties, MeterRegistry meterRegistry) {
+        this.writer = writer;
+        this.fallback = fallback;
+        this.batchSize = properties.getBufferSize();
+        this.capacity = properties.getQueueCapacity();
+        this.maxConcurrentFlushes = properties.getMaxConcurrentFlushes();
+        this.retries = Counter.builder("asskicker.record.flush.retries")
+                .description("发送记录批量落库的重试次数")
+                .register(meterRegistry);
+        this.retry = Retry.backoff(properties.getMaxRetries(), Duration.ofMillis(properties.getRetryBackoffMs()))
+                .filter(RecordWritePipeline::isTransient)
+                .doBeforeRetry(signal -> retries.increment())
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+        this.droppedQueueFull = dropped(meterRegistry, "queue_full");
+        this.droppedFlushFailed = dropped(meterRegistry, "flush_failed");
+        Gauge.builder("asskicker.record.queue.depth", pending, AtomicInteger::get)
+                .description("等待落库的发送记录数(含正在写入的批次)")
+                .register(meterRegistry);
+        Gauge.builder("asskicker.record.flush.in-flight", inFlight, AtomicInteger::get)
+                .description("正在进行的批量落库数")
+                .register(meterRegistry);
+        if (fallback != null) {
+            Gauge.builder("asskicker.record.spill.pending", spillPending, AtomicInteger::get)
+                    .description("等待溢写线程写出的发送记录数")
+                    .register(meterRegistry);
+            this.spillThread = new Thread(this::spillLoop, "record-spill");
+            spillThread.setDaemon(true);
+            spillThread.start();
+        } else {
+            this.spillThread = null;
+        }
+    }
+
+    /**
+     * 记录入队；队列已满时交给溢写线程，溢写排队也已满时丢弃并返回 false
+     */
+    boolean offer(RecordEntity record) {
+        if (pending.incrementAndGet() > capacity) {
+            pending.decrementAndGet();
+            if (handOff(List.of(record), true)) {
+                return true;
+            }
+            droppedQueueFull.increment();
+            log.warn("SEND_RECORD_DROPPED queue full capacity={} id={}", capacity, record.getId());
+            return false;
+        }
+        queue.offer(record);
+        if (queued.incrementAndGet() >= batchSize) {
+            drain();
+        }
+        return true;
+    }
+
+    /**
+     * 不足一批的记录也立即落库，由定时任务调用
+     */
+    void flush() {
+        flushRequested = true;
+        drain();
+    }
+
+    int getPending() {
+        return pending.get();
+    }
+
+    /**
+     * 停止前把队列中的记录全部落库，并等待在途批次结束，最多等待 {@value #SHUTDOWN_TIMEOUT_MS} 毫秒；
+     * 超时仍在排队的记录交给 fallback，最后等待溢写线程写完
+     */
+    void close() {
+        flush();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHUTDOWN_TIMEOUT_MS);
+        while (pending.get() > 0 && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        List<RecordEntity> remaining = new ArrayList<>();
+        RecordEntity record;
+        while ((record = queue.poll()) != null) {
+            remaining.add(record);
+        }
+        if (!remaining.isEmpty()) {
+            queued.addAndGet(-remaining.size());
+            pending.addAndGet(-remaining.size());
+            if (!handOff(remaining, false)) {
+                droppedFlushFailed.increment(remaining.size());
+                log.error("SEND_RECORD_BATCH_SAVE_FAILED on shutdown size={}", remaining.size());
+            }
+        }
+        closed = true;
+        if (spillThread != null) {
+            try {
+                spillThread.join(Math.max(TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()), 1000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 单线程组批：并发调用者只累加 wip，由当前持有者循环处理，保证出队与在途计数不需要加锁
+     */
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        for (;;) {
+            while (inFlight.get() < maxConcurrentFlushes) {
+                int available = queued.get();
+                if (available == 0) {
+                    flushRequested = false;
+                    break;
+                }
+                if (available < batchSize && !flushRequested) {
+                    break;
+                }
+                List<RecordEntity> batch = new ArrayList<>(Math.min(available, batchSize));
+                RecordEntity record;
+                while (batch.size() < batchSize && (record = queue.poll()) != null) {
+                    batch.add(record);
+                }
+                if (batch.isEmpty()) {
+                    break;
+                }
+                queued.addAndGet(-batch.size());
+                inFlight.incrementAndGet();
+                write(batch);
+            }
+            missed = wip.addAndGet(-missed);
+            if (missed == 0) {
+                return;
+            }
+        }
+    }
+
+    private void write(List<RecordEntity> batch) {
+        Mono.defer(() -> writer.apply(batch))
+                .retryWhen(retry)
+                .doFinally(signal -> {
+                    pending.addAndGet(-batch.size());
+                    inFlight.decrementAndGet();
+                    drain();
+                })
+                .subscribe(null, e -> {
+                    if (handOff(batch, false)) {
+                        log.warn("SEND_RECORD_BATCH_SAVE_FAILED spilling size={} error={}", batch.size(), e.getMessage());
+                        return;
+                    }
+                    droppedFlushFailed.increment(batch.size());
+                    log.error("SEND_RECORD_BATCH_SAVE_FAILED size={} error={}", batch.size(), e.getMessage());
+                });
+    }
+
+    /**
+     * 把记录交给溢写线程，只入队不等待写出；未配置 fallback、已关闭或等待溢写的记录数达到上限时返回 false
+     */
+    private boolean handOff(List<RecordEntity> records, boolean queueFull) {
+        if (spillThread == null || closed) {
+            return false;
+        }
+        if (spillPending.addAndGet(records.size()) > capacity) {
+            spillPending.addAndGet(-records.size());
+            return false;
+        }
+        spillQueue.offer(new Overflow(records, queueFull));
+        return true;
+    }
+
+    /**
+     * 溢写线程：取出当前排队的全部记录，按丢弃原因各合并为一次 fallback 调用，一批只刷一次盘
+     */
+    private void spillLoop() {
+        List<Overflow> drained = new ArrayList<>();
+        while (!closed || !spillQueue.isEmpty()) {
+            try {
+                Overflow first = spillQueue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                drained.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            spillQueue.drainTo(drained);
+            List<RecordEntity> queueFull = new ArrayList<>();
+            List<RecordEntity> flushFailed = new ArrayList<>();
+            for (Overflow overflow : drained) {
+                (overflow.queueFull() ? queueFull : flushFailed).addAll(overflow.records());
+            }
+            drained.clear();
+            spill(queueFull, droppedQueueFull);
+            spill(flushFailed, droppedFlushFailed);
+        }
+    }
+
+    private void spill(List<RecordEntity> records, Counter dropped) {
+        if (records.isEmpty()) {
+            return;
+        }
+        boolean spilled;
+        try {
+            spilled = fallback.test(records);
+        } catch (RuntimeException e) {
+            spilled = false;
+        } finally {
+            spillPending.addAndGet(-records.size());
+        }
+        if (!spilled) {
+            dropped.increment(records.size());
+            log.error("SEND_RECORD_DROPPED spill failed size={}", records.size());
+        }
+    }
+
+    static boolean isTransient(Throwable e) {
+        if (e instanceof MongoSocketException || e instanceof MongoTimeoutException
+                || e instanceof MongoNotPrimaryException || e instanceof MongoNodeIsRecoveringException
+                || e instanceof DataAccessResourceFailureException || e instanceof TransientDataAccessException) {
+            return true;
+        }
+        return e instanceof MongoException mongo
+                && (mongo.hasErrorLabel(RETRYABLE_WRITE_ERROR_LABEL)
+                || mongo.hasErrorLabel(MongoException.TRANSIENT_TRANSACTION_ERROR_LABEL));
+    }
+
+    private static Counter dropped(MeterRegistry registry, String reason) {
+        return Counter.builder("asskicker.record.dropped")
+                .description("未能落库而被丢弃的发送记录数")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    private record Overflow(List<RecordEntity> records, boolean queueFull) {
+    }
+}
@@ -0,0 +1,178 @@
+package com.github.waitlight.asskicker.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.waitlight.asskicker.channel.SendReq;
+import com.github.waitlight.asskicker.config.RocketMQConfig.ProducerProperties;
+import com.github.waitlight.asskicker.config.RocketMQConfig.RocketMQProperties;
+import com.github.waitlight.asskicker.dto.send.SendBatchItemVO;
+import com.github.waitlight.asskicker.dto.send.SendBatchVO;
+import com.github.waitlight.asskicker.exception.BadRequestException;
+import com.github.waitlight.asskicker.mq.SendReqProducer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 发送请求受理：校验、预生成 recordId 并投递到 RocketMQ，投递成功后写入 QUEUED 记录，
+ * 支持批量与 NDJSON 流式两种入口。
+ */
+@Service
+@Slf4j
+public class SendService {
+
+    private final SendReqProducer sendReqProducer;
+    private final Validator validator;
+    private final RocketMQProperties rocketMQProperties;
+    private final RecordService recordService;
+    private final ObjectMapper objectMapper;
+    @Value("${ass-kicker.send.batch-max-items:10000}")
+    private int batchMaxItems;
+
+    public SendService(SendReqProducer sendReqProducer, Validator validator,
+                       RocketMQProperties rocketMQProperties, RecordService recordService,
+                       ObjectMapper objectMapper) {
+        this.sendReqProducer = sendReqProducer;
+        this.validator = validator;
+        this.rocketMQProperties = rocketMQProperties;
+        this.recordService = recordService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 批量受理发送请求。请求体先读满（最多 batchMaxItems + 1 条）再处理，条数超限或为空时整体拒绝，
+     * 不会投递其中任何一条；否则逐条校验并预生成 recordId，校验通过的请求按 batchMaxSize 分组作为批量消息投递，
+     * 返回结果与输入顺序一一对应。
+     */
+    public Mono<SendBatchVO> sendBatch(Flux<SendReq> reqs) {
+        return reqs.take(batchMaxItems + 1L)
+                .collectList()
+                .flatMap(list -> {
+                    if (list.isEmpty()) {
+                        return Mono.error(new BadRequestException("send.batch.empty", new Object[0]));
+                    }
+                    if (list.size() > batchMaxItems) {
+                        return Mono.error(new BadRequestException("send.batch.tooLarge", new Object[] { batchMaxItems }));
+                    }
+                    return publish(Flux.fromIterable(list).index().map(indexed -> stage(indexed.getT1(), indexed.getT2())))
+                            .collectList()
+                            .map(SendService::toBatchVO);
+                });
+    }
+
+    /**
+     * 流式受理发送请求，不限制条数。入参为 NDJSON 的各行（空行忽略），每行单独解码，
+     * 每条请求的受理结果按输入顺序逐条输出，解码失败的行在自己的 index 上返回错误，后续行照常受理。
+     * 在途批次数受 maxInFlightBatches 限制，下游消费慢时反压到请求体读取，内存占用与请求体大小无关。
+     * 请求体读取中断时，已读到的行照常投递并输出结果，最后输出一条 index 为 -1 的错误结果。
+     */
+    public Flux<SendBatchItemVO> sendStream(Flux<String> lines) {
+        Flux<Staged> staged = lines.filter(line -> !line.isBlank())
+                .index()
+                .map(indexed -> stage(indexed.getT1(), indexed.getT2()))
+                .onErrorResume(e -> {
+                    log.warn("Send stream aborted", e);
+                    return Mono.just(new Staged(-1, null, "stream aborted: " + e.getMessage()));
+                });
+        return publish(staged);
+    }
+
+    /**
+     * 校验单条请求，返回 null 表示通过，否则返回拼接后的违规描述。
+     */
+    public String validate(SendReq req) {
+        Set<ConstraintViolation<SendReq>> violations = validator.validate(req);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private Flux<SendBatchItemVO> publish(Flux<Staged> staged) {
+        ProducerProperties producer = rocketMQProperties.getProducer();
+        return staged.bufferTimeout(producer.getBatchMaxSize(), producer.getBatchLinger(), true)
+                .flatMapSequential(this::publishChunk, producer.getMaxInFlightBatches())
+                .flatMapIterable(Function.identity());
+    }
+
+    private Staged stage(long index, String line) {
+        SendReq req;
+        try {
+            req = objectMapper.readValue(line, SendReq.class);
+        } catch (JsonProcessingException e) {
+            return new Staged(index, null, "malformed line: " + e.getOriginalMessage());
+        }
+        if (req == null) {
+            return new Staged(index, null, "malformed line: null");
+        }
+        return stage(index, req);
+    }
+
+    private Staged stage(long index, SendReq req) {
+        String error = validate(req);
+        if (error != null) {
+            return new Staged(index, null, error);
+        }
+        req.setRecordId(ObjectId.get().toString());
+        return new Staged(index, req, null);
+    }
+
+    private Mono<List<SendBatchItemVO>> publishChunk(List<Staged> chunk) {
+        List<SendReq> valid = new ArrayList<>(chunk.size());
+        for (Staged staged : chunk) {
+            if (staged.req() != null) {
+                valid.add(staged.req());
+            }
+        }
+        return sendReqProducer.publishBatch(valid)
+                .then(Mono.fromSupplier(() -> {
+                    valid.forEach(recordService::createQueued);
+                    return toItems(chunk, null);
+                }))
+                .onErrorResume(e -> {
+                    log.warn("Send batch chunk publish failed, size={}", valid.size(), e);
+                    return Mono.just(toItems(chunk, "publish failed: " + e.getMessage()));
+                });
+    }
+
+    private static List<SendBatchItemVO> toItems(List<Staged> chunk, String publishError) {
+        List<SendBatchItemVO> items = new ArrayList<>(chunk.size());
+        for (Staged staged : chunk) {
+            if (staged.req() == null) {
+                items.add(SendBatchItemVO.rejected(staged.index(), staged.error()));
+            } else if (publishError != null) {
+                items.add(SendBatchItemVO.rejected(staged.index(), publishError));
+            } else {
+                items.add(SendBatchItemVO.accepted(staged.index(), staged.req().getRecordId()));
+            }
+        }
+        return items;
+    }
+
+    private static SendBatchVO toBatchVO(List<SendBatchItemVO> items) {
+        int accepted = 0;
+        for (SendBatchItemVO item : items) {
+            if (item.isAccepted()) {
+                accepted++;
+            }
+        }
+        return new SendBatchVO(items.size(), accepted, items.size() - accepted, items);
+    }
+
+    private record Staged(long index, SendReq req, String error) {
+    }
+}
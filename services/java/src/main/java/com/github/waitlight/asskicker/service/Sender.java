@@ -1,32 +1,186 @@
 package com.github.waitlight.asskicker.service;
 
 import com.github.waitlight.asskicker.channel.AbstractChannel;
+import com.github.waitlight.asskicker.channel.ChannelCircuitBreaker;
 import com.github.waitlight.asskicker.channel.ChannelManager;
 import com.github.waitlight.asskicker.channel.SendReq;
-import lombok.RequiredArgsConstructor;
+import com.github.waitlight.asskicker.config.ChannelCircuitBreakerConfig.ChannelCircuitBreakerProperties;
+import com.github.waitlight.asskicker.config.ChannelHedgingConfig.ChannelHedgingProperties;
+import com.github.waitlight.asskicker.model.SendRecordStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
 @Component
 @Slf4j
-@RequiredArgsConstructor
 public class Sender {
 
     private final TemplateEngine templateEngine;
     private final ChannelManager channelManager;
+    private final ChannelCircuitBreakerProperties circuitBreakerProperties;
+    private final ChannelHedgingProperties hedgingProperties;
+    private final MeterRegistry meterRegistry;
+    private final RecordService recordService;
+    /** 多收件人请求拆分后同时在途的发送数上限，缺省与 FCM 单批上限一致 */
+    @Value("${ass-kicker.send.fan-out-concurrency:500}")
+    private int fanOutConcurrency = 500;
+
+    public Sender(TemplateEngine templateEngine, ChannelManager channelManager,
+                  ChannelCircuitBreakerProperties circuitBreakerProperties,
+                  ChannelHedgingProperties hedgingProperties, MeterRegistry meterRegistry,
+                  RecordService recordService) {
+        this.recordService = recordService;
+        this.templateEngine = templateEngine;
+        this.channelManager = channelManager;
+        this.circuitBreakerProperties = circuitBreakerProperties;
+        this.hedgingProperties = hedgingProperties;
+        this.meterRegistry = meterRegistry;
+    }
 
     public <T extends SendReq> Mono<String> send(T req) {
         if (req == null || req.getType() == null) {
             return Mono.empty();
         }
-        return templateEngine.fill(req)
+        return Mono.defer(() -> {
+            if (req.getRecordId() != null) {
+                recordService.markSending(req);
+            }
+            return templateEngine.fill(req);
+        })
                 .flatMap(r -> channelManager.chose(r)
-                        .flatMap(channel -> invokeChannelSend(channel, r)));
+                        .flatMap(channel -> {
+                            List<? extends SendReq> parts = r.split();
+                            return parts.isEmpty()
+                                    ? sendWithFailover(channel, r, ConcurrentHashMap.newKeySet(), 0)
+                                    : sendParts(channel, parts);
+                        }));
+    }
+
+    /**
+     * 多收件人请求拆分后的发送：各部分以最多 fanOutConcurrency 的并发提交到同一通道（由通道自行合并为批量调用），
+     * 单个收件人失败只写该收件人的失败记录；全部失败时返回最后一个错误以便消息重投，
+     * 否则返回第一个部分的 recordId（即请求的 recordId，请求没有时预先生成），与各部分完成顺序无关。
+     */
+    private Mono<String> sendParts(AbstractChannel<?> channel, List<? extends SendReq> parts) {
+        SendReq first = parts.get(0);
+        if (first.getRecordId() == null || first.getRecordId().isBlank()) {
+            first.setRecordId(ObjectId.get().toString());
+        }
+        String recordId = first.getRecordId();
+        AtomicReference<Throwable> lastError = new AtomicReference<>();
+        return Flux.fromIterable(parts)
+                .flatMap(part -> sendWithFailover(channel, part, ConcurrentHashMap.newKeySet(), 0)
+                        .onErrorResume(e -> {
+                            lastError.set(e);
+                            return Mono.empty();
+                        }), Math.min(parts.size(), fanOutConcurrency))
+                .collectList()
+                .flatMap(recordIds -> {
+                    if (recordIds.isEmpty()) {
+                        return lastError.get() != null ? Mono.error(lastError.get()) : Mono.empty();
+                    }
+                    return Mono.just(recordId);
+                });
+    }
+
+    /**
+     * 在当前通道发送，失败时切换到同类型下一个未尝试且未熔断的通道（请求指定 provider 时只在该 provider 内切换），
+     * 最多 maxFailoverAttempts 次；
+     * 只为最终结果写一条发送记录，记录中带切换次数与熔断器状态。
+     */
+    private Mono<String> sendWithFailover(AbstractChannel<?> channel, SendReq req, Set<String> tried, int attempt) {
+        tried.add(channel.getId());
+        Mono<AbstractChannel<?>> execution = attempt == 0 && shouldHedge(req)
+                ? executeHedged(channel, req, tried)
+                : invokeChannelExecute(channel, req).map(result -> channel);
+        return execution
+                .map(winner -> winner.record(req, SendRecordStatus.SUCCESS, null, attempt))
+                .onErrorResume(error -> {
+                    if (attempt >= circuitBreakerProperties.getMaxFailoverAttempts()) {
+                        channel.record(req, SendRecordStatus.FAILED, error.getMessage(), attempt);
+                        return Mono.error(error);
+                    }
+                    return channelManager.choseFailover(req.getType(), req.getProvider(), tried)
+                            .flatMap(next -> {
+                                log.warn("Channel {} failed, failover to {}, recordId={}: {}",
+                                        channel.getCode(), next.getCode(), req.getRecordId(), error.getMessage());
+                                Counter.builder("asskicker.channel.failover")
+                                        .tag("type", req.getType().name())
+                                        .tag("from", channel.getCode())
+                                        .register(meterRegistry)
+                                        .increment();
+                                return sendWithFailover(next, req, tried, attempt + 1);
+                            })
+                            .switchIfEmpty(Mono.defer(() -> {
+                                channel.record(req, SendRecordStatus.FAILED, error.getMessage(), attempt);
+                                return Mono.error(error);
+                            }));
+                });
+    }
+
+    private boolean shouldHedge(SendReq req) {
+        return req.isHedge() && hedgingProperties.isEnabled();
+    }
+
+    /**
+     * 对冲发送：主通道在其近期分位延迟内未返回时，向同类型另一可用通道重复发送，先成功者胜出，另一路被取消。
+     * 两路都不写记录，由调用方按胜出通道写一条，保证每个 recordId 只有一条记录。
+     */
+    private Mono<AbstractChannel<?>> executeHedged(AbstractChannel<?> primary, SendReq req, Set<String> tried) {
+        Duration delay = hedgeDelay(primary);
+        Mono<AbstractChannel<?>> first = invokeChannelExecute(primary, req).map(result -> primary);
+        Mono<AbstractChannel<?>> hedge = Mono.delay(delay)
+                .then(Mono.defer(() -> channelManager.choseFailover(req.getType(), req.getProvider(), tried)))
+                .flatMap(secondary -> {
+                    tried.add(secondary.getId());
+                    hedgeCounter(req, "fired").increment();
+                    log.debug("Hedging recordId={} from {} to {} after {}ms", req.getRecordId(),
+                            primary.getCode(), secondary.getCode(), delay.toMillis());
+                    return invokeChannelExecute(secondary, req)
+                            .map(result -> {
+                                hedgeCounter(req, "won").increment();
+                                return secondary;
+                            });
+                });
+        return Mono.firstWithValue(first, hedge)
+                .onErrorMap(NoSuchElementException.class,
+                        e -> e.getSuppressed().length > 0 ? e.getSuppressed()[0] : e);
+    }
+
+    private Duration hedgeDelay(AbstractChannel<?> primary) {
+        ChannelCircuitBreaker breaker = primary.getCircuitBreaker();
+        long micros = breaker == null ? -1
+                : breaker.latencyPercentileMicros(System.currentTimeMillis(), hedgingProperties.getPercentile());
+        if (micros < 0) {
+            return hedgingProperties.getDefaultDelay();
+        }
+        long nanos = Math.min(micros, Long.MAX_VALUE / 1000) * 1000;
+        long clamped = Math.max(hedgingProperties.getMinDelay().toNanos(),
+                Math.min(hedgingProperties.getMaxDelay().toNanos(), nanos));
+        return Duration.ofNanos(clamped);
+    }
+
+    private Counter hedgeCounter(SendReq req, String result) {
+        return Counter.builder("asskicker.channel.hedge")
+                .tag("type", req.getType().name())
+                .tag("result", result)
+                .register(meterRegistry);
     }
 
     @SuppressWarnings({"unchecked", "rawtypes"})
-    private Mono<String> invokeChannelSend(AbstractChannel<?> channel, SendReq req) {
-        return ((AbstractChannel) channel).send(req);
+    private Mono<String> invokeChannelExecute(AbstractChannel<?> channel, SendReq req) {
+        return ((AbstractChannel) channel).execute(req);
     }
 }
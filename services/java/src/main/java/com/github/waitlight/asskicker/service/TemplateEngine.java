@@ -48,6 +48,9 @@ public class TemplateEngine {
         }
         return templateService.findByCode(req.getTemplateCode())
                 .flatMap(tpl -> {
+                    if (tpl.isHedged()) {
+                        req.setHedge(true);
+                    }
                     if (tpl.isProviderManaged()) {
                         req.applyRendered("", "");
                         return Mono.just(req);
@@ -129,6 +129,7 @@ public class TemplateService {
         target.setName(source.getName().trim());
         target.setChannelType(source.getChannelType());
         target.setProviderManaged(source.isProviderManaged());
+        target.setHedged(source.isHedged());
     }
 
     private void invalidateTemplateCaches(TemplateEntity existing, TemplateEntity saved) {
@@ -0,0 +1,54 @@
+package com.github.waitlight.asskicker.channel;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncSemaphoreTest {
+
+    private final AsyncSemaphore semaphore = new AsyncSemaphore(1);
+
+    @Test
+    void withPermit_exhausted_queuesUntilRelease() {
+        Sinks.One<String> first = Sinks.one();
+        Sinks.One<String> second = Sinks.one();
+        List<String> results = new ArrayList<>();
+
+        semaphore.withPermit(first::asMono).subscribe(results::add);
+        semaphore.withPermit(second::asMono).subscribe(results::add);
+        assertThat(semaphore.getInFlight()).isEqualTo(1);
+        assertThat(semaphore.getWaiting()).isEqualTo(1);
+        assertThat(second.currentSubscriberCount()).isZero();
+
+        first.tryEmitValue("a");
+        assertThat(second.currentSubscriberCount()).isEqualTo(1);
+        assertThat(semaphore.getWaiting()).isZero();
+        second.tryEmitValue("b");
+
+        assertThat(results).containsExactly("a", "b");
+        assertThat(semaphore.getInFlight()).isZero();
+    }
+
+    @Test
+    void withPermit_cancelWhileWaitingOrRunning_returnsPermit() {
+        Sinks.One<String> first = Sinks.one();
+        Disposable running = semaphore.withPermit(first::asMono).subscribe();
+        Disposable waiting = semaphore.withPermit(Sinks.<String>one()::asMono).subscribe();
+
+        waiting.dispose();
+        assertThat(semaphore.getWaiting()).isZero();
+        running.dispose();
+        assertThat(semaphore.getInFlight()).isZero();
+
+        List<String> results = new ArrayList<>();
+        semaphore.withPermit(() -> Mono.just("c")).subscribe(results::add);
+        assertThat(results).containsExactly("c");
+        assertThat(semaphore.getInFlight()).isZero();
+    }
+}
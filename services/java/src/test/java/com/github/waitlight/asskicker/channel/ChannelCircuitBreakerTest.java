@@ -0,0 +1,108 @@
+package com.github.waitlight.asskicker.channel;
+
+import com.github.waitlight.asskicker.config.ChannelCircuitBreakerConfig.ChannelCircuitBreakerProperties;
+import com.github.waitlight.asskicker.model.ChannelEntity;
+import com.github.waitlight.asskicker.model.ChannelType;
+import com.github.waitlight.asskicker.model.CircuitState;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChannelCircuitBreakerTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private ChannelCircuitBreakerProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ChannelCircuitBreakerProperties();
+        properties.setMinimumCalls(4);
+        properties.setFailureRateThreshold(0.5);
+        properties.setLatencyThreshold(Duration.ofSeconds(1));
+        properties.setOpenDuration(Duration.ofSeconds(30));
+        properties.setHalfOpenProbes(2);
+    }
+
+    @Test
+    void opensOnFailureRate_thenRecoversThroughHalfOpenProbes() {
+        ChannelCircuitBreaker breaker = new ChannelCircuitBreaker("sms-a", properties);
+        long now = 1_000_000;
+        breaker.onResult(now, FAST, false);
+        breaker.onResult(now, FAST, false);
+        breaker.onResult(now, FAST, true);
+        assertThat(breaker.getState()).isEqualTo(CircuitState.CLOSED);
+        breaker.onResult(now, FAST, true);
+        assertThat(breaker.getState()).isEqualTo(CircuitState.OPEN);
+        assertThat(breaker.tryAcquire(now + 1_000)).isFalse();
+
+        long later = now + 30_000;
+        assertThat(breaker.tryAcquire(later)).isTrue();
+        assertThat(breaker.tryAcquire(later)).isTrue();
+        assertThat(breaker.tryAcquire(later)).isFalse();
+        assertThat(breaker.getState()).isEqualTo(CircuitState.HALF_OPEN);
+
+        breaker.onResult(later, FAST, false);
+        breaker.onResult(later, FAST, false);
+        assertThat(breaker.getState()).isEqualTo(CircuitState.CLOSED);
+        assertThat(breaker.tryAcquire(later)).isTrue();
+    }
+
+    @Test
+    void opensOnSlowPercentile() {
+        ChannelCircuitBreaker breaker = new ChannelCircuitBreaker("sms-b", properties);
+        long slow = TimeUnit.SECONDS.toNanos(3);
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(1_000_000, slow, false);
+        }
+        breaker.onResult(1_000_300, slow, false);
+
+        assertThat(breaker.getState()).isEqualTo(CircuitState.OPEN);
+        assertThat(breaker.latencyPercentileMicros(1_000_300, 0.5)).isGreaterThanOrEqualTo(3_000_000);
+    }
+
+    @Test
+    void halfOpen_releasedProbeIsReissued_andStuckProbesReopen() {
+        ChannelCircuitBreaker breaker = new ChannelCircuitBreaker("sms-c", properties);
+        long now = 1_000_000;
+        for (int i = 0; i < 4; i++) {
+            breaker.onResult(now, FAST, true);
+        }
+        long later = now + 30_000;
+        assertThat(breaker.tryAcquire(later)).isTrue();
+        assertThat(breaker.tryAcquire(later)).isTrue();
+        assertThat(breaker.tryAcquire(later)).isFalse();
+
+        breaker.release();
+        assertThat(breaker.tryAcquire(later)).isTrue();
+        assertThat(breaker.tryAcquire(later)).isFalse();
+
+        assertThat(breaker.tryAcquire(later + 30_000)).isFalse();
+        assertThat(breaker.getState()).isEqualTo(CircuitState.OPEN);
+        assertThat(breaker.tryAcquire(later + 60_000)).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitState.HALF_OPEN);
+    }
+
+    @Test
+    void registry_remove_dropsBreakerAndStateGauge() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ChannelCircuitBreakerRegistry registry = new ChannelCircuitBreakerRegistry(properties, meterRegistry);
+        ChannelEntity entity = new ChannelEntity();
+        entity.setId("id-1");
+        entity.setCode("sms-a");
+        entity.setType(ChannelType.SMS);
+        ChannelCircuitBreaker breaker = registry.forChannel(entity);
+        assertThat(registry.forChannel(entity)).isSameAs(breaker);
+
+        registry.remove("id-1");
+
+        assertThat(registry.size()).isZero();
+        assertThat(meterRegistry.find("asskicker.channel.circuit.state").gauge()).isNull();
+        assertThat(registry.forChannel(entity)).isNotSameAs(breaker);
+    }
+}
@@ -0,0 +1,116 @@
+package com.github.waitlight.asskicker.channel;
+
+import com.github.waitlight.asskicker.config.ChannelBlockingConfig.ChannelBlockingProperties;
+import com.github.waitlight.asskicker.exception.SendException;
+import com.github.waitlight.asskicker.model.ChannelEntity;
+import com.github.waitlight.asskicker.model.ChannelType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChannelExecutorsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void submit_overQueueCapacity_rejectsAndWithdrawsCancelledCalls() throws Exception {
+        ChannelBlockingProperties properties = new ChannelBlockingProperties();
+        properties.setMaxConcurrency(1);
+        properties.setQueueCapacity(1);
+        BlockingExecutor executor = new ChannelExecutors(properties, registry).create(entity("sms-a"));
+
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Disposable first = executor.submit(() -> {
+            running.countDown();
+            release.await();
+            return "first";
+        }).subscribe();
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        Disposable queued = executor.submit(() -> "second").subscribe();
+        assertThat(executor.getQueued()).isEqualTo(1);
+        assertThat(registry.get("asskicker.channel.blocking.queued").gauge().value()).isEqualTo(1);
+
+        StepVerifier.create(executor.submit(() -> "third"))
+                .expectError(SendException.class)
+                .verify();
+        assertThat(registry.get("asskicker.channel.blocking.rejected").counter().count()).isEqualTo(1);
+
+        queued.dispose();
+        assertThat(executor.getQueued()).isZero();
+        release.countDown();
+        first.dispose();
+
+        StepVerifier.create(executor.submit(() -> "fourth"))
+                .expectNext("fourth")
+                .verifyComplete();
+        executor.close();
+    }
+
+    @Test
+    void submit_permitMode_countsPermitWaitersAsQueuedAndInterruptsOnCancel() throws Exception {
+        // 与虚拟线程模式相同：每个调用一个线程，并发由信号量限制
+        BlockingExecutor executor = new BlockingExecutor("sms-v", Executors.newCachedThreadPool(), new Semaphore(1), 1,
+                registry.timer("wait"), registry.counter("rejected"), new AtomicReference<>());
+
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Disposable first = executor.submit(() -> {
+            running.countDown();
+            release.await();
+            return "first";
+        }).subscribe();
+        assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+        AtomicBoolean secondRan = new AtomicBoolean();
+        Disposable waiting = executor.submit(() -> secondRan.getAndSet(true)).subscribe();
+        Thread.sleep(50);
+        assertThat(executor.getQueued()).isEqualTo(1);
+        StepVerifier.create(executor.submit(() -> "third"))
+                .expectError(SendException.class)
+                .verify();
+
+        waiting.dispose();
+        assertThat(executor.getQueued()).isZero();
+        release.countDown();
+        first.dispose();
+
+        StepVerifier.create(executor.submit(() -> "fourth"))
+                .expectNext("fourth")
+                .verifyComplete();
+        assertThat(secondRan).isFalse();
+        executor.close();
+    }
+
+    @Test
+    void create_afterRefresh_gaugeFollowsNewExecutor() {
+        ChannelExecutors executors = new ChannelExecutors(new ChannelBlockingProperties(), registry);
+        BlockingExecutor old = executors.create(entity("sms-b"));
+        BlockingExecutor fresh = executors.create(entity("sms-b"));
+        old.close();
+
+        assertThat(registry.find("asskicker.channel.blocking.queued").gauges()).hasSize(1);
+        StepVerifier.create(fresh.submit(() -> "ok"))
+                .expectNext("ok")
+                .verifyComplete();
+        fresh.close();
+    }
+
+    private static ChannelEntity entity(String code) {
+        ChannelEntity entity = new ChannelEntity();
+        entity.setCode(code);
+        entity.setType(ChannelType.SMS);
+        return entity;
+    }
+}
@@ -3,6 +3,8 @@ package com.github.waitlight.asskicker.channel;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.github.waitlight.asskicker.channel.impl.*;
+import com.github.waitlight.asskicker.config.ChannelBlockingConfig.ChannelBlockingProperties;
+import com.github.waitlight.asskicker.config.ChannelCircuitBreakerConfig.ChannelCircuitBreakerProperties;
 import com.github.waitlight.asskicker.model.ChannelEntity;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -12,6 +14,7 @@ import org.springframework.web.reactive.function.client.WebClient;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.waitlight.asskicker.service.RecordService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import static org.mockito.Mockito.mock;
 
@@ -21,7 +24,10 @@ class ChannelFactoryTest {
           .configure(DeserializationFeature.READ_UNKNOWN_ENUM_VALUES_AS_NULL, true);
 
   private final ChannelFactory factory = new ChannelFactory(WebClient.create(),
-          ChannelTestObjectMappers.channelObjectMapper(), mock(RecordService.class));
+          ChannelTestObjectMappers.channelObjectMapper(), mock(RecordService.class),
+          new SimpleMeterRegistry(), new ChannelCircuitBreakerRegistry(new ChannelCircuitBreakerProperties(),
+          new SimpleMeterRegistry()),
+          new ChannelExecutors(new ChannelBlockingProperties(), new SimpleMeterRegistry()));
 
   @BeforeEach
   void scan() {
@@ -99,6 +105,9 @@ class ChannelFactoryTest {
         """.formatted(serviceAccountJson);
     ChannelEntity entity = MAPPER.readValue(json, ChannelEntity.class);
     assertThat(factory.create(entity)).isInstanceOf(FcmPushChannel.class);
+
+    entity.getProperties().put("client", "http");
+    assertThat(factory.create(entity)).isInstanceOf(FcmHttpPushChannel.class);
   }
 
   @Test
@@ -190,6 +199,100 @@ class ChannelFactoryTest {
     assertThat(factory.create(entity)).isInstanceOf(TencentSmsChannel.class);
   }
 
+  @Test
+  @DisplayName("创建 AWS SNS 短信渠道")
+  void create_awsSns_returnsAwsSnsSmsChannel() throws Exception {
+    String json = """
+        {
+          "code": "aws-sns-factory",
+          "type": "SMS",
+          "provider": "AWS",
+          "enabled": true,
+          "properties": {
+            "accessKeyId": "AKIDEXAMPLE",
+            "secretAccessKey": "secret",
+            "region": "us-east-1"
+          }
+        }
+        """;
+    AbstractChannel<?> channel = factory.create(MAPPER.readValue(json, ChannelEntity.class));
+    try {
+      assertThat(channel).isInstanceOf(AwsSnsSmsChannel.class);
+    } finally {
+      channel.close();
+    }
+  }
+
+  @Test
+  @DisplayName("临时通道不挂执行器、熔断器与限流器")
+  void createDetached_blockingChannel_sharesNothingWithManagedInstance() throws Exception {
+    String json = """
+        {
+          "id": "aliyun-1",
+          "code": "aliyun-sms-detached",
+          "type": "SMS",
+          "provider": "ALIYUN",
+          "enabled": true,
+          "rateLimit": { "permits": 10, "periodMs": 1000 },
+          "properties": {
+            "accessKeyId": "a",
+            "accessKeySecret": "s",
+            "endpoint": "dysmsapi.aliyuncs.com"
+          }
+        }
+        """;
+    ChannelEntity entity = MAPPER.readValue(json, ChannelEntity.class);
+    AbstractChannel<?> managed = factory.create(entity);
+    AbstractChannel<?> detached = factory.createDetached(entity);
+    try {
+      assertThat(managed.getBlockingExecutor()).isNotNull();
+      assertThat(managed.getCircuitBreaker()).isNotNull();
+      assertThat(detached).isInstanceOf(AliyunSmsChannel.class);
+      assertThat(detached.getBlockingExecutor()).isNull();
+      assertThat(detached.getCircuitBreaker()).isNull();
+      assertThat(detached.getRateLimiter()).isNull();
+    } finally {
+      detached.close();
+      managed.close();
+    }
+  }
+
+  @Test
+  @DisplayName("client=http 时创建 WebClient 版短信渠道")
+  void create_smsWithHttpClient_returnsHttpChannel() throws Exception {
+    String aliyun = """
+        {
+          "code": "aliyun-sms-http",
+          "type": "SMS",
+          "provider": "ALIYUN",
+          "enabled": true,
+          "properties": {
+            "client": "http",
+            "accessKeyId": "a",
+            "accessKeySecret": "s"
+          }
+        }
+        """;
+    String tencent = """
+        {
+          "code": "tencent-sms-http",
+          "type": "SMS",
+          "provider": "TENCENT",
+          "enabled": true,
+          "properties": {
+            "client": "http",
+            "secretId": "id",
+            "secretKey": "key",
+            "smsSdkAppId": "1400000000"
+          }
+        }
+        """;
+    assertThat(factory.create(MAPPER.readValue(aliyun, ChannelEntity.class)))
+        .isInstanceOf(AliyunSmsHttpChannel.class);
+    assertThat(factory.create(MAPPER.readValue(tencent, ChannelEntity.class)))
+        .isInstanceOf(TencentSmsHttpChannel.class);
+  }
+
   @Test
   @DisplayName("创建 SMTP 邮件渠道")
   void create_smtp_returnsSmtpChannel() throws Exception {
@@ -1,17 +1,21 @@
 package com.github.waitlight.asskicker.channel;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.util.concurrent.ConcurrentHashMap;
-
+import com.github.waitlight.asskicker.config.ChannelRoutingConfig.ChannelRoutingProperties;
 import com.github.waitlight.asskicker.model.ChannelEntity;
+import com.github.waitlight.asskicker.model.ChannelProvider;
+import com.github.waitlight.asskicker.model.ChannelType;
+import com.github.waitlight.asskicker.model.ChannelRateLimit;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -20,6 +24,9 @@ import com.github.waitlight.asskicker.service.RecordService;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Set;
 
 import static org.mockito.Mockito.mock;
 
@@ -38,7 +45,7 @@ class ChannelManagerRefreshFailureTest {
 
     @BeforeEach
     void setUp() {
-        channelManager = new ChannelManager(channelService, channelFactory);
+        channelManager = new ChannelManager(channelService, channelFactory, new ChannelRoutingProperties());
     }
 
     @Test
@@ -55,17 +62,88 @@ class ChannelManagerRefreshFailureTest {
         ChannelEntity entity = MAPPER.readValue(json, ChannelEntity.class);
         AbstractChannel channel = new NoOpChannel(entity, WebClient.create(),
                 ChannelTestObjectMappers.channelObjectMapper(), mock(RecordService.class));
-        ConcurrentHashMap<String, AbstractChannel> map = new ConcurrentHashMap<>();
-        map.put("id-1", channel);
-        ReflectionTestUtils.setField(channelManager, "cache", map);
-
-        when(channelService.findEnabled()).thenReturn(Flux.error(new RuntimeException("db unavailable")));
+        when(channelService.findEnabled())
+                .thenReturn(Flux.just(entity))
+                .thenReturn(Flux.error(new RuntimeException("db unavailable")));
+        when(channelFactory.create(entity)).thenReturn(channel);
+        channelManager.init();
 
         channelManager.refresh();
 
         assertThat(channelManager.getChannelCount()).isEqualTo(1);
     }
 
+    @Test
+    void refresh_rebuiltLimiter_keepsQuotaShareOfPreviousInstance() throws Exception {
+        ChannelEntity entity = MAPPER.readValue("""
+                {
+                  "id": "id-2",
+                  "code": "limited-refresh",
+                  "type": "APNS",
+                  "provider": "APPLE",
+                  "enabled": true
+                }
+                """, ChannelEntity.class);
+        AbstractChannel first = limited(entity);
+        AbstractChannel second = limited(entity);
+        when(channelService.findEnabled()).thenReturn(Flux.just(entity));
+        when(channelFactory.create(entity)).thenReturn(first, second);
+        channelManager.init();
+        first.getRateLimiter().setShare(3);
+
+        channelManager.refresh();
+
+        assertThat(channelManager.getChannel("id-2")).isSameAs(second);
+        assertThat(second.getRateLimiter().getShare()).isEqualTo(3);
+    }
+
+    @Test
+    void refresh_removedChannel_releasesItsCircuitBreaker() throws Exception {
+        ChannelEntity entity = entity("id-3", "removed-refresh", "APNS", "APPLE");
+        when(channelService.findEnabled()).thenReturn(Flux.just(entity)).thenReturn(Flux.empty());
+        when(channelFactory.create(entity)).thenReturn(noOp(entity));
+        channelManager.init();
+
+        channelManager.refresh();
+
+        verify(channelFactory).release("id-3");
+    }
+
+    @Test
+    void choseFailover_pinnedProvider_staysWithinProvider() throws Exception {
+        ChannelEntity aliyun = entity("id-4", "sms-aliyun", "SMS", "ALIYUN");
+        ChannelEntity tencent = entity("id-5", "sms-tencent", "SMS", "TENCENT");
+        when(channelService.findEnabled()).thenReturn(Flux.just(aliyun, tencent));
+        when(channelFactory.create(aliyun)).thenReturn(noOp(aliyun));
+        when(channelFactory.create(tencent)).thenReturn(noOp(tencent));
+        channelManager.init();
+
+        StepVerifier.create(channelManager.choseFailover(ChannelType.SMS, ChannelProvider.ALIYUN, Set.of("id-4")))
+                .verifyComplete();
+        StepVerifier.create(channelManager.choseFailover(ChannelType.SMS, null, Set.of("id-4")))
+                .assertNext(channel -> assertThat(channel.getId()).isEqualTo("id-5"))
+                .verifyComplete();
+    }
+
+    private static ChannelEntity entity(String id, String code, String type, String provider) throws Exception {
+        return MAPPER.readValue("""
+                {"id": "%s", "code": "%s", "type": "%s", "provider": "%s", "enabled": true}
+                """.formatted(id, code, type, provider), ChannelEntity.class);
+    }
+
+    private static AbstractChannel noOp(ChannelEntity entity) {
+        return new NoOpChannel(entity, WebClient.create(), ChannelTestObjectMappers.channelObjectMapper(),
+                mock(RecordService.class));
+    }
+
+    private static AbstractChannel<?> limited(ChannelEntity entity) {
+        NoOpChannel channel = new NoOpChannel(entity, WebClient.create(),
+                ChannelTestObjectMappers.channelObjectMapper(), mock(RecordService.class));
+        channel.setRateLimiter(ChannelRateLimiter.of(new ChannelRateLimit(10, 1000L, 4),
+                Timer.builder("test").register(new SimpleMeterRegistry())));
+        return channel;
+    }
+
     /** Avoids MapStruct-backed channels so this test does not depend on generated mapper classes. */
     private static final class NoOpChannel extends AbstractChannel<SendReq> {
 
@@ -0,0 +1,95 @@
+package com.github.waitlight.asskicker.channel;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.waitlight.asskicker.config.ChannelQuotaConfig.ChannelQuotaProperties;
+import com.github.waitlight.asskicker.model.ChannelEntity;
+import com.github.waitlight.asskicker.model.ChannelProvider;
+import com.github.waitlight.asskicker.model.ChannelRateLimit;
+import com.github.waitlight.asskicker.model.ChannelType;
+import com.github.waitlight.asskicker.repository.ChannelQuotaLeaseRepository;
+import com.github.waitlight.asskicker.service.RecordService;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChannelQuotaCoordinatorTest {
+
+    @Mock
+    private ChannelManager channelManager;
+
+    @Mock
+    private ChannelQuotaLeaseRepository leaseRepository;
+
+    @Test
+    void renewAll_splitsQuotaByActiveLeases() {
+        AbstractChannel<?> limited = channel("limited", new ChannelRateLimit(10, 1000L, 4));
+        AbstractChannel<?> unlimited = channel("unlimited", null);
+        when(channelManager.getChannels()).thenReturn(List.of(limited, unlimited));
+        when(leaseRepository.renew(eq("limited"), eq("node-a"), any())).thenReturn(Mono.empty());
+        when(leaseRepository.countActive(eq("limited"), any())).thenReturn(Mono.just(2L));
+
+        ChannelQuotaProperties properties = new ChannelQuotaProperties();
+        properties.setNodeId("node-a");
+        ChannelQuotaCoordinator coordinator = new ChannelQuotaCoordinator(channelManager, leaseRepository, properties);
+
+        StepVerifier.create(coordinator.renewAll()).verifyComplete();
+
+        ChannelRateLimiter limiter = limited.getRateLimiter();
+        assertThat(limiter.getShare()).isEqualTo(2);
+        long interval = TimeUnit.MILLISECONDS.toNanos(200);
+        long now = System.nanoTime();
+        assertThat(limiter.reserve(now)).isZero();
+        assertThat(limiter.reserve(now)).isZero();
+        assertThat(limiter.reserve(now)).isEqualTo(interval);
+        verify(leaseRepository, never()).renew(eq("unlimited"), any(), any());
+    }
+
+    private static AbstractChannel<?> channel(String id, ChannelRateLimit rateLimit) {
+        ChannelEntity entity = new ChannelEntity();
+        entity.setId(id);
+        entity.setCode(id);
+        entity.setType(ChannelType.SMS);
+        entity.setProvider(ChannelProvider.ALIYUN);
+        NoOpChannel channel = new NoOpChannel(entity, WebClient.create(),
+                ChannelTestObjectMappers.channelObjectMapper(), mock(RecordService.class));
+        channel.setRateLimiter(ChannelRateLimiter.of(rateLimit,
+                Timer.builder("test").register(new SimpleMeterRegistry())));
+        return channel;
+    }
+
+    private static final class NoOpChannel extends AbstractChannel<SendReq> {
+
+        NoOpChannel(ChannelEntity entity, WebClient webClient, ObjectMapper objectMapper,
+                    RecordService recordService) {
+            super(entity, webClient, objectMapper, recordService);
+        }
+
+        @Override
+        protected Mono<String> doSend(SendReq req) {
+            return Mono.empty();
+        }
+
+        @Override
+        public void dispose() {
+
+        }
+    }
+}
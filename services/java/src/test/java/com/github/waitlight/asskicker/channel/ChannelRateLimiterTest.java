@@ -0,0 +1,81 @@
+package com.github.waitlight.asskicker.channel;
+
+import com.github.waitlight.asskicker.exception.SendException;
+import com.github.waitlight.asskicker.model.ChannelRateLimit;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChannelRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Timer timer = Timer.builder("test").register(new SimpleMeterRegistry());
+
+    @Test
+    void reserve_allowsBurstThenSpacesByInterval() {
+        ChannelRateLimiter limiter = new ChannelRateLimiter(new ChannelRateLimit(10, 1000L, 3), timer, 0);
+        long interval = SECOND / 10;
+
+        assertThat(limiter.reserve(0)).isZero();
+        assertThat(limiter.reserve(0)).isZero();
+        assertThat(limiter.reserve(0)).isZero();
+        assertThat(limiter.reserve(0)).isEqualTo(interval);
+        assertThat(limiter.reserve(0)).isEqualTo(2 * interval);
+    }
+
+    @Test
+    void reserve_refillsAfterIdle() {
+        ChannelRateLimiter limiter = new ChannelRateLimiter(new ChannelRateLimit(20, 60_000L, null), timer, 0);
+        long interval = TimeUnit.MINUTES.toNanos(1) / 20;
+
+        assertThat(limiter.reserve(0)).isZero();
+        assertThat(limiter.reserve(0)).isEqualTo(interval);
+        assertThat(limiter.reserve(10 * interval)).isZero();
+    }
+
+    @Test
+    void reserve_beyondMaxWait_rejectedWithoutTakingSlot() {
+        ChannelRateLimiter limiter = new ChannelRateLimiter(new ChannelRateLimit(10, 1000L, 1, 150L), timer, 0);
+        long interval = SECOND / 10;
+
+        assertThat(limiter.reserve(0)).isZero();
+        assertThat(limiter.reserve(0)).isEqualTo(interval);
+        assertThat(limiter.reserve(0)).isEqualTo(-1);
+        assertThat(limiter.reserve(interval)).isEqualTo(interval);
+    }
+
+    @Test
+    void acquire_cancelledWhileWaiting_returnsSlot() {
+        ChannelRateLimiter limiter = ChannelRateLimiter.of(new ChannelRateLimit(1, 1000L, 1), timer);
+
+        StepVerifier.create(limiter.acquire()).verifyComplete();
+        Disposable waiting = limiter.acquire().subscribe();
+        waiting.dispose();
+
+        assertThat(limiter.reserve(System.nanoTime())).isBetween(0L, SECOND);
+    }
+
+    @Test
+    void acquire_waitBeyondMaxWait_failsFast() {
+        ChannelRateLimiter limiter = ChannelRateLimiter.of(new ChannelRateLimit(1, 1000L, 1, 0L), timer);
+
+        StepVerifier.create(limiter.acquire()).verifyComplete();
+        StepVerifier.create(limiter.acquire())
+                .expectError(SendException.class)
+                .verify(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void of_returnsNullWithoutLimit() {
+        assertThat(ChannelRateLimiter.of(null, timer)).isNull();
+        assertThat(ChannelRateLimiter.of(new ChannelRateLimit(null, 1000L, null), timer)).isNull();
+    }
+}
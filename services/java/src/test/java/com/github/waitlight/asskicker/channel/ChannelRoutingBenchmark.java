@@ -0,0 +1,117 @@
+package com.github.waitlight.asskicker.channel;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.waitlight.asskicker.config.ChannelRoutingConfig.ChannelRoutingProperties;
+import com.github.waitlight.asskicker.model.ChannelEntity;
+import com.github.waitlight.asskicker.model.ChannelProvider;
+import com.github.waitlight.asskicker.model.ChannelType;
+import com.github.waitlight.asskicker.service.RecordService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * 通道选择基准：旧实现（每次遍历 ConcurrentHashMap 过滤取最小 code）对比预构建的 {@link ChannelRoutingTable}。
+ * <p>
+ * 不随单元测试执行，手动运行 main 方法：
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.github.waitlight.asskicker.channel.ChannelRoutingBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChannelRoutingBenchmark {
+
+    private static final Comparator<AbstractChannel<?>> BY_CODE = Comparator
+            .comparing(AbstractChannel::getCode);
+    private static final ChannelType[] TYPES = ChannelType.values();
+    private static final ChannelProvider[] PROVIDERS = ChannelProvider.values();
+
+    @Param({ "10", "100", "1000" })
+    public int channelCount;
+
+    private final ConcurrentHashMap<String, AbstractChannel<?>> cache = new ConcurrentHashMap<>();
+    private ChannelRoutingTable table;
+    private ChannelType type;
+    private ChannelProvider provider;
+
+    @Setup
+    public void setUp() {
+        RecordService recordService = mock(RecordService.class);
+        ObjectMapper mapper = new ObjectMapper();
+        WebClient webClient = WebClient.create();
+        for (int i = 0; i < channelCount; i++) {
+            ChannelEntity entity = new ChannelEntity();
+            entity.setId("id-" + i);
+            entity.setCode(String.format("code-%05d", i));
+            entity.setType(TYPES[i % TYPES.length]);
+            entity.setProvider(PROVIDERS[i % PROVIDERS.length]);
+            cache.put(entity.getId(), new NoOpChannel(entity, webClient, mapper, recordService));
+        }
+        table = ChannelRoutingTable.build(cache.values(), new ChannelRoutingProperties());
+        AbstractChannel<?> target = cache.get("id-" + (channelCount - 1));
+        type = target.getType();
+        provider = target.getProvider();
+    }
+
+    @Benchmark
+    public AbstractChannel<?> streamFilter() {
+        return cache.values().stream()
+                .filter(c -> c.getType() == type)
+                .filter(c -> c.getProvider() == provider)
+                .min(BY_CODE)
+                .orElse(null);
+    }
+
+    @Benchmark
+    public AbstractChannel<?> routingTable() {
+        ChannelSelector selector = table.selector(type, provider);
+        return selector == null ? null : selector.select();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ChannelRoutingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private static final class NoOpChannel extends AbstractChannel<SendReq> {
+
+        NoOpChannel(ChannelEntity entity, WebClient webClient, ObjectMapper objectMapper,
+                    RecordService recordService) {
+            super(entity, webClient, objectMapper, recordService);
+        }
+
+        @Override
+        protected Mono<String> doSend(SendReq req) {
+            return Mono.empty();
+        }
+
+        @Override
+        public void dispose() {
+
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.waitlight.asskicker.channel;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.waitlight.asskicker.channel.impl.SmsReq;
+import com.github.waitlight.asskicker.model.ChannelEntity;
+import com.github.waitlight.asskicker.model.ChannelProvider;
+import com.github.waitlight.asskicker.model.ChannelType;
+import com.github.waitlight.asskicker.service.RecordService;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ChannelSelectorTest {
+
+    @Test
+    void roundRobin_cyclesInCodeOrder() {
+        AbstractChannel<?>[] channels = { channel("a", 1), channel("b", 1), channel("c", 1) };
+        ChannelSelector selector = ChannelSelector.of(ChannelSelectionStrategy.ROUND_ROBIN, channels);
+
+        StringBuilder picked = new StringBuilder();
+        for (int i = 0; i < 6; i++) {
+            picked.append(selector.select().getCode());
+        }
+
+        assertThat(picked.toString()).isEqualTo("abcabc");
+    }
+
+    @Test
+    void weighted_followsConfiguredWeights() {
+        AbstractChannel<?>[] channels = { channel("a", 1), channel("b", 3) };
+        ChannelSelector selector = ChannelSelector.of(ChannelSelectionStrategy.WEIGHTED, channels);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 40_000; i++) {
+            counts.merge(selector.select().getCode(), 1, Integer::sum);
+        }
+
+        assertThat(counts.get("b") / (double) counts.get("a")).isBetween(2.7, 3.3);
+    }
+
+    @Test
+    void leastInFlight_skipsBusyChannel() {
+        PendingChannel busy = channel("a", 1);
+        PendingChannel idle = channel("b", 1);
+        ChannelSelector selector = ChannelSelector.of(ChannelSelectionStrategy.LEAST_IN_FLIGHT,
+                new AbstractChannel<?>[] { busy, idle });
+
+        busy.send(new SmsReq()).subscribe();
+
+        assertThat(busy.getInFlight()).isEqualTo(1);
+        for (int i = 0; i < 4; i++) {
+            assertThat(selector.select()).isSameAs(idle);
+        }
+        busy.pending.tryEmitValue("ok");
+        assertThat(busy.getInFlight()).isZero();
+    }
+
+    private static PendingChannel channel(String code, int weight) {
+        ChannelEntity entity = new ChannelEntity();
+        entity.setId(code);
+        entity.setCode(code);
+        entity.setType(ChannelType.SMS);
+        entity.setProvider(ChannelProvider.ALIYUN);
+        entity.setWeight(weight);
+        return new PendingChannel(entity, WebClient.create(), ChannelTestObjectMappers.channelObjectMapper(),
+                mock(RecordService.class));
+    }
+
+    private static final class PendingChannel extends AbstractChannel<SendReq> {
+
+        private final Sinks.One<String> pending = Sinks.one();
+
+        PendingChannel(ChannelEntity entity, WebClient webClient, ObjectMapper objectMapper,
+                       RecordService recordService) {
+            super(entity, webClient, objectMapper, recordService);
+        }
+
+        @Override
+        protected Mono<String> doSend(SendReq req) {
+            return pending.asMono();
+        }
+
+        @Override
+        public void dispose() {
+
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.waitlight.asskicker.channel;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestBatcherTest {
+
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    @Test
+    void submit_concurrentCallers_allBatchedAndCompleted() {
+        RequestBatcher<Pending> batcher = batcher(Duration.ofMillis(20));
+        StepVerifier.create(Flux.range(0, 500)
+                        .parallel(8)
+                        .runOn(Schedulers.parallel())
+                        .flatMap(i -> submit(batcher, i))
+                        .sequential()
+                        .reduce(0, Integer::sum))
+                .expectNext(500 * 499 / 2)
+                .verifyComplete();
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(500);
+        assertThat(batchSizes).allMatch(size -> size <= 50);
+        batcher.close();
+    }
+
+    @Test
+    void close_flushesBufferedEntries_andRejectsLaterSubmits() {
+        RequestBatcher<Pending> batcher = batcher(Duration.ofHours(1));
+        Mono<Integer> buffered = submit(batcher, 7).cache();
+        buffered.subscribe();
+
+        batcher.close();
+
+        StepVerifier.create(buffered).expectNext(7).verifyComplete();
+        StepVerifier.create(submit(batcher, 8))
+                .expectErrorMessage("test batcher closed")
+                .verify();
+    }
+
+    private RequestBatcher<Pending> batcher(Duration linger) {
+        return new RequestBatcher<>("test batcher", Pending.class, 50, linger, 4, batch -> {
+            batchSizes.add(batch.size());
+            batch.forEach(p -> p.sink().success(p.value()));
+            return Mono.empty();
+        }, (p, e) -> p.sink().error(e));
+    }
+
+    private static Mono<Integer> submit(RequestBatcher<Pending> batcher, int value) {
+        return Mono.create(sink -> batcher.submit(new Pending(value, sink)));
+    }
+
+    private record Pending(int value, MonoSink<Integer> sink) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.waitlight.asskicker.channel.impl;
+
+import com.github.waitlight.asskicker.channel.AsyncSemaphore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Sinks;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ApnsMetricsListenerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void bind_refreshedInstance_takesOverGaugesAndSharesCounters() {
+        ApnsMetricsListener previous = new ApnsMetricsListener("apns-refresh");
+        ApnsMetricsListener current = new ApnsMetricsListener("apns-refresh");
+        AsyncSemaphore currentPermits = new AsyncSemaphore(1);
+        Sinks.Empty<Void> pending = Sinks.empty();
+        currentPermits.withPermit(pending::asMono).subscribe();
+
+        previous.bind(registry, new AsyncSemaphore(1));
+        current.bind(registry, currentPermits);
+        previous.handleNotificationSent(null, 1);
+        current.handleNotificationSent(null, 2);
+
+        assertThat(registry.find("asskicker.apns.in-flight").tag("channel", "apns-refresh").gauges()).hasSize(1);
+        assertThat(registry.get("asskicker.apns.in-flight").tag("channel", "apns-refresh").gauge().value())
+                .isEqualTo(1);
+        assertThat(registry.get("asskicker.apns.notifications").tag("result", "sent").counter().count())
+                .isEqualTo(2);
+        pending.tryEmitEmpty();
+    }
+
+    @Test
+    void unboundListener_dropsEvents_andUnbindRemovesMeters() {
+        ApnsMetricsListener detached = new ApnsMetricsListener("apns-removed");
+        detached.handleNotificationSent(null, 1);
+        assertThat(registry.getMeters()).isEmpty();
+
+        ApnsMetricsListener listener = new ApnsMetricsListener("apns-removed");
+        listener.bind(registry, new AsyncSemaphore(1));
+        listener.unbind();
+        listener.handleNotificationRejected(null, 1);
+
+        assertThat(registry.find("asskicker.apns.in-flight").tag("channel", "apns-removed").gauge()).isNull();
+        assertThat(registry.find("asskicker.apns.notifications").tag("channel", "apns-removed").counters()).isEmpty();
+    }
+}
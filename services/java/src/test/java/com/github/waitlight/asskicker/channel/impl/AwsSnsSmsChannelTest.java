@@ -0,0 +1,163 @@
+package com.github.waitlight.asskicker.channel.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.waitlight.asskicker.exception.SendException;
+import com.github.waitlight.asskicker.model.ChannelEntity;
+import com.github.waitlight.asskicker.model.ChannelProvider;
+import com.github.waitlight.asskicker.model.ChannelType;
+import com.github.waitlight.asskicker.service.RecordService;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 以 MockWebServer 作为本地 SNS 替身，按 SNS Query 协议返回 XML 响应
+ */
+class AwsSnsSmsChannelTest {
+
+    private static final String NS = "xmlns=\"http://sns.amazonaws.com/doc/2010-03-31/\"";
+
+    private MockWebServer server;
+    private AwsSnsSmsChannel channel;
+
+    @BeforeEach
+    void start() throws Exception {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        if (channel != null) {
+            channel.dispose();
+        }
+        server.shutdown();
+    }
+
+    @Test
+    void send_publishesToPhoneNumberWithSmsAttributes() throws Exception {
+        server.enqueue(xml(200, "<PublishResponse " + NS + "><PublishResult><MessageId>msg-1</MessageId>"
+                + "</PublishResult><ResponseMetadata><RequestId>r</RequestId></ResponseMetadata></PublishResponse>"));
+        channel = channel(Map.of("senderId", "ASSKICKER"));
+        SmsReq req = sms("13800000000", "验证码 123456");
+
+        StepVerifier.create(channel.execute(req))
+                .expectNext("msg-1")
+                .verifyComplete();
+        // 正文只由直发通道记录，按服务商模板发送的通道不记录本地渲染结果
+        assertThat(channel.renderedContent(req)).isEqualTo("验证码 123456");
+        assertThat(req.renderedContent()).isNull();
+
+        Map<String, String> form = form(server.takeRequest());
+        assertThat(form.get("Action")).isEqualTo("Publish");
+        assertThat(form.get("PhoneNumber")).isEqualTo("+8613800000000");
+        assertThat(form.get("Message")).isEqualTo("验证码 123456");
+        assertThat(form).containsValues("AWS.SNS.SMS.SMSType", "Transactional", "AWS.SNS.SMS.SenderID", "ASSKICKER");
+    }
+
+    @Test
+    void send_errorResponse_failsWithSendException() {
+        server.enqueue(xml(400, "<ErrorResponse " + NS + "><Error><Type>Sender</Type><Code>InvalidParameter</Code>"
+                + "<Message>Invalid parameter: PhoneNumber</Message></Error><RequestId>r</RequestId></ErrorResponse>"));
+        channel = channel(Map.of());
+
+        StepVerifier.create(channel.execute(sms("13800000000", "hello")))
+                .expectErrorSatisfies(e -> assertThat(e).isInstanceOf(SendException.class)
+                        .hasMessage("AWS_SNS InvalidParameter: Invalid parameter: PhoneNumber"))
+                .verify();
+    }
+
+    @Test
+    void send_topicFanOut_coalescesIntoPublishBatch_andMapsEntriesBack() throws Exception {
+        server.enqueue(xml(200, "<PublishBatchResponse " + NS + "><PublishBatchResult>"
+                + "<Successful><member><Id>0</Id><MessageId>m-0</MessageId></member>"
+                + "<member><Id>2</Id><MessageId>m-2</MessageId></member></Successful>"
+                + "<Failed><member><Id>1</Id><Code>InvalidParameter</Code><Message>bad entry</Message>"
+                + "<SenderFault>true</SenderFault></member></Failed>"
+                + "</PublishBatchResult><ResponseMetadata><RequestId>r</RequestId></ResponseMetadata>"
+                + "</PublishBatchResponse>"));
+        channel = channel(Map.of("topicArn", "arn:aws:sns:us-east-1:000000000000:notice", "batchLingerMs", "200"));
+
+        StepVerifier.create(Flux.mergeSequential(
+                        channel.execute(sms("13800000000", "a")),
+                        channel.execute(sms("13800000001", "b")).onErrorResume(e -> Mono.just(e.getMessage())),
+                        channel.execute(sms("13800000002", "c"))))
+                .expectNext("m-0", "AWS_SNS InvalidParameter: bad entry", "m-2")
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        Map<String, String> form = form(server.takeRequest());
+        assertThat(form.get("Action")).isEqualTo("PublishBatch");
+        assertThat(form.get("TopicArn")).isEqualTo("arn:aws:sns:us-east-1:000000000000:notice");
+        assertThat(form).containsKey("PublishBatchRequestEntries.member.3.Id");
+        assertThat(form).containsValues("phone_number", "+8613800000002");
+        assertThat(server.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void send_withoutContent_failsFast() {
+        channel = channel(Map.of());
+
+        StepVerifier.create(channel.execute(sms("13800000000", null)))
+                .expectError(IllegalArgumentException.class)
+                .verify();
+        assertThat(server.getRequestCount()).isZero();
+    }
+
+    private AwsSnsSmsChannel channel(Map<String, String> overrides) {
+        Map<String, String> properties = new HashMap<>(Map.of(
+                "accessKeyId", "AKIDEXAMPLE",
+                "secretAccessKey", "secret",
+                "region", "us-east-1",
+                "endpoint", server.url("/").toString()));
+        properties.putAll(overrides);
+        ChannelEntity entity = new ChannelEntity();
+        entity.setCode("aws-sns");
+        entity.setType(ChannelType.SMS);
+        entity.setProvider(ChannelProvider.AWS);
+        entity.setProperties(properties);
+        return new AwsSnsSmsChannel(entity, WebClient.create(), new ObjectMapper(), mock(RecordService.class));
+    }
+
+    private static SmsReq sms(String phone, String content) {
+        SmsReq req = new SmsReq();
+        req.setType(ChannelType.SMS);
+        req.setCountryCode("86");
+        req.setPhoneNumber(phone);
+        req.setSignName("sign");
+        req.setContent(content);
+        return req;
+    }
+
+    private static Map<String, String> form(RecordedRequest request) {
+        Map<String, String> form = new HashMap<>();
+        for (String pair : request.getBody().readUtf8().split("&")) {
+            int eq = pair.indexOf('=');
+            form.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return form;
+    }
+
+    private static MockResponse xml(int status, String body) {
+        return new MockResponse().setResponseCode(status)
+                .setHeader("Content-Type", "text/xml")
+                .setBody(body);
+    }
+}
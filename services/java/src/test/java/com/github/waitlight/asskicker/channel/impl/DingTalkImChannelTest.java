@@ -0,0 +1,46 @@
+package com.github.waitlight.asskicker.channel.impl;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DingTalkImChannelTest {
+
+    @Test
+    void buildSignedUrl_cachedMacAcrossSecrets_matchesFreshSignature() throws Exception {
+        long timestamp = 1700000000000L;
+        for (String secret : new String[] { "SEC-a", "SEC-a", "SEC-b", "SEC-a" }) {
+            assertThat(DingTalkImChannel.buildSignedUrl("tok", secret, timestamp))
+                    .isEqualTo("https://oapi.dingtalk.com/robot/send?access_token=tok&timestamp=" + timestamp
+                            + "&sign=" + freshSign(secret, timestamp));
+        }
+    }
+
+    @Test
+    void buildSignedUrl_withoutSecret_omitsSignature() {
+        assertThat(DingTalkImChannel.buildSignedUrl("tok", null, 1L))
+                .isEqualTo("https://oapi.dingtalk.com/robot/send?access_token=tok");
+    }
+
+    @Test
+    void buildBody_textMessage() {
+        ImReq req = new ImReq();
+        req.setContent("hello");
+        assertThat(DingTalkImChannel.buildBody(req))
+                .isEqualTo(Map.of("msgtype", "text", "text", Map.of("content", "hello")));
+    }
+
+    private static String freshSign(String secret, long timestamp) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        byte[] data = mac.doFinal((timestamp + "\n" + secret).getBytes(StandardCharsets.UTF_8));
+        return URLEncoder.encode(Base64.getEncoder().encodeToString(data), StandardCharsets.UTF_8);
+    }
+}
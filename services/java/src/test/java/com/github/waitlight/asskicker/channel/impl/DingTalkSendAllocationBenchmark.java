@@ -0,0 +1,87 @@
+package com.github.waitlight.asskicker.channel.impl;
+
+import com.dingtalk.api.DefaultDingTalkClient;
+import com.dingtalk.api.request.OapiRobotSendRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 钉钉机器人单条发送的准备开销（签名 URL + 请求对象，不含网络 I/O）：
+ * 旧实现每条新建 Mac 与 DefaultDingTalkClient / OapiRobotSendRequest，新实现复用线程内 Mac 并只构造 WebClient 请求体。
+ * <p>
+ * 关注 gc.alloc.rate.norm（每次调用分配字节数）。不随单元测试执行，手动运行 main 方法：
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.github.waitlight.asskicker.channel.impl.DingTalkSendAllocationBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DingTalkSendAllocationBenchmark {
+
+    private static final String WEBHOOK_URL = "https://oapi.dingtalk.com/robot/send";
+
+    private ImReq req;
+
+    @Setup
+    public void setUp() {
+        req = new ImReq();
+        req.setToken("0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef");
+        req.setSecret("SEC0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef");
+        req.setContent("告警：订单服务 p99 延迟超过阈值");
+    }
+
+    @Benchmark
+    public void legacySdk(Blackhole bh) throws Exception {
+        long timestamp = System.currentTimeMillis();
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(req.getSecret().getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        byte[] signData = mac.doFinal((timestamp + "\n" + req.getSecret()).getBytes(StandardCharsets.UTF_8));
+        String sign = URLEncoder.encode(Base64.getEncoder().encodeToString(signData), StandardCharsets.UTF_8);
+        String url = WEBHOOK_URL + "?access_token=" + req.getToken() + "&timestamp=" + timestamp + "&sign=" + sign;
+
+        DefaultDingTalkClient client = new DefaultDingTalkClient(url);
+        OapiRobotSendRequest request = new OapiRobotSendRequest();
+        request.setMsgtype("text");
+        OapiRobotSendRequest.Text text = new OapiRobotSendRequest.Text();
+        text.setContent(req.getContent());
+        request.setText(text);
+        bh.consume(client);
+        bh.consume(request);
+    }
+
+    @Benchmark
+    public void webClient(Blackhole bh) {
+        bh.consume(DingTalkImChannel.buildSignedUrl(req.getToken(), req.getSecret(), System.currentTimeMillis()));
+        bh.consume(DingTalkImChannel.buildBody(req));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DingTalkSendAllocationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
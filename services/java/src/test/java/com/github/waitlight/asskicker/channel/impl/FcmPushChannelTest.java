@@ -0,0 +1,138 @@
+package com.github.waitlight.asskicker.channel.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.waitlight.asskicker.model.ChannelEntity;
+import com.github.waitlight.asskicker.model.ChannelProvider;
+import com.github.waitlight.asskicker.model.ChannelType;
+import com.github.waitlight.asskicker.service.RecordService;
+import com.google.api.core.ApiFutures;
+import com.google.firebase.messaging.BatchResponse;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.google.firebase.messaging.SendResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FcmPushChannelTest {
+
+    private final FirebaseMessaging messaging = mock(FirebaseMessaging.class);
+    private FcmPushChannel channel;
+
+    @AfterEach
+    void tearDown() {
+        if (channel != null) {
+            channel.dispose();
+        }
+    }
+
+    @Test
+    void doSend_concurrentRequests_coalescedIntoOneSendEachAsync_withPerTokenResults() {
+        channel = channel(Map.of("batchMaxSize", "3", "batchLingerMs", "5000"));
+        FirebaseMessagingException invalid = mock(FirebaseMessagingException.class);
+        when(invalid.getMessagingErrorCode()).thenReturn(MessagingErrorCode.UNREGISTERED);
+        when(invalid.getMessage()).thenReturn("token not registered");
+        BatchResponse response = batchResponse(success("m-1"), failure(invalid), success("m-3"));
+        when(messaging.sendEachAsync(anyList())).thenReturn(ApiFutures.immediateFuture(response));
+
+        List<Mono<String>> sends = new ArrayList<>();
+        for (String token : List.of("t1", "t2", "t3")) {
+            sends.add(channel.doSend(push(token)).onErrorResume(e -> Mono.just("error: " + e.getMessage())));
+        }
+
+        StepVerifier.create(Flux.mergeSequential(sends))
+                .expectNext("FCM ok name=m-1")
+                .expectNext("error: FCM UNREGISTERED: token not registered")
+                .expectNext("FCM ok name=m-3")
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Message>> batch = ArgumentCaptor.forClass(List.class);
+        verify(messaging, times(1)).sendEachAsync(batch.capture());
+        assertThat(batch.getValue()).hasSize(3);
+    }
+
+    @Test
+    void doSend_batchCallFails_failsEveryRequestInBatch() {
+        channel = channel(Map.of("batchMaxSize", "2", "batchLingerMs", "5000"));
+        when(messaging.sendEachAsync(anyList()))
+                .thenReturn(ApiFutures.immediateFailedFuture(new IOException("connection reset")));
+
+        StepVerifier.create(Flux.merge(channel.doSend(push("t1")), channel.doSend(push("t2")))
+                        .onErrorResume(e -> Mono.just(e.getMessage())))
+                .expectNext("connection reset")
+                .expectComplete()
+                .verify(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void doSend_afterDispose_failsInsteadOfHanging() {
+        channel = channel(Map.of());
+        channel.dispose();
+
+        StepVerifier.create(channel.doSend(push("t1")))
+                .expectErrorMessage("FCM channel fcm-test closed")
+                .verify(Duration.ofSeconds(2));
+    }
+
+    private FcmPushChannel channel(Map<String, String> properties) {
+        ChannelEntity entity = new ChannelEntity();
+        entity.setId("fcm-test");
+        entity.setCode("fcm-test");
+        entity.setType(ChannelType.FCM);
+        entity.setProvider(ChannelProvider.GOOGLE);
+        entity.setProperties(new HashMap<>(properties));
+        return FcmPushChannel.forTesting(entity, WebClient.create(), new ObjectMapper(),
+                mock(RecordService.class), messaging);
+    }
+
+    private static PushReq push(String token) {
+        PushReq req = new PushReq();
+        req.setType(ChannelType.FCM);
+        req.setDeviceToken(token);
+        req.setTitle("title");
+        req.setBody("body");
+        return req;
+    }
+
+    private static BatchResponse batchResponse(SendResponse... responses) {
+        BatchResponse response = mock(BatchResponse.class);
+        when(response.getResponses()).thenReturn(List.of(responses));
+        return response;
+    }
+
+    private static SendResponse success(String messageId) {
+        SendResponse response = mock(SendResponse.class);
+        when(response.isSuccessful()).thenReturn(true);
+        when(response.getMessageId()).thenReturn(messageId);
+        return response;
+    }
+
+    private static SendResponse failure(FirebaseMessagingException e) {
+        SendResponse response = mock(SendResponse.class);
+        when(response.isSuccessful()).thenReturn(false);
+        when(response.getException()).thenReturn(e);
+        return response;
+    }
+}
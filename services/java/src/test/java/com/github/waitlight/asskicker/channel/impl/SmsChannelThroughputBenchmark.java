@@ -0,0 +1,147 @@
+package com.github.waitlight.asskicker.channel.impl;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.waitlight.asskicker.channel.BlockingExecutor;
+import com.github.waitlight.asskicker.channel.ChannelExecutors;
+import com.github.waitlight.asskicker.config.ChannelBlockingConfig.ChannelBlockingProperties;
+import com.github.waitlight.asskicker.model.ChannelEntity;
+import com.github.waitlight.asskicker.model.ChannelProvider;
+import com.github.waitlight.asskicker.model.ChannelType;
+import com.github.waitlight.asskicker.service.RecordService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * 短信发送吞吐基准：本地 MockWebServer 以固定延迟模拟厂商接口，对比
+ * <ul>
+ *     <li>{@code webClient}：{@link TencentSmsHttpChannel} 经共享 WebClient 非阻塞发送；</li>
+ *     <li>{@code blockingExecutor}：SDK 路径的等价模型——同步 HTTP 调用在通道专属 {@link BlockingExecutor}
+ *     （默认 16 并发）上执行，每个在途请求占用一个线程。厂商 SDK 只能走 https 且地址不可指向本地，
+ *     这里用 JDK 同步 HttpClient 代替 SDK 内部的同步调用。</li>
+ * </ul>
+ * 每次调用并发发出 {@value #BATCH} 条，按条计吞吐。不随单元测试执行，手动运行 main 方法：
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.github.waitlight.asskicker.channel.impl.SmsChannelThroughputBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class SmsChannelThroughputBenchmark {
+
+    private static final int BATCH = 256;
+    private static final String RESPONSE = "{\"Response\":{\"SendStatusSet\":[{\"SerialNo\":\"sn\",\"Code\":\"Ok\","
+            + "\"Message\":\"send success\"}],\"RequestId\":\"r\"}}";
+
+    @Param({ "20", "100" })
+    public long latencyMs;
+
+    private MockWebServer server;
+    private TencentSmsHttpChannel channel;
+    private BlockingExecutor blockingExecutor;
+    private HttpClient httpClient;
+    private URI uri;
+    private SmsReq req;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setBody(RESPONSE)
+                        .setHeadersDelay(latencyMs, TimeUnit.MILLISECONDS);
+            }
+        });
+        server.start();
+        uri = server.url("/").uri();
+
+        ChannelEntity entity = new ChannelEntity();
+        entity.setCode("tencent-sms-bench");
+        entity.setType(ChannelType.SMS);
+        entity.setProvider(ChannelProvider.TENCENT);
+        entity.setProperties(new HashMap<>(Map.of("secretId", "sid", "secretKey", "skey",
+                "smsSdkAppId", "1400000000", "endpoint", "http://localhost:" + server.getPort())));
+        ObjectMapper mapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        channel = new TencentSmsHttpChannel(entity, WebClient.create(), mapper, mock(RecordService.class));
+        blockingExecutor = new ChannelExecutors(new ChannelBlockingProperties(), new SimpleMeterRegistry())
+                .create(entity);
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        req = new SmsReq();
+        req.setType(ChannelType.SMS);
+        req.setCountryCode("86");
+        req.setPhoneNumber("13800000000");
+        req.setSignName("sign");
+        req.setTemplateCode("1");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Object webClient() {
+        return Flux.range(0, BATCH)
+                .flatMap(i -> channel.execute(req), BATCH)
+                .blockLast();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Object blockingExecutor() {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .POST(HttpRequest.BodyPublishers.ofString("{}"))
+                .header("Content-Type", "application/json")
+                .build();
+        return Flux.range(0, BATCH)
+                .flatMap(i -> blockingExecutor.submit(
+                        () -> httpClient.send(request, HttpResponse.BodyHandlers.ofString()).body()), BATCH)
+                .blockLast();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SmsChannelThroughputBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
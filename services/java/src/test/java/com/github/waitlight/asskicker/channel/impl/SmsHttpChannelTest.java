@@ -0,0 +1,208 @@
+package com.github.waitlight.asskicker.channel.impl;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.waitlight.asskicker.exception.SendException;
+import com.github.waitlight.asskicker.model.ChannelEntity;
+import com.github.waitlight.asskicker.model.ChannelProvider;
+import com.github.waitlight.asskicker.model.ChannelType;
+import com.github.waitlight.asskicker.service.RecordService;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.test.StepVerifier;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class SmsHttpChannelTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private MockWebServer server;
+
+    @BeforeEach
+    void start() throws Exception {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void stop() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    void aliyunSigner_matchesDocumentedExample() {
+        TreeMap<String, String> params = new TreeMap<>();
+        params.put("Timestamp", "2016-02-23T12:46:24Z");
+        params.put("Format", "XML");
+        params.put("AccessKeyId", "testid");
+        params.put("Action", "DescribeRegions");
+        params.put("SignatureMethod", "HMAC-SHA1");
+        params.put("SignatureNonce", "3ee8c1b8-83d3-44af-a94f-4e0ad82fd6cf");
+        params.put("Version", "2014-05-26");
+        params.put("SignatureVersion", "1.0");
+
+        assertThat(AliyunRpcSigner.sign("GET", params, "testsecret")).isEqualTo("OLeaidS1JvxuMvnyHOwuJ+uX5qY=");
+    }
+
+    @Test
+    void aliyun_send_postsSignedFormAndReturnsBizId() throws Exception {
+        server.enqueue(json(200, "{\"Code\":\"OK\",\"Message\":\"OK\",\"BizId\":\"biz-1\",\"RequestId\":\"r\"}"));
+        AliyunSmsHttpChannel channel = new AliyunSmsHttpChannel(entity(ChannelProvider.ALIYUN,
+                Map.of("accessKeyId", "ak", "accessKeySecret", "secret", "endpoint", endpoint())),
+                WebClient.create(), MAPPER, mock(RecordService.class));
+
+        StepVerifier.create(channel.execute(sms())).expectNext("biz-1").verifyComplete();
+
+        RecordedRequest request = server.takeRequest();
+        assertThat(request.getMethod()).isEqualTo("POST");
+        TreeMap<String, String> params = parseForm(request.getBody().readUtf8());
+        String signature = params.remove("Signature");
+        assertThat(signature).isEqualTo(AliyunRpcSigner.sign("POST", params, "secret"));
+        assertThat(params)
+                .containsEntry("AccessKeyId", "ak")
+                .containsEntry("Action", "SendSms")
+                .containsEntry("PhoneNumbers", "13800000000")
+                .containsEntry("TemplateParam", "{\"code\":\"1234 5*~\"}");
+    }
+
+    @Test
+    void aliyun_errorCode_failsWithSendException() {
+        server.enqueue(json(400, "{\"Code\":\"isv.BUSINESS_LIMIT_CONTROL\",\"Message\":\"limited\"}"));
+        AliyunSmsHttpChannel channel = new AliyunSmsHttpChannel(entity(ChannelProvider.ALIYUN,
+                Map.of("accessKeyId", "ak", "accessKeySecret", "secret", "endpoint", endpoint())),
+                WebClient.create(), MAPPER, mock(RecordService.class));
+
+        StepVerifier.create(channel.execute(sms()))
+                .expectErrorSatisfies(e -> assertThat(e).isInstanceOf(SendException.class)
+                        .hasMessageContaining("BUSINESS_LIMIT_CONTROL"))
+                .verify();
+    }
+
+    @Test
+    void tencent_send_signsTc3AndReturnsSerialNo() throws Exception {
+        server.enqueue(json(200, "{\"Response\":{\"SendStatusSet\":[{\"SerialNo\":\"sn-1\",\"Code\":\"Ok\","
+                + "\"Message\":\"send success\"}],\"RequestId\":\"r\"}}"));
+        TencentSmsHttpChannel channel = new TencentSmsHttpChannel(entity(ChannelProvider.TENCENT,
+                Map.of("secretId", "sid", "secretKey", "skey", "smsSdkAppId", "1400000000",
+                        "endpoint", endpoint())),
+                WebClient.create(), MAPPER, mock(RecordService.class));
+
+        StepVerifier.create(channel.execute(sms())).expectNext("sn-1").verifyComplete();
+
+        RecordedRequest request = server.takeRequest();
+        byte[] body = request.getBody().readByteArray();
+        String expected = tc3Authorization("sid", "skey", request.getHeader("Host"),
+                request.getHeader("Content-Type"), Long.parseLong(request.getHeader("X-TC-Timestamp")), body);
+        assertThat(request.getHeader("Authorization")).isEqualTo(expected);
+        assertThat(request.getHeader("X-TC-Action")).isEqualTo("SendSms");
+        JsonNode json = MAPPER.readTree(body);
+        assertThat(json.get("PhoneNumberSet").get(0).asText()).isEqualTo("+8613800000000");
+        assertThat(json.get("TemplateParamSet").get(0).asText()).isEqualTo("1234 5*~");
+    }
+
+    @Test
+    void tencent_errorResponse_failsWithSendException() {
+        server.enqueue(json(200, "{\"Response\":{\"Error\":{\"Code\":\"AuthFailure.SignatureFailure\","
+                + "\"Message\":\"bad signature\"},\"RequestId\":\"r\"}}"));
+        TencentSmsHttpChannel channel = new TencentSmsHttpChannel(entity(ChannelProvider.TENCENT,
+                Map.of("secretId", "sid", "secretKey", "skey", "smsSdkAppId", "1400000000",
+                        "endpoint", endpoint())),
+                WebClient.create(), MAPPER, mock(RecordService.class));
+
+        StepVerifier.create(channel.execute(sms()))
+                .expectErrorSatisfies(e -> assertThat(e).isInstanceOf(SendException.class)
+                        .hasMessageContaining("AuthFailure.SignatureFailure"))
+                .verify();
+    }
+
+    private String endpoint() {
+        return "http://localhost:" + server.getPort();
+    }
+
+    private static MockResponse json(int status, String body) {
+        return new MockResponse().setResponseCode(status).setHeader("Content-Type", "application/json")
+                .setBody(body);
+    }
+
+    private static ChannelEntity entity(ChannelProvider provider, Map<String, String> properties) {
+        ChannelEntity entity = new ChannelEntity();
+        entity.setCode(provider.name().toLowerCase() + "-sms-http");
+        entity.setType(ChannelType.SMS);
+        entity.setProvider(provider);
+        entity.setProperties(new HashMap<>(properties));
+        return entity;
+    }
+
+    private static SmsReq sms() {
+        SmsReq req = new SmsReq();
+        req.setType(ChannelType.SMS);
+        req.setCountryCode("86");
+        req.setPhoneNumber("13800000000");
+        req.setSignName("签名");
+        req.setTemplateCode("SMS_1");
+        Map<String, String> params = new LinkedHashMap<>();
+        params.put("code", "1234 5*~");
+        req.setTemplateParams(params);
+        return req;
+    }
+
+    private static TreeMap<String, String> parseForm(String form) {
+        TreeMap<String, String> params = new TreeMap<>();
+        for (String pair : form.split("&")) {
+            int eq = pair.indexOf('=');
+            params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    /**
+     * 按腾讯云 API 3.0 文档独立重算签名，校验实际发出的请求头与请求体
+     */
+    private static String tc3Authorization(String secretId, String secretKey, String host, String contentType,
+                                           long timestamp, byte[] body) throws Exception {
+        HexFormat hex = HexFormat.of();
+        MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+        String canonicalRequest = "POST\n/\n\ncontent-type:" + contentType + "\nhost:" + host
+                + "\nx-tc-action:sendsms\n\ncontent-type;host;x-tc-action\n" + hex.formatHex(sha256.digest(body));
+        String date = DateTimeFormatter.ofPattern("yyyy-MM-dd").withZone(ZoneOffset.UTC)
+                .format(Instant.ofEpochSecond(timestamp));
+        String scope = date + "/sms/tc3_request";
+        String stringToSign = "TC3-HMAC-SHA256\n" + timestamp + "\n" + scope + "\n"
+                + hex.formatHex(sha256.digest(canonicalRequest.getBytes(StandardCharsets.UTF_8)));
+        byte[] key = hmac(("TC3" + secretKey).getBytes(StandardCharsets.UTF_8), date);
+        key = hmac(key, "sms");
+        key = hmac(key, "tc3_request");
+        return "TC3-HMAC-SHA256 Credential=" + secretId + "/" + scope
+                + ", SignedHeaders=content-type;host;x-tc-action, Signature=" + hex.formatHex(hmac(key, stringToSign));
+    }
+
+    private static byte[] hmac(byte[] key, String data) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(key, "HmacSHA256"));
+        return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+    }
+}
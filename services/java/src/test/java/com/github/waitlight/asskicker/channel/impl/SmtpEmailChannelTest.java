@@ -0,0 +1,178 @@
+package com.github.waitlight.asskicker.channel.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.waitlight.asskicker.exception.SendException;
+import com.github.waitlight.asskicker.model.ChannelEntity;
+import com.github.waitlight.asskicker.model.ChannelProvider;
+import com.github.waitlight.asskicker.model.ChannelType;
+import com.github.waitlight.asskicker.service.RecordService;
+import com.icegreen.greenmail.configuration.GreenMailConfiguration;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class SmtpEmailChannelTest {
+
+    @RegisterExtension
+    static final GreenMailExtension GREEN_MAIL = new GreenMailExtension(ServerSetupTest.SMTP)
+            .withConfiguration(GreenMailConfiguration.aConfig().withUser("sender", "secret"))
+            .withPerMethodLifecycle(true);
+
+    @Test
+    void send_sequentialMessages_reuseOneAuthenticatedConnection() throws Exception {
+        SmtpEmailChannel channel = channel(Map.of());
+        try {
+            for (int i = 0; i < 10; i++) {
+                StepVerifier.create(channel.execute(email("user" + i + "@example.com")))
+                        .expectNext("SMTP ok 1 recipient(s)")
+                        .verifyComplete();
+            }
+            assertThat(channel.getPool().getOpened()).isEqualTo(1);
+            MimeMessage[] received = GREEN_MAIL.getReceivedMessages();
+            assertThat(received).hasSize(10);
+            assertThat(received[0].getSubject()).isEqualTo("主题");
+        } finally {
+            channel.dispose();
+        }
+    }
+
+    @Test
+    void send_maxMessagesPerConnection_rotatesConnection() {
+        SmtpEmailChannel channel = channel(Map.of("maxMessagesPerConnection", "4"));
+        try {
+            for (int i = 0; i < 10; i++) {
+                channel.execute(email("user" + i + "@example.com")).block(Duration.ofSeconds(10));
+            }
+            assertThat(channel.getPool().getOpened()).isEqualTo(3);
+            assertThat(GREEN_MAIL.getReceivedMessages()).hasSize(10);
+        } finally {
+            channel.dispose();
+        }
+    }
+
+    @Test
+    void send_batchLargerThanMaxMessagesPerConnection_rotatesWithinBatch() {
+        SmtpEmailChannel channel = channel(Map.of("poolSize", "1", "maxMessagesPerConnection", "3",
+                "batchMaxSize", "10", "batchLingerMs", "5000"));
+        try {
+            StepVerifier.create(Flux.range(0, 10)
+                            .flatMap(i -> channel.execute(email("user" + i + "@example.com")), 10))
+                    .expectNextCount(10)
+                    .verifyComplete();
+            assertThat(channel.getPool().getOpened()).isEqualTo(4);
+            assertThat(GREEN_MAIL.getReceivedMessages()).hasSize(10);
+        } finally {
+            channel.dispose();
+        }
+    }
+
+    @Test
+    void send_concurrentMessages_boundedByPoolSize() {
+        SmtpEmailChannel channel = channel(Map.of("poolSize", "2"));
+        try {
+            StepVerifier.create(Flux.range(0, 20)
+                            .flatMap(i -> channel.execute(email("user" + i + "@example.com")), 8))
+                    .expectNextCount(20)
+                    .verifyComplete();
+            assertThat(channel.getPool().getOpened()).isLessThanOrEqualTo(2);
+            assertThat(GREEN_MAIL.getReceivedMessages()).hasSize(20);
+        } finally {
+            channel.dispose();
+        }
+    }
+
+    @Test
+    void send_envelopeBatching_mergesSameContentPerDomain_andCompletesEachRequest() throws Exception {
+        SmtpEmailChannel channel = channel(Map.of("envelopeBatching", "true", "batchMaxSize", "5",
+                "batchLingerMs", "5000"));
+        EmailReq other = email("d@x.com");
+        other.setSubject("另一个主题");
+        try {
+            StepVerifier.create(Flux.merge(
+                            channel.execute(email("a@x.com")),
+                            channel.execute(email("b@x.com")),
+                            channel.execute(email("c@y.com")),
+                            channel.execute(email("e@X.com")),
+                            channel.execute(other)))
+                    .expectNextCount(5)
+                    .verifyComplete();
+            MimeMessage[] received = GREEN_MAIL.getReceivedMessages();
+            assertThat(received).hasSize(5);
+            // 同一信封投递给多个收件人时 Message-ID 相同：x.com 一封、y.com 一封、不同主题一封
+            assertThat(Arrays.stream(received).map(SmtpEmailChannelTest::messageId).distinct()).hasSize(3);
+            assertThat(received[0].getHeader("To")).containsExactly("undisclosed-recipients:;");
+            assertThat(channel.getPool().getOpened()).isEqualTo(1);
+        } finally {
+            channel.dispose();
+        }
+    }
+
+    @Test
+    void send_invalidAddressInBatch_failsOnlyThatRequest() {
+        SmtpEmailChannel channel = channel(Map.of("envelopeBatching", "true", "batchMaxSize", "3",
+                "batchLingerMs", "5000"));
+        EmailReq badCc = email("c@y.com");
+        badCc.setCc(List.of("bad@@y.com"));
+        try {
+            StepVerifier.create(Flux.mergeDelayError(3,
+                            channel.execute(email("a@x.com")).map(r -> "a"),
+                            channel.execute(email("bad@@x.com")).onErrorReturn(SendException.class, "envelope"),
+                            channel.execute(badCc).onErrorReturn(SendException.class, "single"))
+                            .collectList())
+                    .assertNext(results -> assertThat(results).containsExactlyInAnyOrder("a", "envelope", "single"))
+                    .verifyComplete();
+            assertThat(GREEN_MAIL.getReceivedMessages()).hasSize(1);
+        } finally {
+            channel.dispose();
+        }
+    }
+
+    private static String messageId(MimeMessage message) {
+        try {
+            return message.getMessageID();
+        } catch (MessagingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static SmtpEmailChannel channel(Map<String, String> overrides) {
+        Map<String, String> properties = new HashMap<>(Map.of(
+                "host", "localhost",
+                "port", String.valueOf(ServerSetupTest.SMTP.getPort()),
+                "security", "none",
+                "username", "sender",
+                "password", "secret",
+                "from", "noreply@example.com"));
+        properties.putAll(overrides);
+        ChannelEntity entity = new ChannelEntity();
+        entity.setCode("smtp-test");
+        entity.setType(ChannelType.EMAIL);
+        entity.setProvider(ChannelProvider.SMTP);
+        entity.setProperties(properties);
+        return new SmtpEmailChannel(entity, WebClient.create(), new ObjectMapper(), mock(RecordService.class));
+    }
+
+    private static EmailReq email(String to) {
+        EmailReq req = new EmailReq();
+        req.setType(ChannelType.EMAIL);
+        req.setTo(List.of(to));
+        req.setSubject("主题");
+        req.setBody("正文");
+        return req;
+    }
+}
@@ -0,0 +1,155 @@
+package com.github.waitlight.asskicker.channel.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.waitlight.asskicker.model.ChannelEntity;
+import com.github.waitlight.asskicker.model.ChannelProvider;
+import com.github.waitlight.asskicker.model.ChannelType;
+import com.github.waitlight.asskicker.service.RecordService;
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * SMTP 发送吞吐基准：本地 GreenMail 作为 SMTP 服务端，对比
+ * <ul>
+ *     <li>{@code connectionPerMessage}：原 JavaMailSenderImpl 实现，每封邮件新建连接并认证；</li>
+ *     <li>{@code pooled}：{@link SmtpEmailChannel} 连接池复用已认证会话，逐封发送；</li>
+ *     <li>{@code pooledEnvelopeBatching}：连接池加信封合并，并发提交到 {@value #DOMAINS} 个收件域。</li>
+ * </ul>
+ * 每次调用发出 {@value #BATCH} 封，按封计吞吐。不随单元测试执行，手动运行 main 方法：
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.github.waitlight.asskicker.channel.impl.SmtpThroughputBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class SmtpThroughputBenchmark {
+
+    private static final int BATCH = 64;
+    private static final int DOMAINS = 4;
+
+    private GreenMail greenMail;
+    private JavaMailSenderImpl legacy;
+    private SmtpEmailChannel pooled;
+    private SmtpEmailChannel batched;
+
+    @Setup
+    public void setUp() {
+        greenMail = new GreenMail(ServerSetupTest.SMTP);
+        greenMail.setUser("sender", "secret");
+        greenMail.start();
+
+        legacy = new JavaMailSenderImpl();
+        legacy.setHost("localhost");
+        legacy.setPort(ServerSetupTest.SMTP.getPort());
+        legacy.setUsername("sender");
+        legacy.setPassword("secret");
+        legacy.getJavaMailProperties().put("mail.smtp.auth", "true");
+
+        pooled = channel(Map.of("batchLingerMs", "0"));
+        batched = channel(Map.of("envelopeBatching", "true"));
+    }
+
+    @TearDown(Level.Iteration)
+    public void purge() throws Exception {
+        greenMail.purgeEmailFromAllMailboxes();
+    }
+
+    @TearDown
+    public void tearDown() {
+        pooled.dispose();
+        batched.dispose();
+        greenMail.stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void connectionPerMessage() {
+        for (int i = 0; i < BATCH; i++) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom("noreply@example.com");
+            message.setTo("user" + i + "@example.com");
+            message.setSubject("主题");
+            message.setText("正文");
+            legacy.send(message);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void pooled() {
+        for (int i = 0; i < BATCH; i++) {
+            pooled.execute(email("user" + i + "@example.com")).block(Duration.ofSeconds(10));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Object pooledEnvelopeBatching() {
+        return Flux.range(0, BATCH)
+                .flatMap(i -> batched.execute(email("user" + i + "@example" + (i % DOMAINS) + ".com")), BATCH)
+                .blockLast(Duration.ofSeconds(30));
+    }
+
+    private static SmtpEmailChannel channel(Map<String, String> overrides) {
+        Map<String, String> properties = new HashMap<>(Map.of(
+                "host", "localhost",
+                "port", String.valueOf(ServerSetupTest.SMTP.getPort()),
+                "security", "none",
+                "username", "sender",
+                "password", "secret",
+                "from", "noreply@example.com"));
+        properties.putAll(overrides);
+        ChannelEntity entity = new ChannelEntity();
+        entity.setCode("smtp-bench");
+        entity.setType(ChannelType.EMAIL);
+        entity.setProvider(ChannelProvider.SMTP);
+        entity.setProperties(properties);
+        return new SmtpEmailChannel(entity, WebClient.create(), new ObjectMapper(), mock(RecordService.class));
+    }
+
+    private static EmailReq email(String to) {
+        EmailReq req = new EmailReq();
+        req.setType(ChannelType.EMAIL);
+        req.setTo(List.of(to));
+        req.setSubject("主题");
+        req.setBody("正文");
+        return req;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SmtpThroughputBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.waitlight.asskicker.config;
+
+import com.github.waitlight.asskicker.config.WebClientConfig.Pool;
+import com.github.waitlight.asskicker.config.WebClientConfig.WebClientProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PerHostClientHttpConnectorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private MockWebServer server;
+    private PerHostClientHttpConnector connector;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        WebClientProperties properties = new WebClientProperties();
+        Pool localhost = new Pool();
+        localhost.setMaxConnections(2);
+        localhost.setResponseTimeout(Duration.ofMillis(200));
+        properties.getHosts().put("localhost", localhost);
+        connector = new PerHostClientHttpConnector(properties, registry);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        connector.destroy();
+        server.shutdown();
+    }
+
+    @Test
+    void poolOf_dedicatedHost_overridesOnlyConfiguredFields() {
+        WebClientProperties properties = new WebClientProperties();
+        Pool feishu = new Pool();
+        feishu.setMaxConnections(10);
+        properties.getHosts().put("open.feishu.cn", feishu);
+
+        Pool effective = properties.poolOf("OPEN.FEISHU.CN");
+        assertThat(effective.getMaxConnections()).isEqualTo(10);
+        assertThat(effective.getResponseTimeout()).isEqualTo(properties.getDefaults().getResponseTimeout());
+        assertThat(properties.poolOf("example.com")).isSameAs(properties.getDefaults());
+    }
+
+    @Test
+    void connect_routesByHost_andExportsPoolGauges() {
+        server.enqueue(new MockResponse().setBody("a"));
+        server.enqueue(new MockResponse().setBody("b"));
+        WebClient webClient = WebClient.builder().clientConnector(connector).build();
+
+        StepVerifier.create(webClient.get().uri("http://localhost:" + server.getPort() + "/")
+                        .retrieve().bodyToMono(String.class))
+                .expectNext("a")
+                .verifyComplete();
+        StepVerifier.create(webClient.get().uri("http://127.0.0.1:" + server.getPort() + "/")
+                        .retrieve().bodyToMono(String.class))
+                .expectNext("b")
+                .verifyComplete();
+
+        assertThat(connector.connectorFor("localhost")).isNotSameAs(connector.connectorFor("127.0.0.1"));
+        assertThat(registry.get("asskicker.http.pool.max-allocated").tag("pool", "localhost").gauge().value())
+                .isEqualTo(2);
+        assertThat(registry.get("asskicker.http.pool.max-allocated").tag("pool", "default").gauge().value())
+                .isEqualTo(200);
+    }
+
+    @Test
+    void connect_slowResponse_failsWithPoolResponseTimeout() {
+        server.enqueue(new MockResponse().setBody("late").setHeadersDelay(2, TimeUnit.SECONDS));
+        WebClient webClient = WebClient.builder().clientConnector(connector).build();
+
+        StepVerifier.create(webClient.get().uri("http://localhost:" + server.getPort() + "/")
+                        .retrieve().bodyToMono(String.class))
+                .expectError()
+                .verify(Duration.ofSeconds(2));
+    }
+}
@@ -0,0 +1,117 @@
+package com.github.waitlight.asskicker.mq;
+
+import com.github.waitlight.asskicker.channel.SendReq;
+import com.github.waitlight.asskicker.channel.impl.SmsReq;
+import com.github.waitlight.asskicker.config.RocketMQConfig.RocketMQProperties;
+import com.github.waitlight.asskicker.model.ChannelType;
+import com.github.waitlight.asskicker.service.Sender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SendReqDispatcherTest {
+
+    private final Sender sender = mock(Sender.class);
+    private final List<Sinks.One<String>> started = new ArrayList<>();
+    private SendReqDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        RocketMQProperties properties = new RocketMQProperties();
+        properties.setSendReqsTopic("topic");
+        properties.getConsumer().setMaxInFlight(2);
+        properties.getConsumer().setSuspendThreshold(3);
+        properties.getConsumer().setResumeThreshold(1);
+        when(sender.send(any(SendReq.class))).thenAnswer(invocation -> {
+            Sinks.One<String> sink = Sinks.one();
+            started.add(sink);
+            return sink.asMono();
+        });
+        dispatcher = new SendReqDispatcher(sender, properties, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void dispatch_limitsInFlightPerType_andSignalsPressure() {
+        AtomicInteger saturated = new AtomicInteger();
+        AtomicInteger drained = new AtomicInteger();
+        dispatcher.setPressureListener(new SendReqDispatcher.PressureListener() {
+            @Override
+            public void saturated() {
+                saturated.incrementAndGet();
+            }
+
+            @Override
+            public void drained() {
+                drained.incrementAndGet();
+            }
+        });
+
+        List<String> done = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            String name = "m" + i;
+            dispatcher.dispatch(sms()).subscribe(null, e -> done.add(name + "-error"), () -> done.add(name));
+        }
+
+        assertThat(started).hasSize(2);
+        assertThat(dispatcher.getPending()).isEqualTo(3);
+        assertThat(saturated).hasValue(1);
+
+        started.get(0).tryEmitValue("ok");
+        assertThat(started).hasSize(3);
+        started.get(1).tryEmitError(new IllegalStateException("boom"));
+        assertThat(drained).hasValue(1);
+        started.get(2).tryEmitEmpty();
+
+        assertThat(done).containsExactly("m0", "m1-error", "m2");
+        assertThat(dispatcher.getPending()).isZero();
+    }
+
+    @Test
+    void dispatch_concurrentConsumerThreads_everyTaskCompletes() {
+        when(sender.send(any(SendReq.class))).thenReturn(Mono.just("ok"));
+
+        StepVerifier.create(Flux.range(0, 400)
+                        .parallel(8)
+                        .runOn(Schedulers.parallel())
+                        .flatMap(i -> dispatcher.dispatch(sms()).thenReturn(i))
+                        .sequential()
+                        .count())
+                .expectNext(400L)
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+        assertThat(dispatcher.getPending()).isZero();
+    }
+
+    @Test
+    void dispatch_afterDestroy_fails() {
+        dispatcher.destroy();
+
+        StepVerifier.create(dispatcher.dispatch(sms()))
+                .expectError(CancellationException.class)
+                .verify();
+        assertThat(dispatcher.getPending()).isZero();
+    }
+
+    private static SmsReq sms() {
+        SmsReq req = new SmsReq();
+        req.setType(ChannelType.SMS);
+        req.setPhoneNumber("13800000000");
+        return req;
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.waitlight.asskicker.mq;
+
+import com.github.waitlight.asskicker.channel.SendReq;
+import com.github.waitlight.asskicker.channel.impl.SmsReq;
+import com.github.waitlight.asskicker.config.RocketMQConfig.RocketMQProperties;
+import com.github.waitlight.asskicker.model.ChannelType;
+import org.apache.rocketmq.client.producer.SendCallback;
+import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class SendReqProducerTest {
+
+    private final RocketMQTemplate template = mock(RocketMQTemplate.class);
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private SendReqProducer producer;
+
+    @AfterEach
+    void tearDown() {
+        if (producer != null) {
+            producer.destroy();
+        }
+    }
+
+    @Test
+    void publish_batchEnabled_requestsWithinLingerShareOneMessage() {
+        producer = batchingProducer(64, Duration.ofMillis(200));
+
+        StepVerifier.create(Flux.merge(producer.publish(sms("r1")), producer.publish(sms("r2")),
+                        producer.publish(sms("r3"))).collectList())
+                .assertNext(ids -> assertThat(ids).containsExactlyInAnyOrder("r1", "r2", "r3"))
+                .verifyComplete();
+
+        assertThat(batchSizes).containsExactly(3);
+    }
+
+    @Test
+    void publish_concurrentCallers_allDeliveredInBoundedBatches() {
+        producer = batchingProducer(16, Duration.ofMillis(20));
+
+        StepVerifier.create(Flux.range(0, 200)
+                        .parallel(8)
+                        .runOn(Schedulers.parallel())
+                        .flatMap(i -> producer.publish(sms("r" + i)))
+                        .sequential()
+                        .collectList())
+                .assertNext(ids -> assertThat(ids).hasSize(200).doesNotHaveDuplicates())
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+
+        assertThat(batchSizes).allSatisfy(size -> assertThat(size).isLessThanOrEqualTo(16));
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(200);
+    }
+
+    @Test
+    void publish_afterDestroy_fails() {
+        producer = batchingProducer(64, Duration.ofMillis(5));
+        producer.destroy();
+
+        StepVerifier.create(producer.publish(sms("r1")))
+                .expectError(IllegalStateException.class)
+                .verify();
+    }
+
+    @SuppressWarnings("unchecked")
+    private SendReqProducer batchingProducer(int maxSize, Duration linger) {
+        doAnswer(invocation -> {
+            Collection<Message<SendReq>> messages = invocation.getArgument(1);
+            batchSizes.add(new ArrayList<>(messages).size());
+            Mono.delay(Duration.ofMillis(1))
+                    .subscribe(t -> invocation.<SendCallback>getArgument(2).onSuccess(new SendResult()));
+            return null;
+        }).when(template).asyncSend(eq("topic"), any(Collection.class), any(SendCallback.class));
+        RocketMQProperties properties = new RocketMQProperties();
+        properties.setSendReqsTopic("topic");
+        properties.getProducer().setBatchEnabled(true);
+        properties.getProducer().setBatchMaxSize(maxSize);
+        properties.getProducer().setBatchLinger(linger);
+        return new SendReqProducer(template, properties);
+    }
+
+    private static SmsReq sms(String recordId) {
+        SmsReq req = new SmsReq();
+        req.setType(ChannelType.SMS);
+        req.setRecordId(recordId);
+        req.setPhoneNumber("13800000000");
+        return req;
+    }
+}
@@ -0,0 +1,111 @@
+package com.github.waitlight.asskicker.repository;
+
+import com.github.waitlight.asskicker.model.ChannelType;
+import com.github.waitlight.asskicker.model.RecordEntity;
+import com.github.waitlight.asskicker.model.SendRecordStatus;
+import com.mongodb.WriteConcern;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 发送记录落库基准：旧实现（concatMap 逐条 save，每条一次往返）对比 {@link RecordRepository#writeAll}
+ * 的无序 bulkWrite（终态记录为按 ID upsert）。结果为每秒写入的记录条数。
+ * <p>
+ * 需要本地 MongoDB，连接串通过 -Dbench.mongo.uri 指定（默认 mongodb://localhost:27017），
+ * 写入独立的 asskicker_bench 库并在结束后删除。不随单元测试执行，手动运行 main 方法：
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.github.waitlight.asskicker.repository.RecordBulkInsertBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecordBulkInsertBenchmark {
+
+    private static final int BATCH = 100;
+
+    @Param({ "ACKNOWLEDGED", "MAJORITY" })
+    public String writeConcern;
+
+    private MongoClient client;
+    private ReactiveMongoTemplate template;
+    private RecordRepository repository;
+    private WriteConcern concern;
+    private List<RecordEntity> batch;
+
+    @Setup
+    public void setUp() {
+        client = MongoClients.create(System.getProperty("bench.mongo.uri", "mongodb://localhost:27017"));
+        template = new ReactiveMongoTemplate(client, "asskicker_bench");
+        template.setWriteConcern(WriteConcern.valueOf(writeConcern));
+        repository = new RecordRepository(template);
+        concern = WriteConcern.valueOf(writeConcern);
+    }
+
+    @Setup(Level.Invocation)
+    public void newBatch() {
+        batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            RecordEntity entity = new RecordEntity();
+            entity.setId(ObjectId.get().toString());
+            entity.setTemplateCode("bench");
+            entity.setRecipient("user" + i + "@example.com");
+            entity.setParams(Map.of("code", "123456"));
+            entity.setChannelType(ChannelType.EMAIL);
+            entity.setStatus(SendRecordStatus.SUCCESS);
+            entity.setSentAt(System.currentTimeMillis());
+            batch.add(entity);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        template.dropCollection(RecordEntity.class).block();
+        client.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void perDocumentSave() {
+        Flux.fromIterable(batch).concatMap(template::save).then().block();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void unorderedBulkWrite() {
+        repository.writeAll(repository.toDocuments(batch), concern).block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RecordBulkInsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,229 @@
+package com.github.waitlight.asskicker.repository;
+
+import com.github.waitlight.asskicker.model.RecordEntity;
+import com.github.waitlight.asskicker.model.SendRecordStatus;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecordRepositoryTest {
+
+    private MongoCollection<Document> collection;
+    private ReactiveMongoTemplate template;
+    private RecordRepository repository;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        collection = mock(MongoCollection.class);
+        when(collection.withWriteConcern(any())).thenReturn(collection);
+        template = mock(ReactiveMongoTemplate.class);
+        when(template.getConverter()).thenReturn(converter);
+        when(template.getCollectionName(RecordEntity.class)).thenReturn("records");
+        when(template.getCollection("records")).thenReturn(Mono.just(collection));
+        repository = new RecordRepository(template);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writeAll_unorderedBulkWriteWithWriteConcern_modelPerStatus() {
+        when(collection.bulkWrite(any(List.class), any(BulkWriteOptions.class)))
+                .thenReturn(Mono.just(BulkWriteResult.unacknowledged()));
+        RecordEntity queued = record(SendRecordStatus.QUEUED);
+        queued.setSubmittedAt(1L);
+        RecordEntity sending = record(SendRecordStatus.SENDING);
+        RecordEntity success = record(SendRecordStatus.SUCCESS);
+
+        StepVerifier.create(repository.writeAll(repository.toDocuments(List.of(queued, sending, success)),
+                        WriteConcern.MAJORITY))
+                .expectNext(new RecordRepository.WriteResult(3, 0, 0))
+                .verifyComplete();
+
+        ArgumentCaptor<List<WriteModel<Document>>> models = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<BulkWriteOptions> options = ArgumentCaptor.forClass(BulkWriteOptions.class);
+        verify(collection).withWriteConcern(WriteConcern.MAJORITY);
+        verify(collection).bulkWrite(models.capture(), options.capture());
+        assertThat(options.getValue().isOrdered()).isFalse();
+
+        InsertOneModel<Document> insert = (InsertOneModel<Document>) models.getValue().get(0);
+        assertThat(insert.getDocument().get("_id")).isInstanceOf(ObjectId.class);
+        assertThat(insert.getDocument().get("created_at")).isNotNull();
+
+        UpdateOneModel<Document> markSending = (UpdateOneModel<Document>) models.getValue().get(1);
+        assertThat(markSending.getOptions().isUpsert()).isTrue();
+        assertThat(markSending.getFilter().toBsonDocument().toJson()).contains("\"$in\"");
+        Document sendingUpdate = (Document) markSending.getUpdate();
+        assertThat(sendingUpdate.get("$set", Document.class)).containsOnlyKeys("status");
+        assertThat(sendingUpdate.get("$setOnInsert", Document.class)).containsKey("recipient");
+
+        UpdateOneModel<Document> terminal = (UpdateOneModel<Document>) models.getValue().get(2);
+        Document terminalUpdate = (Document) terminal.getUpdate();
+        assertThat(terminalUpdate.get("$set", Document.class)).containsEntry("status", "SUCCESS")
+                .doesNotContainKey("created_at");
+        assertThat(terminalUpdate.get("$setOnInsert", Document.class)).containsKey("created_at");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writeAll_transitionsOfOneRecordInBatch_coalescedIntoSingleWrite() {
+        when(collection.bulkWrite(any(List.class), any(BulkWriteOptions.class)))
+                .thenReturn(Mono.just(BulkWriteResult.unacknowledged()));
+        RecordEntity queued = record(SendRecordStatus.QUEUED);
+        queued.setSubmittedAt(1L);
+        RecordEntity sending = record(SendRecordStatus.SENDING);
+        sending.setId(queued.getId());
+        RecordEntity success = record(SendRecordStatus.SUCCESS);
+        success.setId(queued.getId());
+        success.setChannelName("smtp");
+        RecordEntity lateSending = record(SendRecordStatus.SENDING);
+        lateSending.setId(queued.getId());
+
+        StepVerifier.create(repository.writeAll(
+                        repository.toDocuments(List.of(queued, sending, success, lateSending)),
+                        WriteConcern.ACKNOWLEDGED))
+                .expectNext(new RecordRepository.WriteResult(1, 0, 3))
+                .verifyComplete();
+
+        ArgumentCaptor<List<WriteModel<Document>>> models = ArgumentCaptor.forClass(List.class);
+        verify(collection).bulkWrite(models.capture(), any(BulkWriteOptions.class));
+        assertThat(models.getValue()).hasSize(1);
+        Document update = (Document) ((UpdateOneModel<Document>) models.getValue().get(0)).getUpdate();
+        assertThat(update.get("$set", Document.class))
+                .containsEntry("status", "SUCCESS")
+                .containsEntry("channel_name", "smtp");
+        assertThat(update.get("$setOnInsert", Document.class)).containsEntry("submitted_at", 1L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writeAll_queuedArrivingAfterSendingInBatch_doesNotRegressStatus() {
+        when(collection.bulkWrite(any(List.class), any(BulkWriteOptions.class)))
+                .thenReturn(Mono.just(BulkWriteResult.unacknowledged()));
+        RecordEntity sending = record(SendRecordStatus.SENDING);
+        RecordEntity lateQueued = record(SendRecordStatus.QUEUED);
+        lateQueued.setId(sending.getId());
+        lateQueued.setSubmittedAt(1L);
+
+        StepVerifier.create(repository.writeAll(repository.toDocuments(List.of(sending, lateQueued)),
+                        WriteConcern.ACKNOWLEDGED))
+                .expectNext(new RecordRepository.WriteResult(1, 0, 1))
+                .verifyComplete();
+
+        ArgumentCaptor<List<WriteModel<Document>>> models = ArgumentCaptor.forClass(List.class);
+        verify(collection).bulkWrite(models.capture(), any(BulkWriteOptions.class));
+        Document update = (Document) ((UpdateOneModel<Document>) models.getValue().get(0)).getUpdate();
+        assertThat(update.get("$set", Document.class)).containsEntry("status", "SENDING");
+        assertThat(update.get("$setOnInsert", Document.class)).containsEntry("submitted_at", 1L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writeAll_duplicateKeysFromRetryOrLateTransition_treatedAsWritten() {
+        when(collection.bulkWrite(any(List.class), any(BulkWriteOptions.class)))
+                .thenReturn(Mono.error(bulkError(11000)));
+
+        StepVerifier.create(repository.writeAll(repository.toDocuments(List.of(
+                        record(SendRecordStatus.QUEUED), record(SendRecordStatus.SUCCESS),
+                        record(SendRecordStatus.SUCCESS))), WriteConcern.ACKNOWLEDGED))
+                .expectNext(new RecordRepository.WriteResult(2, 1, 0))
+                .verifyComplete();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void writeAll_otherWriteErrors_propagate() {
+        when(collection.bulkWrite(any(List.class), any(BulkWriteOptions.class)))
+                .thenReturn(Mono.error(bulkError(121)));
+
+        StepVerifier.create(repository.writeAll(repository.toDocuments(List.of(record(SendRecordStatus.SUCCESS))),
+                        WriteConcern.ACKNOWLEDGED))
+                .expectError(MongoBulkWriteException.class)
+                .verify();
+    }
+
+    @Test
+    void findAfter_cursor_keysetOnSentAtThenIdWithUnsentLast() {
+        ObjectId afterId = ObjectId.get();
+        when(template.find(any(Query.class), eq(RecordEntity.class))).thenReturn(Flux.empty());
+
+        StepVerifier.create(repository.findAfter(11, 1000L, afterId.toString(), "user@example.com", null))
+                .verifyComplete();
+
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(template).find(captor.capture(), eq(RecordEntity.class));
+        Query query = captor.getValue();
+        assertThat(query.getLimit()).isEqualTo(11);
+        assertThat(query.getSortObject()).isEqualTo(new Document("sentAt", -1).append("id", -1));
+        Document filter = query.getQueryObject();
+        assertThat(filter.get("recipient")).isEqualTo("user@example.com");
+        assertThat(filter.getList("$or", Document.class)).containsExactly(
+                new Document("sent_at", new Document("$lt", 1000L)),
+                new Document("sent_at", 1000L).append("_id", new Document("$lt", afterId)),
+                new Document("sent_at", null));
+    }
+
+    @Test
+    void findAfter_cursorInUnsentRange_onlyIdBound() {
+        ObjectId afterId = ObjectId.get();
+        when(template.find(any(Query.class), eq(RecordEntity.class))).thenReturn(Flux.empty());
+
+        StepVerifier.create(repository.findAfter(11, null, afterId.toString(), null, null))
+                .verifyComplete();
+
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(template).find(captor.capture(), eq(RecordEntity.class));
+        assertThat(captor.getValue().getQueryObject())
+                .isEqualTo(new Document("sent_at", null).append("_id", new Document("$lt", afterId)));
+    }
+
+    private static MongoBulkWriteException bulkError(int code) {
+        return new MongoBulkWriteException(BulkWriteResult.unacknowledged(),
+                List.of(new BulkWriteError(code, "write error", new BsonDocument(), 0)),
+                null, new ServerAddress());
+    }
+
+    private static RecordEntity record(SendRecordStatus status) {
+        RecordEntity entity = new RecordEntity();
+        entity.setId(ObjectId.get().toString());
+        entity.setRecipient("user@example.com");
+        entity.setStatus(status);
+        return entity;
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.waitlight.asskicker.service;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecordSpillLogTest {
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void append_rollsSegments_andReadsBackInOrder() throws IOException {
+        List<Document> documents = documents(1000);
+        try (RecordSpillLog spill = new RecordSpillLog(directory, SEGMENT_SIZE, false)) {
+            spill.append(documents);
+            List<Path> segments = spill.seal();
+
+            assertThat(segments).hasSizeGreaterThan(1);
+            List<Document> read = new ArrayList<>();
+            for (Path segment : segments) {
+                read.addAll(RecordSpillLog.read(segment));
+            }
+            assertThat(read).isEqualTo(documents);
+        }
+    }
+
+    @Test
+    void reopen_findsUnreplayedSegments_andContinuesSequence() throws IOException {
+        try (RecordSpillLog spill = new RecordSpillLog(directory, SEGMENT_SIZE, false)) {
+            spill.append(documents(3));
+        }
+        try (RecordSpillLog reopened = new RecordSpillLog(directory, SEGMENT_SIZE, false)) {
+            assertThat(reopened.hasPending()).isTrue();
+            reopened.append(documents(2));
+            List<Path> segments = reopened.seal();
+
+            assertThat(segments).hasSize(2);
+            assertThat(RecordSpillLog.read(segments.get(0))).hasSize(3);
+            assertThat(RecordSpillLog.read(segments.get(1))).hasSize(2);
+
+            reopened.delete(segments.get(0));
+            reopened.delete(segments.get(1));
+            assertThat(reopened.hasPending()).isFalse();
+        }
+    }
+
+    @Test
+    void read_stopsAtCorruptFrame() throws IOException {
+        Path segment;
+        try (RecordSpillLog spill = new RecordSpillLog(directory, SEGMENT_SIZE, false)) {
+            spill.append(documents(3));
+            segment = spill.seal().get(0);
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer length = ByteBuffer.allocate(4);
+            channel.read(length, 0);
+            int secondFrame = 8 + length.flip().getInt();
+            // 破坏第二帧负载中的一个字节，CRC 校验失败后不再读取后续帧
+            channel.write(ByteBuffer.wrap(new byte[] { 0x7f }), secondFrame + 8 + 12);
+        }
+
+        assertThat(RecordSpillLog.read(segment)).hasSize(1);
+    }
+
+    private static List<Document> documents(int count) {
+        List<Document> documents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            documents.add(new Document("_id", ObjectId.get())
+                    .append("recipient", "user" + i + "@example.com")
+                    .append("status", "SUCCESS")
+                    .append("sent_at", 1_700_000_000_000L + i)
+                    .append("params", new Document(Map.of("code", "123456")))
+                    .append("expire_at", new Date()));
+        }
+        return documents;
+    }
+}
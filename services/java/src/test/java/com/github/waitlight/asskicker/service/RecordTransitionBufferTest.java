@@ -0,0 +1,72 @@
+package com.github.waitlight.asskicker.service;
+
+import com.github.waitlight.asskicker.model.RecordEntity;
+import com.github.waitlight.asskicker.model.SendRecordStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecordTransitionBufferTest {
+
+    private final List<RecordEntity> written = new ArrayList<>();
+    private final Counter coalesced = new SimpleMeterRegistry().counter("coalesced");
+
+    @Test
+    void absorb_terminalAfterQueuedAndSending_mergedIntoOneWrite() {
+        RecordTransitionBuffer buffer = new RecordTransitionBuffer(60_000, 100, written::add, coalesced);
+        RecordEntity queued = record("r1", SendRecordStatus.QUEUED);
+        queued.setSubmittedAt(1L);
+        buffer.hold(queued);
+        buffer.hold(record("r1", SendRecordStatus.SENDING));
+
+        RecordEntity merged = buffer.absorb(record("r1", SendRecordStatus.SUCCESS));
+
+        assertThat(merged.getStatus()).isEqualTo(SendRecordStatus.SUCCESS);
+        assertThat(merged.getSubmittedAt()).isEqualTo(1L);
+        assertThat(buffer.size()).isZero();
+        assertThat(written).isEmpty();
+        assertThat(coalesced.count()).isEqualTo(2);
+    }
+
+    @Test
+    void hold_lateQueued_keepsSending_andReleasedAfterLinger() throws Exception {
+        RecordTransitionBuffer buffer = new RecordTransitionBuffer(20, 100, written::add, coalesced);
+        buffer.hold(record("r2", SendRecordStatus.SENDING));
+        RecordEntity lateQueued = record("r2", SendRecordStatus.QUEUED);
+        lateQueued.setSubmittedAt(2L);
+        buffer.hold(lateQueued);
+
+        buffer.releaseExpired();
+        assertThat(written).isEmpty();
+        Thread.sleep(30);
+        buffer.releaseExpired();
+
+        assertThat(written).singleElement().satisfies(r -> {
+            assertThat(r.getStatus()).isEqualTo(SendRecordStatus.SENDING);
+            assertThat(r.getSubmittedAt()).isEqualTo(2L);
+        });
+    }
+
+    @Test
+    void hold_atCapacity_writesThrough() {
+        RecordTransitionBuffer buffer = new RecordTransitionBuffer(60_000, 1, written::add, coalesced);
+        buffer.hold(record("r3", SendRecordStatus.QUEUED));
+        buffer.hold(record("r4", SendRecordStatus.QUEUED));
+
+        assertThat(written).extracting(RecordEntity::getId).containsExactly("r4");
+        buffer.releaseAll();
+        assertThat(written).extracting(RecordEntity::getId).containsExactly("r4", "r3");
+    }
+
+    private static RecordEntity record(String id, SendRecordStatus status) {
+        RecordEntity record = new RecordEntity();
+        record.setId(id);
+        record.setStatus(status);
+        return record;
+    }
+}
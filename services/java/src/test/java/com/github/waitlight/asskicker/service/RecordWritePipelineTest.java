@@ -0,0 +1,166 @@
+package com.github.waitlight.asskicker.service;
+
+import com.github.waitlight.asskicker.config.SendRecordConfig.SendRecordProperties;
+import com.github.waitlight.asskicker.model.RecordEntity;
+import com.mongodb.MongoSocketException;
+import com.mongodb.ServerAddress;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class RecordWritePipelineTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void offer_concurrentProducers_everyRecordWrittenOnceInFullBatches() throws Exception {
+        ConcurrentLinkedQueue<List<RecordEntity>> batches = new ConcurrentLinkedQueue<>();
+        RecordWritePipeline pipeline = pipeline(batch -> {
+            batches.add(batch);
+            return Mono.empty();
+        }, properties(10, 100_000, 2, 0));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch done = new CountDownLatch(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    pipeline.offer(new RecordEntity());
+                }
+                done.countDown();
+            });
+        }
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        executor.shutdown();
+        pipeline.flush();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> pipeline.getPending() == 0);
+        assertThat(batches.stream().mapToInt(List::size).sum()).isEqualTo(8000);
+        assertThat(batches).allSatisfy(b -> assertThat(b).hasSize(10));
+        assertThat(registry.get("asskicker.record.dropped").tag("reason", "queue_full").counter().count()).isZero();
+    }
+
+    @Test
+    void offer_writerStalled_boundsConcurrentFlushes_andShedsWhenFull() {
+        Sinks.Empty<Void> gate = Sinks.empty();
+        AtomicInteger started = new AtomicInteger();
+        RecordWritePipeline pipeline = pipeline(batch -> {
+            started.incrementAndGet();
+            return gate.asMono();
+        }, properties(5, 20, 2, 0));
+
+        for (int i = 0; i < 25; i++) {
+            pipeline.offer(new RecordEntity());
+        }
+
+        assertThat(started.get()).isEqualTo(2);
+        assertThat(pipeline.getPending()).isEqualTo(20);
+        assertThat(registry.get("asskicker.record.queue.depth").gauge().value()).isEqualTo(20);
+        assertThat(registry.get("asskicker.record.dropped").tag("reason", "queue_full").counter().count())
+                .isEqualTo(5);
+
+        gate.tryEmitEmpty();
+        await().atMost(Duration.ofSeconds(5)).until(() -> pipeline.getPending() == 0);
+        assertThat(started.get()).isEqualTo(4);
+    }
+
+    @Test
+    void flush_transientError_retriedWithBackoff_thenWritten() {
+        AtomicInteger attempts = new AtomicInteger();
+        RecordWritePipeline pipeline = pipeline(batch -> attempts.incrementAndGet() < 3
+                ? Mono.error(new MongoSocketException("connection reset", new ServerAddress()))
+                : Mono.empty(), properties(100, 1000, 1, 3));
+
+        pipeline.offer(new RecordEntity());
+        pipeline.flush();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> pipeline.getPending() == 0);
+        assertThat(attempts.get()).isEqualTo(3);
+        assertThat(registry.get("asskicker.record.flush.retries").counter().count()).isEqualTo(2);
+        assertThat(registry.get("asskicker.record.dropped").tag("reason", "flush_failed").counter().count()).isZero();
+    }
+
+    @Test
+    void flush_nonTransientError_dropsBatchWithoutRetry() {
+        AtomicInteger attempts = new AtomicInteger();
+        RecordWritePipeline pipeline = pipeline(batch -> {
+            attempts.incrementAndGet();
+            return Mono.error(new IllegalArgumentException("bad document"));
+        }, properties(100, 1000, 1, 3));
+
+        pipeline.offer(new RecordEntity());
+        pipeline.offer(new RecordEntity());
+        pipeline.flush();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> pipeline.getPending() == 0);
+        assertThat(attempts.get()).isEqualTo(1);
+        assertThat(registry.get("asskicker.record.dropped").tag("reason", "flush_failed").counter().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void flush_retriesExhausted_handsBatchToFallbackInsteadOfDropping() {
+        ConcurrentLinkedQueue<RecordEntity> spilled = new ConcurrentLinkedQueue<>();
+        RecordWritePipeline pipeline = new RecordWritePipeline(
+                batch -> Mono.error(new MongoSocketException("connection refused", new ServerAddress())),
+                spilled::addAll, properties(100, 1000, 1, 1), registry);
+
+        pipeline.offer(new RecordEntity());
+        pipeline.offer(new RecordEntity());
+        pipeline.flush();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> spilled.size() == 2);
+        assertThat(registry.get("asskicker.record.dropped").tag("reason", "flush_failed").counter().count()).isZero();
+    }
+
+    @Test
+    void offer_queueFull_spillsOnDedicatedThreadNotCaller() {
+        Sinks.Empty<Void> gate = Sinks.empty();
+        ConcurrentLinkedQueue<RecordEntity> spilled = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<String> spillThreads = new ConcurrentLinkedQueue<>();
+        RecordWritePipeline pipeline = new RecordWritePipeline(batch -> gate.asMono(), batch -> {
+            spillThreads.add(Thread.currentThread().getName());
+            return spilled.addAll(batch);
+        }, properties(5, 10, 2, 0), registry);
+
+        for (int i = 0; i < 15; i++) {
+            assertThat(pipeline.offer(new RecordEntity())).isTrue();
+        }
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> spilled.size() == 5);
+        assertThat(spillThreads).containsOnly("record-spill");
+        assertThat(registry.get("asskicker.record.dropped").tag("reason", "queue_full").counter().count()).isZero();
+        gate.tryEmitEmpty();
+        pipeline.close();
+    }
+
+    private RecordWritePipeline pipeline(Function<List<RecordEntity>, Mono<Void>> writer,
+                                         SendRecordProperties properties) {
+        return new RecordWritePipeline(writer, null, properties, registry);
+    }
+
+    private static SendRecordProperties properties(int batchSize, int capacity, int maxConcurrentFlushes,
+                                                   int maxRetries) {
+        SendRecordProperties properties = new SendRecordProperties();
+        properties.setBufferSize(batchSize);
+        properties.setQueueCapacity(capacity);
+        properties.setMaxConcurrentFlushes(maxConcurrentFlushes);
+        properties.setMaxRetries(maxRetries);
+        properties.setRetryBackoffMs(10);
+        return properties;
+    }
+}
@@ -0,0 +1,159 @@
+package com.github.waitlight.asskicker.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.waitlight.asskicker.channel.SendReq;
+import com.github.waitlight.asskicker.channel.impl.ImReq;
+import com.github.waitlight.asskicker.channel.impl.SmsReq;
+import com.github.waitlight.asskicker.config.RocketMQConfig.RocketMQProperties;
+import com.github.waitlight.asskicker.dto.send.SendBatchItemVO;
+import com.github.waitlight.asskicker.exception.BadRequestException;
+import com.github.waitlight.asskicker.model.ChannelType;
+import com.github.waitlight.asskicker.mq.SendReqProducer;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SendServiceTest {
+
+    private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+    private static final String SMS_LINE = "{\"type\":\"SMS\",\"phoneNumber\":\"13800000000\",\"signName\":\"s\"}";
+    private static final String IM_LINE = "{\"type\":\"DINGTALK\",\"token\":\"t\",\"content\":\"hello\"}";
+
+    @Mock
+    private SendReqProducer sendReqProducer;
+
+    @Mock
+    private RecordService recordService;
+
+    private SendService sendService;
+
+    @BeforeEach
+    void setUp() {
+        RocketMQProperties properties = new RocketMQProperties();
+        properties.setSendReqsTopic("topic");
+        properties.getProducer().setBatchMaxSize(2);
+        properties.getProducer().setBatchLinger(Duration.ofSeconds(30));
+        sendService = new SendService(sendReqProducer, VALIDATOR, properties, recordService, new ObjectMapper());
+        ReflectionTestUtils.setField(sendService, "batchMaxItems", 5);
+    }
+
+    @Test
+    void sendBatch_mixedTypes_returnsPerItemResultsInOrder() {
+        when(sendReqProducer.publishBatch(anyList())).thenReturn(Mono.empty());
+
+        StepVerifier.create(sendService.sendBatch(Flux.just(sms("13800000000"), im("token"), sms("bad"))))
+                .assertNext(vo -> {
+                    assertThat(vo.total()).isEqualTo(3);
+                    assertThat(vo.accepted()).isEqualTo(2);
+                    assertThat(vo.rejected()).isEqualTo(1);
+                    assertThat(vo.items()).extracting(SendBatchItemVO::index).containsExactly(0L, 1L, 2L);
+                    assertThat(vo.items().get(0).recordId()).isNotBlank();
+                    assertThat(vo.items().get(1).recordId()).isNotBlank();
+                    assertThat(vo.items().get(2).recordId()).isNull();
+                    assertThat(vo.items().get(2).error()).contains("phoneNumber");
+                })
+                .verifyComplete();
+
+        verify(sendReqProducer, times(2)).publishBatch(anyList());
+    }
+
+    @Test
+    void sendBatch_publishFailure_rejectsOnlyThatChunk() {
+        when(sendReqProducer.publishBatch(anyList()))
+                .thenReturn(Mono.error(new IllegalStateException("broker down")))
+                .thenReturn(Mono.empty());
+
+        StepVerifier.create(sendService.sendBatch(Flux.just(sms("13800000000"), sms("13800000001"),
+                        sms("13800000002"))))
+                .assertNext(vo -> {
+                    assertThat(vo.accepted()).isEqualTo(1);
+                    assertThat(vo.items().get(0).error()).contains("broker down");
+                    assertThat(vo.items().get(2).recordId()).isNotBlank();
+                })
+                .verifyComplete();
+
+        // 只为投递成功的请求写 QUEUED 记录
+        verify(recordService, times(1)).createQueued(any(SendReq.class));
+    }
+
+    @Test
+    void sendBatch_tooManyItems_failsWithBadRequest() {
+        List<SendReq> reqs = List.of(sms("13800000000"), sms("13800000000"), sms("13800000000"),
+                sms("13800000000"), sms("13800000000"), sms("13800000000"));
+
+        StepVerifier.create(sendService.sendBatch(Flux.fromIterable(reqs)))
+                .expectError(BadRequestException.class)
+                .verify();
+
+        verify(sendReqProducer, never()).publishBatch(anyList());
+        verify(recordService, never()).createQueued(any());
+    }
+
+    @Test
+    void sendStream_emitsOneResultPerLine_andReportsAbortedBody() {
+        when(sendReqProducer.publishBatch(anyList())).thenReturn(Mono.empty());
+        Flux<String> body = Flux.just(SMS_LINE, "{\"type\":\"SMS\",\"phoneNumber\":\"bad\",\"signName\":\"s\"}",
+                        IM_LINE)
+                .concatWith(Flux.error(new IllegalArgumentException("connection reset")));
+
+        StepVerifier.create(sendService.sendStream(body))
+                .assertNext(item -> assertThat(item.recordId()).isNotBlank())
+                .assertNext(item -> assertThat(item.error()).contains("phoneNumber"))
+                .assertNext(item -> assertThat(item.index()).isEqualTo(2L))
+                .assertNext(item -> {
+                    assertThat(item.index()).isEqualTo(-1L);
+                    assertThat(item.error()).contains("connection reset");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void sendStream_malformedLine_rejectedAtItsIndex_andLaterLinesStillAccepted() {
+        when(sendReqProducer.publishBatch(anyList())).thenReturn(Mono.empty());
+        Flux<String> body = Flux.just(SMS_LINE, "{not json", "", IM_LINE, SMS_LINE);
+
+        StepVerifier.create(sendService.sendStream(body).collectList())
+                .assertNext(items -> {
+                    assertThat(items).extracting(SendBatchItemVO::index).containsExactly(0L, 1L, 2L, 3L);
+                    assertThat(items.get(1).error()).startsWith("malformed line");
+                    assertThat(items).filteredOn(item -> item.recordId() != null).hasSize(3);
+                })
+                .verifyComplete();
+    }
+
+    private static SmsReq sms(String phone) {
+        SmsReq req = new SmsReq();
+        req.setType(ChannelType.SMS);
+        req.setPhoneNumber(phone);
+        req.setSignName("sign");
+        return req;
+    }
+
+    private static ImReq im(String token) {
+        ImReq req = new ImReq();
+        req.setType(ChannelType.DINGTALK);
+        req.setToken(token);
+        req.setContent("hello");
+        return req;
+    }
+}
@@ -0,0 +1,221 @@
+package com.github.waitlight.asskicker.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.waitlight.asskicker.channel.AbstractChannel;
+import com.github.waitlight.asskicker.channel.ChannelManager;
+import com.github.waitlight.asskicker.channel.SendReq;
+import com.github.waitlight.asskicker.channel.impl.PushReq;
+import com.github.waitlight.asskicker.config.ChannelCircuitBreakerConfig.ChannelCircuitBreakerProperties;
+import com.github.waitlight.asskicker.config.ChannelHedgingConfig.ChannelHedgingProperties;
+import com.github.waitlight.asskicker.model.ChannelEntity;
+import com.github.waitlight.asskicker.model.ChannelProvider;
+import com.github.waitlight.asskicker.model.ChannelType;
+import com.github.waitlight.asskicker.model.RecordEntity;
+import com.github.waitlight.asskicker.model.SendRecordStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SenderTest {
+
+    @Mock
+    private TemplateEngine templateEngine;
+
+    @Mock
+    private ChannelManager channelManager;
+
+    @Mock
+    private RecordService recordService;
+
+    private Sender sender;
+
+    @BeforeEach
+    void setUp() {
+        ChannelHedgingProperties hedging = new ChannelHedgingProperties();
+        hedging.setDefaultDelay(Duration.ofMillis(20));
+        hedging.setMinDelay(Duration.ofMillis(10));
+        sender = new Sender(templateEngine, channelManager, new ChannelCircuitBreakerProperties(), hedging,
+                new SimpleMeterRegistry(), recordService);
+        when(templateEngine.fill(any(SendReq.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+        when(recordService.create(any(RecordEntity.class))).thenAnswer(inv -> {
+            RecordEntity record = inv.getArgument(0);
+            if (record.getId() == null) {
+                record.setId("gen-" + record.getRecipient());
+            }
+            return record.getId();
+        });
+    }
+
+    @Test
+    void send_hedged_firstSuccessWins_andWritesSingleRecord() {
+        TestChannel slow = channel("apns-slow", Mono.never());
+        TestChannel fast = channel("apns-fast", Mono.just("ok"));
+        when(channelManager.chose(any(SendReq.class))).thenReturn(Mono.just(slow));
+        when(channelManager.choseFailover(eq(ChannelType.APNS), isNull(), anySet())).thenReturn(Mono.just(fast));
+
+        StepVerifier.create(sender.send(push(true)))
+                .expectNext("rec-1")
+                .verifyComplete();
+
+        ArgumentCaptor<RecordEntity> records = ArgumentCaptor.forClass(RecordEntity.class);
+        verify(recordService, times(1)).create(records.capture());
+        assertThat(records.getValue().getChannelId()).isEqualTo("apns-fast");
+        assertThat(records.getValue().getStatus()).isEqualTo(SendRecordStatus.SUCCESS);
+        assertThat(slow.getInFlight()).isZero();
+    }
+
+    @Test
+    void send_marksSendingOnSubscribe_notWhenAssembled() {
+        when(channelManager.chose(any(SendReq.class))).thenReturn(Mono.just(channel("apns", Mono.just("ok"))));
+
+        Mono<String> send = sender.send(push(false));
+        verify(recordService, never()).markSending(any(SendReq.class));
+
+        StepVerifier.create(send)
+                .expectNext("rec-1")
+                .verifyComplete();
+        verify(recordService, times(1)).markSending(any(SendReq.class));
+    }
+
+    @Test
+    void send_failure_failsOverAndRecordsAttempts() {
+        TestChannel broken = channel("apns-broken", Mono.error(new IllegalStateException("timeout")));
+        TestChannel healthy = channel("apns-healthy", Mono.just("ok"));
+        when(channelManager.chose(any(SendReq.class))).thenReturn(Mono.just(broken));
+        when(channelManager.choseFailover(eq(ChannelType.APNS), isNull(), anySet())).thenReturn(Mono.just(healthy));
+
+        StepVerifier.create(sender.send(push(false)))
+                .expectNext("rec-1")
+                .verifyComplete();
+
+        ArgumentCaptor<RecordEntity> records = ArgumentCaptor.forClass(RecordEntity.class);
+        verify(recordService, times(1)).create(records.capture());
+        assertThat(records.getValue().getChannelId()).isEqualTo("apns-healthy");
+        assertThat(records.getValue().getFailoverAttempts()).isEqualTo(1);
+    }
+
+    @Test
+    void send_multiToken_recordsEachTokenAndSucceedsOnPartialFailure() {
+        TestChannel fcm = channel("fcm", req -> "bad".equals(req.recipient())
+                ? Mono.error(new IllegalStateException("FCM INVALID_ARGUMENT"))
+                : Mono.just("ok"));
+        when(channelManager.chose(any(SendReq.class))).thenReturn(Mono.just(fcm));
+        when(channelManager.choseFailover(eq(ChannelType.APNS), isNull(), anySet())).thenReturn(Mono.empty());
+        PushReq req = push(false);
+        req.setDeviceTokens(List.of("t1", "bad", "t3"));
+
+        StepVerifier.create(sender.send(req))
+                .expectNext("rec-1")
+                .verifyComplete();
+
+        ArgumentCaptor<RecordEntity> records = ArgumentCaptor.forClass(RecordEntity.class);
+        verify(recordService, times(3)).create(records.capture());
+        assertThat(records.getAllValues())
+                .extracting(RecordEntity::getRecipient, RecordEntity::getStatus)
+                .containsExactlyInAnyOrder(
+                        tuple("t1", SendRecordStatus.SUCCESS),
+                        tuple("bad", SendRecordStatus.FAILED),
+                        tuple("t3", SendRecordStatus.SUCCESS));
+        assertThat(records.getAllValues()).filteredOn(r -> "rec-1".equals(r.getId())).hasSize(1);
+    }
+
+    @Test
+    void send_multiToken_boundsFanOutConcurrency_andReturnsFirstPartId() {
+        ReflectionTestUtils.setField(sender, "fanOutConcurrency", 2);
+        List<Sinks.One<String>> started = new ArrayList<>();
+        TestChannel fcm = channel("fcm", req -> {
+            Sinks.One<String> sink = Sinks.one();
+            started.add(sink);
+            return sink.asMono();
+        });
+        when(channelManager.chose(any(SendReq.class))).thenReturn(Mono.just(fcm));
+        PushReq req = push(false);
+        req.setRecordId(null);
+        req.setDeviceTokens(List.of("t1", "t2", "t3", "t4", "t5"));
+
+        AtomicReference<String> result = new AtomicReference<>();
+        sender.send(req).subscribe(result::set);
+
+        assertThat(started).hasSize(2);
+        for (int i = 0; i < 5; i++) {
+            assertThat(started).hasSizeLessThanOrEqualTo(i + 2);
+            started.get(i).tryEmitValue("ok");
+        }
+        assertThat(started).hasSize(5);
+        assertThat(result.get()).isNotBlank();
+        ArgumentCaptor<RecordEntity> records = ArgumentCaptor.forClass(RecordEntity.class);
+        verify(recordService, times(5)).create(records.capture());
+        assertThat(records.getAllValues()).filteredOn(r -> result.get().equals(r.getId()))
+                .extracting(RecordEntity::getRecipient)
+                .containsExactly("t1");
+    }
+
+    private TestChannel channel(String id, Mono<String> result) {
+        return channel(id, req -> result);
+    }
+
+    private TestChannel channel(String id, Function<SendReq, Mono<String>> result) {
+        ChannelEntity entity = new ChannelEntity();
+        entity.setId(id);
+        entity.setCode(id);
+        entity.setType(ChannelType.APNS);
+        entity.setProvider(ChannelProvider.APPLE);
+        return new TestChannel(entity, new ObjectMapper(), recordService, result);
+    }
+
+    private static PushReq push(boolean hedge) {
+        PushReq req = new PushReq();
+        req.setType(ChannelType.APNS);
+        req.setRecordId("rec-1");
+        req.setHedge(hedge);
+        return req;
+    }
+
+    private static final class TestChannel extends AbstractChannel<SendReq> {
+
+        private final Function<SendReq, Mono<String>> result;
+
+        TestChannel(ChannelEntity entity, ObjectMapper objectMapper, RecordService recordService,
+                    Function<SendReq, Mono<String>> result) {
+            super(entity, WebClient.create(), objectMapper, recordService);
+            this.result = result;
+        }
+
+        @Override
+        protected Mono<String> doSend(SendReq req) {
+            return result.apply(req);
+        }
+
+        @Override
+        public void dispose() {
+
+        }
+    }
+}
@@ -27,3 +27,14 @@ export function unwrapPage(json) {
     size: json.size
   }
 }
+
+/**
+ * 游标分页 JSON：列表在 data，nextCursor 为空表示没有下一页
+ */
+export function unwrapCursorPage(json) {
+  return {
+    items: Array.isArray(json?.data) ? json.data : [],
+    nextCursor: json?.nextCursor || null,
+    total: json?.total ?? null
+  }
+}
@@ -1,4 +1,4 @@
-import { unwrapData, unwrapPage } from './apiPayload'
+import { unwrapCursorPage, unwrapData, unwrapPage } from './apiPayload'
 import { apiFetch } from './v1'
 
 export const listSendRecords = async (page = 1, size = 10, recipient, channelType) => {
@@ -17,6 +17,25 @@ export const listSendRecords = async (page = 1, size = 10, recipient, channelTyp
   return unwrapPage(json)
 }
 
+export const scrollSendRecords = async (size = 10, cursor, recipient, channelType) => {
+  const params = new URLSearchParams({ size: String(size) })
+  if (cursor) {
+    params.set('cursor', cursor)
+  }
+  if (recipient != null && String(recipient).trim() !== '') {
+    params.set('recipient', String(recipient).trim())
+  }
+  if (channelType != null && String(channelType).trim() !== '') {
+    params.set('channelType', String(channelType).trim())
+  }
+  const response = await apiFetch(`/v1/records/cursor?${params.toString()}`)
+  if (!response.ok) {
+    throw new Error(await response.text())
+  }
+  const json = await response.json()
+  return unwrapCursorPage(json)
+}
+
 export const getSendRecord = async (id) => {
   const response = await apiFetch(`/v1/records/${id}`)
   if (!response.ok) {